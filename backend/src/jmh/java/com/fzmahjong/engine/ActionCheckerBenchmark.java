@@ -0,0 +1,70 @@
+package com.fzmahjong.engine;
+
+import com.fzmahjong.model.Player;
+import com.fzmahjong.model.Tile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 吃 / 碰 / 暗杠检查与统一响应判定基准（每次调用遍历整份语料）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ActionCheckerBenchmark {
+
+    private Tile gold;
+    private Tile discard;
+    private List<Player> hands16;
+    private List<Player> hands17;
+
+    @Setup
+    public void setUp() {
+        gold = HandCorpus.gold();
+        discard = HandCorpus.DISCARD;
+        hands16 = HandCorpus.players16();
+        hands17 = HandCorpus.winningPlayers17();
+    }
+
+    @Benchmark
+    public void canChi(Blackhole bh) {
+        for (Player player : hands16) {
+            // 出牌者固定为上家，保证每手都走完整的吃牌判断
+            bh.consume(ActionChecker.canChi(player, discard, (player.getPosition() + 3) % 4,
+                    player.getPosition(), gold));
+        }
+    }
+
+    @Benchmark
+    public void canPeng(Blackhole bh) {
+        for (Player player : hands16) {
+            bh.consume(ActionChecker.canPeng(player, discard));
+        }
+    }
+
+    @Benchmark
+    public void anGangKinds(Blackhole bh) {
+        for (Player player : hands17) {
+            bh.consume(ActionChecker.anGangKinds(player));
+        }
+    }
+
+    @Benchmark
+    public void evaluate(Blackhole bh) {
+        // 一次调用得到下家对这张牌的全部响应（胡用 0 位集代替，只测吃碰杠部分）
+        int kind = discard.getKind();
+        int goldKind = gold.getKind();
+        for (Player player : hands16) {
+            bh.consume(ActionEvaluator.evaluate(player.getKindCounts(), kind, goldKind, ActionEvaluator.NEXT, 0L));
+        }
+    }
+}
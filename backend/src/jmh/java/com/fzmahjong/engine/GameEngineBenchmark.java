@@ -0,0 +1,81 @@
+package com.fzmahjong.engine;
+
+import com.fzmahjong.model.GamePhase;
+import com.fzmahjong.model.GameState;
+import com.fzmahjong.model.Player;
+import com.fzmahjong.model.Tile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GameEngine 出牌后动作检测与胡牌类型判定基准
+ *
+ * 出牌场景：4 名玩家分别持语料中的 4 手牌，上家打出 {@link HandCorpus#DISCARD}，
+ * 每次调用都会重新计算其余三家的胡/杠/碰/吃与出牌者的听牌提示。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class GameEngineBenchmark {
+
+    /** 出牌场景中 4 名玩家使用的语料下标 */
+    private static final int[] TABLE_HANDS = {5, 0, 3, 6};
+
+    private GameEngine discardEngine;
+    private Tile discard;
+
+    private GameEngine winEngine;
+    private List<Player> winners;
+
+    @Setup
+    public void setUp() {
+        GameState table = new GameState("bench-discard");
+        table.setGoldTile(HandCorpus.gold());
+        table.setPhase(GamePhase.PLAYING);
+        int[] used = new int[Tile.KIND_COUNT];
+        for (int seat = 0; seat < TABLE_HANDS.length; seat++) {
+            table.addPlayer(HandCorpus.player("p" + seat, seat, HandCorpus.HANDS_16[TABLE_HANDS[seat]], used));
+        }
+        discardEngine = new GameEngine(table);
+        discard = HandCorpus.DISCARD;
+
+        GameState finished = new GameState("bench-win");
+        finished.setGoldTile(HandCorpus.gold());
+        finished.setPhase(GamePhase.PLAYING);
+        winners = HandCorpus.winningPlayers17();
+        for (int seat = 0; seat < 4; seat++) {
+            finished.addPlayer(winners.get(seat % winners.size()));
+        }
+        finished.getDiscardedTiles().add(discard);
+        winEngine = new GameEngine(finished);
+    }
+
+    @Benchmark
+    public void checkAvailableActionsAfterDiscard(Blackhole bh) {
+        discardEngine.checkAvailableActionsAfterDiscard(discard, 0);
+        bh.consume(discardEngine.getGameState().getCurrentActionPlayerId());
+    }
+
+    @Benchmark
+    public void determineWinTypeZiMo(Blackhole bh) {
+        for (Player winner : winners) {
+            bh.consume(winEngine.determineWinType(winner, true, false));
+        }
+    }
+
+    @Benchmark
+    public void determineWinTypeDianPao(Blackhole bh) {
+        for (Player winner : winners) {
+            bh.consume(winEngine.determineWinType(winner, false, false));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.fzmahjong.engine;
+
+import com.fzmahjong.model.Player;
+import com.fzmahjong.model.Tile;
+import com.fzmahjong.model.TileType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试用的固定手牌语料（牌码格式同 FirstHandPreset：1W-9W / 1T-9T / 1B-9B / E S W N Z P F / H1-H8）
+ *
+ * 覆盖三类典型场景：
+ * - 日常牌局中的 16 张听牌 / 未听牌
+ * - 一门长顺子链（回溯分支最多的清一色）
+ * - 手握 2~3 张金的重金手牌
+ */
+final class HandCorpus {
+
+    /** 金牌（所有语料统一使用） */
+    static final String GOLD = "5B";
+
+    /** 别人打出的牌（点炮 / 吃碰杠判断用，取该种牌的最后一张实体牌，避免与手牌重复） */
+    static final Tile DISCARD = Tile.of(TileType.BING, 3, 3);
+
+    /** 16 张暗牌（等待进张） */
+    static final String[] HANDS_16 = {
+            // 普通混色，双碰听 3B / 9T
+            "1W 2W 3W 5W 6W 7W 2T 3T 4T 6B 7B 8B 3B 3B 9T 9T",
+            // 清一色长顺子链（多面听，拆分分支最多）
+            "1W 1W 1W 2W 2W 3W 3W 4W 4W 5W 6W 7W 8W 9W 9W 9W",
+            // 七对型，不听牌
+            "1W 1W 3W 3W 5T 5T 7T 7T 2B 2B 4B 4B 6B 6B 8B 8B",
+            // 2 张金
+            "5B 5B 1W 2W 3W 4T 5T 6T 7W 8W 9W 2B 3B 6T 7T 1T",
+            // 3 张金（三金倒）
+            "5B 5B 5B 1W 4W 7W 2T 5T 8T 3B 6B 9B 9W 9T 1B 2W",
+            // 散牌，远未听牌
+            "1W 4W 7W 2T 5T 8T 3B 6B 9B 1B 4T 7B 9W 9T 2W 6W",
+            // 一门连顺 + 1 张金
+            "5B 2T 3T 4T 5T 6T 7T 8T 9T 1T 1T 3W 4W 6W 7W 8W"
+    };
+
+    private HandCorpus() {
+    }
+
+    static Tile gold() {
+        return FirstHandPreset.parseTileCode(GOLD);
+    }
+
+    /**
+     * 按牌码建一名玩家的手牌；used 记录每种牌已经取到第几张，同一场景内不会拿到同一张实体牌
+     * （超出 4 张时退化为不属于牌墙的临时牌，只影响身份比较，不影响牌型）
+     */
+    static Player player(String id, int position, String codes, int[] used) {
+        Player player = new Player(id, id, position);
+        for (Tile tile : tiles(codes, used)) {
+            player.addTile(tile);
+        }
+        return player;
+    }
+
+    static List<Tile> tiles(String codes, int[] used) {
+        List<Tile> tiles = new ArrayList<>();
+        for (String code : codes.trim().split("\\s+")) {
+            tiles.add(tile(code, used));
+        }
+        return tiles;
+    }
+
+    static Tile tile(String code, int[] used) {
+        Tile base = FirstHandPreset.parseTileCode(code);
+        if (base == null) {
+            throw new IllegalArgumentException("无效牌码：" + code);
+        }
+        int copy = used[base.getKind()]++;
+        Tile tile = Tile.of(base.getType(), base.getValue(), copy);
+        return tile != null ? tile : new Tile(base.getType(), base.getValue(), base.getId() + "_x" + copy);
+    }
+
+    static List<Player> players16() {
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < HANDS_16.length; i++) {
+            players.add(player("p" + i, i % 4, HANDS_16[i], new int[Tile.KIND_COUNT]));
+        }
+        return players;
+    }
+
+    /**
+     * 17 张和牌：对每手听牌的 16 张补上第一张可胡的牌
+     */
+    static List<Player> winningPlayers17() {
+        Tile gold = gold();
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < HANDS_16.length; i++) {
+            int[] used = new int[Tile.KIND_COUNT];
+            Player player = player("w" + i, i % 4, HANDS_16[i], used);
+            List<Tile> ting = ActionChecker.getTingTiles(player, gold);
+            if (ting.isEmpty()) {
+                continue;
+            }
+            Tile winning = ting.get(0);
+            int copy = used[winning.getKind()]++;
+            Tile tile = Tile.of(winning.getType(), winning.getValue(), copy);
+            player.addTile(tile != null ? tile : new Tile(winning.getType(), winning.getValue(), "win_" + i));
+            players.add(player);
+        }
+        return players;
+    }
+}
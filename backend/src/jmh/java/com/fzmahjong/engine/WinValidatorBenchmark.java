@@ -0,0 +1,70 @@
+package com.fzmahjong.engine;
+
+import com.fzmahjong.model.Player;
+import com.fzmahjong.model.Tile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 胡牌 / 听牌判断基准（每次调用遍历整份语料）
+ *
+ * 共享结果缓存默认关闭；测带缓存的情况时追加 -jvmArgsAppend -Dfzmahjong.hand-cache.capacity=65536
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class WinValidatorBenchmark {
+
+    private Tile gold;
+    private Tile discard;
+    private List<Player> hands16;
+    private List<Player> hands17;
+
+    @Setup
+    public void setUp() {
+        gold = HandCorpus.gold();
+        discard = HandCorpus.DISCARD;
+        hands16 = HandCorpus.players16();
+        hands17 = HandCorpus.winningPlayers17();
+    }
+
+    @Benchmark
+    public void canWin17(Blackhole bh) {
+        for (Player player : hands17) {
+            bh.consume(WinValidator.canWin(player.getHandTiles(), gold, false));
+        }
+    }
+
+    @Benchmark
+    public void decompose17(Blackhole bh) {
+        // 列出全部拆法（胡牌时 WinAnalysis 只调用一次）
+        int goldKind = gold.getKind();
+        for (Player player : hands17) {
+            bh.consume(HandDecomposer.decompose(player.getKindCounts(), goldKind));
+        }
+    }
+
+    @Benchmark
+    public void canWin16PlusDiscard(Blackhole bh) {
+        // 点炮判断：16 张 + 别人打出的牌（大多数组合不能胡）
+        for (Player player : hands16) {
+            bh.consume(ActionChecker.canHu(player, discard, gold, false));
+        }
+    }
+
+    @Benchmark
+    public void getTingTiles(Blackhole bh) {
+        for (Player player : hands16) {
+            bh.consume(ActionChecker.getTingTiles(player, gold));
+        }
+    }
+}
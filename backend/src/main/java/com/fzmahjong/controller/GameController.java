@@ -1,22 +1,27 @@
 package com.fzmahjong.controller;
 
 import com.fzmahjong.engine.GameEngine;
+import com.fzmahjong.engine.HandEvalCache;
 import com.fzmahjong.model.GamePhase;
 import com.fzmahjong.model.GameState;
-import com.fzmahjong.model.Player;
-import com.fzmahjong.model.Tile;
+import com.fzmahjong.service.RoomExecutor;
 import com.fzmahjong.service.RoomManager;
+import com.fzmahjong.service.RoomTimerService;
+import com.fzmahjong.service.SpeculationService;
+import com.fzmahjong.service.StateBroadcaster;
+import com.fzmahjong.service.TurnTimeoutService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 游戏控制器
@@ -26,12 +31,26 @@ public class GameController {
 
     private static final Logger log = LoggerFactory.getLogger(GameController.class);
 
-    private final RoomManager roomManager;
-    private final SimpMessagingTemplate messagingTemplate;
+    /** 房间定时任务名：加入房间后的延迟广播 / 单局结束后的自动开下一局 */
+    private static final String TIMER_JOIN_BROADCAST = "joinBroadcast";
+    private static final String TIMER_NEXT_HAND = "nextHand";
 
-    public GameController(RoomManager roomManager, SimpMessagingTemplate messagingTemplate) {
+    private final RoomManager roomManager;
+    private final StateBroadcaster stateBroadcaster;
+    private final RoomExecutor roomExecutor;
+    private final RoomTimerService roomTimers;
+    private final TurnTimeoutService turnTimeouts;
+    private final SpeculationService speculation;
+
+    public GameController(RoomManager roomManager, StateBroadcaster stateBroadcaster,
+                          RoomExecutor roomExecutor, RoomTimerService roomTimers,
+                          TurnTimeoutService turnTimeouts, SpeculationService speculation) {
         this.roomManager = roomManager;
-        this.messagingTemplate = messagingTemplate;
+        this.stateBroadcaster = stateBroadcaster;
+        this.roomExecutor = roomExecutor;
+        this.roomTimers = roomTimers;
+        this.turnTimeouts = turnTimeouts;
+        this.speculation = speculation;
     }
 
     /**
@@ -52,11 +71,14 @@ public class GameController {
     @PostMapping("/api/room/join")
     @ResponseBody
     public Map<String, Object> joinRoom(@RequestBody JoinRoomRequest request) {
-        boolean success = roomManager.joinRoom(
-            request.getRoomId(),
-            request.getPlayerId(),
-            request.getPlayerName()
-        );
+        String roomId = request.getRoomId();
+        // 加入房间（以及满员后开局）会改动对局状态，同样要在房间邮箱里串行执行
+        boolean success = roomId != null && roomManager.getEngine(roomId) != null
+            && roomExecutor.submit(roomId, () -> roomManager.joinRoom(
+                roomId,
+                request.getPlayerId(),
+                request.getPlayerName()
+            )).join();
         
         Map<String, Object> response = new HashMap<>();
         response.put("success", success);
@@ -64,23 +86,66 @@ public class GameController {
         if (success) {
             // 延迟广播，给新玩家的WebSocket连接留一点时间
             // 即使新玩家错过这次广播，也会在WebSocket连接后通过 /game/sync 主动同步
-            new Thread(() -> {
-                try {
-                    Thread.sleep(500); // 延迟500毫秒
-                    GameEngine engine = roomManager.getEngine(request.getRoomId());
-                    if (engine != null) {
-                        broadcastGameState(request.getRoomId(), engine.getGameState());
-                        log.info("延迟广播游戏状态完成");
-                    }
-                } catch (InterruptedException e) {
-                    log.error("延迟广播被中断", e);
+            // 500 毫秒内连续有人加入时只广播一次（同名定时任务会取消旧的）
+            roomTimers.schedule(roomId, TIMER_JOIN_BROADCAST, 500, TimeUnit.MILLISECONDS, () -> {
+                GameEngine engine = roomManager.getEngine(roomId);
+                if (engine != null) {
+                    broadcastGameState(roomId, engine.getGameState());
+                    log.info("延迟广播游戏状态完成");
                 }
-            }).start();
+            });
         }
         
         return response;
     }
 
+    /**
+     * 胡牌/听牌共享缓存的命中统计（用于按线上流量调整容量）
+     */
+    @GetMapping("/api/stats/hand-cache")
+    @ResponseBody
+    public Map<String, Long> handCacheStats() {
+        return HandEvalCache.stats();
+    }
+
+    /**
+     * 增量状态同步统计（增量 / 快照条数，无变化而省掉的广播次数）
+     */
+    @GetMapping("/api/stats/sync")
+    @ResponseBody
+    public Map<String, Long> syncStats() {
+        return stateBroadcaster.stats();
+    }
+
+    /**
+     * 房间串行执行器统计（房间数、排队中 / 已执行 / 失败的任务数）
+     */
+    @GetMapping("/api/stats/rooms")
+    @ResponseBody
+    public Map<String, Long> roomStats() {
+        return roomExecutor.stats();
+    }
+
+    /**
+     * 房间定时任务统计（等待中 / 已登记 / 已执行 / 已取消，以及操作超时的计时中 / 已托管次数）
+     */
+    @GetMapping("/api/stats/timers")
+    @ResponseBody
+    public Map<String, Long> timerStats() {
+        Map<String, Long> stats = new LinkedHashMap<>(roomTimers.stats());
+        turnTimeouts.stats().forEach((key, value) -> stats.put("turn." + key, value));
+        return stats;
+    }
+
+    /**
+     * 等待玩家期间的预计算统计（提交 / 作废 / 丢弃的任务数、已计算的手牌数）
+     */
+    @GetMapping("/api/stats/speculation")
+    @ResponseBody
+    public Map<String, Long> speculationStats() {
+        return speculation.stats();
+    }
+
     /**
      * 玩家出牌
      */
@@ -94,28 +159,30 @@ public class GameController {
             return;
         }
         
-        GameEngine engine = roomManager.getEngine(roomId);
-        if (engine == null) {
-            log.warn("房间不存在");
-            return;
-        }
+        roomExecutor.execute(roomId, () -> {
+            GameEngine engine = roomManager.getEngine(roomId);
+            if (engine == null) {
+                log.warn("房间不存在");
+                return;
+            }
         
-        boolean success = engine.playerDiscard(request.getPlayerId(), request.getTileId());
+            boolean success = engine.playerDiscard(request.getPlayerId(), request.getTileId());
         
-        if (success) {
-            GameState gameState = engine.getGameState();
+            if (success) {
+                GameState gameState = engine.getGameState();
             
-            // 检查是否有玩家可以吃碰杠胡
-            boolean hasAvailableActions = gameState.getCurrentActionPlayerId() != null;
+                // 检查是否有玩家可以吃碰杠胡
+                boolean hasAvailableActions = gameState.getCurrentActionPlayerId() != null;
             
-            if (!hasAvailableActions) {
-                // 没有玩家可以吃碰杠胡：检查下家是否有暗杠，否则进入下一轮摸牌
-                handleNextPlayerAfterNoOneCanActionOrAllPassed(engine, gameState, "出牌后无人可操作");
-            }
+                if (!hasAvailableActions) {
+                    // 没有玩家可以吃碰杠胡：检查下家是否有暗杠，否则进入下一轮摸牌
+                    engine.handleNextPlayerAfterNoOneCanActionOrAllPassed("出牌后无人可操作");
+                }
             
-            // 广播游戏状态
-            broadcastGameState(roomId, gameState);
-        }
+                // 广播游戏状态
+                broadcastGameState(roomId, gameState);
+            }
+        });
     }
 
     /**
@@ -130,26 +197,28 @@ public class GameController {
             return;
         }
         
-        GameEngine engine = roomManager.getEngine(roomId);
-        if (engine == null) {
-            return;
-        }
+        roomExecutor.execute(roomId, () -> {
+            GameEngine engine = roomManager.getEngine(roomId);
+            if (engine == null) {
+                return;
+            }
         
-        boolean success = engine.playerDraw(request.getPlayerId());
+            boolean success = engine.playerDraw(request.getPlayerId());
         
-        if (success) {
-            GameState state = engine.getGameState();
-            broadcastGameState(roomId, state);
+            if (success) {
+                GameState state = engine.getGameState();
+                broadcastGameState(roomId, state);
 
-            // 如果因为流局等原因导致本局结束，但无需轮庄确认，则在短暂停留后自动开下一局
-            if (state.getPhase() == GamePhase.HAND_FINISHED) {
-                startNextHandWithDelay(roomId, engine);
+                // 如果因为流局等原因导致本局结束，但无需轮庄确认，则在短暂停留后自动开下一局
+                if (state.getPhase() == GamePhase.HAND_FINISHED) {
+                    startNextHandWithDelay(roomId, engine);
+                }
             }
-        }
+        });
     }
 
     /**
-     * 同步游戏状态（用于玩家刚连接WebSocket时获取最新状态）
+     * 同步游戏状态（用于玩家刚连接WebSocket、或客户端发现版本缺口时获取完整快照）
      */
     @MessageMapping("/game/sync")
     public void syncGameState(@Payload SyncRequest request) {
@@ -161,15 +230,42 @@ public class GameController {
             return;
         }
         
-        GameEngine engine = roomManager.getEngine(roomId);
-        if (engine == null) {
-            log.warn("房间不存在");
+        roomExecutor.execute(roomId, () -> {
+            GameEngine engine = roomManager.getEngine(roomId);
+            if (engine == null) {
+                log.warn("房间不存在");
+                return;
+            }
+        
+            // 发送当前版本的完整快照（客户端刚连接或发现版本缺口时请求）
+            stateBroadcaster.sendSnapshot(roomId, engine.getGameState(), request.getPlayerId());
+            log.info("已为玩家 {} 同步游戏状态", request.getPlayerId());
+        });
+    }
+
+    /**
+     * 按需获取听牌提示：状态里只带 tingHint 标志，客户端需要展示时再请求；
+     * 结果只发给请求者，并原样带回请求里的 seq，客户端据此丢弃过期的回复
+     */
+    @MessageMapping("/game/tingHint")
+    public void tingHint(@Payload TingHintRequest request) {
+        String roomId = roomManager.getRoomIdByPlayerId(request.getPlayerId());
+        if (roomId == null) {
             return;
         }
-        
-        // 广播当前游戏状态
-        broadcastGameState(roomId, engine.getGameState());
-        log.info("已为玩家 {} 同步游戏状态", request.getPlayerId());
+
+        roomExecutor.execute(roomId, () -> {
+            GameEngine engine = roomManager.getEngine(roomId);
+            if (engine == null) {
+                return;
+            }
+
+            Map<String, Object> message = new LinkedHashMap<>();
+            message.put("type", "tingHint");
+            message.put("seq", request.getSeq());
+            message.put("tingTiles", engine.getTingHint(request.getPlayerId()));
+            stateBroadcaster.sendToPlayer(roomId, request.getPlayerId(), message);
+        });
     }
 
     /**
@@ -185,18 +281,20 @@ public class GameController {
             return;
         }
         
-        GameEngine engine = roomManager.getEngine(roomId);
-        if (engine == null) {
-            return;
-        }
+        roomExecutor.execute(roomId, () -> {
+            GameEngine engine = roomManager.getEngine(roomId);
+            if (engine == null) {
+                return;
+            }
         
-        boolean success = engine.playerChi(request.getPlayerId(), 
-            request.getTileId1(), request.getTileId2());
+            boolean success = engine.playerChi(request.getPlayerId(), 
+                request.getTileId1(), request.getTileId2());
         
-        if (success) {
-            // 吃牌后，该玩家需要出牌
-            broadcastGameState(roomId, engine.getGameState());
-        }
+            if (success) {
+                // 吃牌后，该玩家需要出牌
+                broadcastGameState(roomId, engine.getGameState());
+            }
+        });
     }
 
     /**
@@ -211,17 +309,19 @@ public class GameController {
             return;
         }
         
-        GameEngine engine = roomManager.getEngine(roomId);
-        if (engine == null) {
-            return;
-        }
+        roomExecutor.execute(roomId, () -> {
+            GameEngine engine = roomManager.getEngine(roomId);
+            if (engine == null) {
+                return;
+            }
         
-        boolean success = engine.playerPeng(request.getPlayerId());
+            boolean success = engine.playerPeng(request.getPlayerId());
         
-        if (success) {
-            // 碰牌后，该玩家需要出牌
-            broadcastGameState(roomId, engine.getGameState());
-        }
+            if (success) {
+                // 碰牌后，该玩家需要出牌
+                broadcastGameState(roomId, engine.getGameState());
+            }
+        });
     }
 
     /**
@@ -236,17 +336,19 @@ public class GameController {
             return;
         }
         
-        GameEngine engine = roomManager.getEngine(roomId);
-        if (engine == null) {
-            return;
-        }
+        roomExecutor.execute(roomId, () -> {
+            GameEngine engine = roomManager.getEngine(roomId);
+            if (engine == null) {
+                return;
+            }
         
-        boolean success = engine.playerGang(request.getPlayerId());
+            boolean success = engine.playerGang(request.getPlayerId());
         
-        if (success) {
-            // playerGang 内部已经处理了摸牌逻辑，这里只需要广播状态
-            broadcastGameState(roomId, engine.getGameState());
-        }
+            if (success) {
+                // playerGang 内部已经处理了摸牌逻辑，这里只需要广播状态
+                broadcastGameState(roomId, engine.getGameState());
+            }
+        });
     }
 
     /**
@@ -261,17 +363,19 @@ public class GameController {
             return;
         }
         
-        GameEngine engine = roomManager.getEngine(roomId);
-        if (engine == null) {
-            return;
-        }
+        roomExecutor.execute(roomId, () -> {
+            GameEngine engine = roomManager.getEngine(roomId);
+            if (engine == null) {
+                return;
+            }
         
-        boolean success = engine.playerAnGang(request.getPlayerId(), request.getTileId());
+            boolean success = engine.playerAnGang(request.getPlayerId(), request.getTileId());
         
-        if (success) {
-            // playerAnGang 内部已经处理了摸牌逻辑，这里只需要广播状态
-            broadcastGameState(roomId, engine.getGameState());
-        }
+            if (success) {
+                // playerAnGang 内部已经处理了摸牌逻辑，这里只需要广播状态
+                broadcastGameState(roomId, engine.getGameState());
+            }
+        });
     }
 
     /**
@@ -286,23 +390,25 @@ public class GameController {
             return;
         }
         
-        GameEngine engine = roomManager.getEngine(roomId);
-        if (engine == null) {
-            return;
-        }
+        roomExecutor.execute(roomId, () -> {
+            GameEngine engine = roomManager.getEngine(roomId);
+            if (engine == null) {
+                return;
+            }
         
-        boolean success = engine.playerHu(request.getPlayerId());
+            boolean success = engine.playerHu(request.getPlayerId());
         
-        if (success) {
-            GameState state = engine.getGameState();
-            broadcastGameState(roomId, state);
+            if (success) {
+                GameState state = engine.getGameState();
+                broadcastGameState(roomId, state);
 
-            // 若单局结束且不需要轮庄确认，为了给前端预留结算/胡牌展示时间，
-            // 延迟约 5 秒再自动开下一局。
-            if (state.getPhase() == GamePhase.HAND_FINISHED) {
-                startNextHandWithDelay(roomId, engine);
+                // 若单局结束且不需要轮庄确认，为了给前端预留结算/胡牌展示时间，
+                // 延迟约 5 秒再自动开下一局。
+                if (state.getPhase() == GamePhase.HAND_FINISHED) {
+                    startNextHandWithDelay(roomId, engine);
+                }
             }
-        }
+        });
     }
 
     /**
@@ -317,24 +423,26 @@ public class GameController {
             return;
         }
         
-        GameEngine engine = roomManager.getEngine(roomId);
-        if (engine == null) {
-            return;
-        }
+        roomExecutor.execute(roomId, () -> {
+            GameEngine engine = roomManager.getEngine(roomId);
+            if (engine == null) {
+                return;
+            }
         
-        boolean success = engine.playerPass(request.getPlayerId());
+            boolean success = engine.playerPass(request.getPlayerId());
         
-        if (success) {
-            GameState gameState = engine.getGameState();
+            if (success) {
+                GameState gameState = engine.getGameState();
             
-            // 检查是否还有玩家需要执行操作
-            if (gameState.getCurrentActionPlayerId() == null) {
-                // 所有玩家都过了：检查下家是否有暗杠，否则进入下一轮摸牌
-                handleNextPlayerAfterNoOneCanActionOrAllPassed(engine, gameState, "所有玩家都过");
-            }
+                // 检查是否还有玩家需要执行操作
+                if (gameState.getCurrentActionPlayerId() == null) {
+                    // 所有玩家都过了：检查下家是否有暗杠，否则进入下一轮摸牌
+                    engine.handleNextPlayerAfterNoOneCanActionOrAllPassed("所有玩家都过");
+                }
             
-            broadcastGameState(roomId, gameState);
-        }
+                broadcastGameState(roomId, gameState);
+            }
+        });
     }
 
     /**
@@ -349,23 +457,30 @@ public class GameController {
             return;
         }
 
-        GameEngine engine = roomManager.getEngine(roomId);
-        if (engine == null) {
-            return;
-        }
+        roomExecutor.execute(roomId, () -> {
+            GameEngine engine = roomManager.getEngine(roomId);
+            if (engine == null) {
+                return;
+            }
 
-        boolean success = engine.playerContinue(request.getPlayerId(), request.isContinue());
-        if (success) {
-            GameState state = engine.getGameState();
-            broadcastGameState(roomId, state);
-
-            // 如果对局阶段已经被置为 FINISHED，说明已有玩家选择“End”，
-            // 此时直接解散房间，后续该房间将不再接收任何请求。
-            if (state.getPhase() == com.fzmahjong.model.GamePhase.FINISHED) {
-                roomManager.destroyRoom(roomId);
-                log.info("收到 End 选择后，已解散房间 {}", roomId);
+            boolean success = engine.playerContinue(request.getPlayerId(), request.isContinue());
+            if (success) {
+                GameState state = engine.getGameState();
+                broadcastGameState(roomId, state);
+
+                // 如果对局阶段已经被置为 FINISHED，说明已有玩家选择“End”，
+                // 此时直接解散房间，后续该房间将不再接收任何请求。
+                if (state.getPhase() == com.fzmahjong.model.GamePhase.FINISHED) {
+                    roomManager.destroyRoom(roomId);
+                    stateBroadcaster.forgetRoom(roomId);
+                    roomTimers.cancelAll(roomId);
+                    turnTimeouts.forgetRoom(roomId);
+                    speculation.forgetRoom(roomId);
+                    roomExecutor.forgetRoom(roomId);
+                    log.info("收到 End 选择后，已解散房间 {}", roomId);
+                }
             }
-        }
+        });
     }
 
     /**
@@ -378,15 +493,17 @@ public class GameController {
             return;
         }
 
-        GameEngine engine = roomManager.getEngine(roomId);
-        if (engine == null) {
-            return;
-        }
+        roomExecutor.execute(roomId, () -> {
+            GameEngine engine = roomManager.getEngine(roomId);
+            if (engine == null) {
+                return;
+            }
 
-        boolean success = engine.playerReplaceFlowers(request.getPlayerId());
-        if (success) {
-            broadcastGameState(roomId, engine.getGameState());
-        }
+            boolean success = engine.playerReplaceFlowers(request.getPlayerId());
+            if (success) {
+                broadcastGameState(roomId, engine.getGameState());
+            }
+        });
     }
 
     /**
@@ -399,189 +516,65 @@ public class GameController {
             return;
         }
 
-        GameEngine engine = roomManager.getEngine(roomId);
-        if (engine == null) {
-            return;
-        }
-
-        boolean success = engine.playerOpenGold(request.getPlayerId());
-        if (success) {
-            broadcastGameState(roomId, engine.getGameState());
-        }
-    }
-
-    /**
-     * 广播游戏状态（过滤敏感信息）
-     */
-    private void broadcastGameState(String roomId, GameState gameState) {
-        // 广播公共信息
-        Map<String, Object> publicView = buildPublicView(gameState);
-        messagingTemplate.convertAndSend(
-            "/topic/room/" + roomId,
-            publicView
-        );
-
-        // 为每个玩家发送定制化的游戏状态（只能看到自己的手牌 + 自己的暗杠）
-        for (Player player : gameState.getPlayers()) {
-            Map<String, Object> playerView = buildPlayerView(gameState, player.getId());
-            messagingTemplate.convertAndSend(
-                "/topic/room/" + roomId + "/player/" + player.getId(),
-                playerView
-            );
-        }
-    }
-
-    /**
-     * 构建玩家视图（包含自己的手牌）
-     */
-    private Map<String, Object> buildPlayerView(GameState gameState, String playerId) {
-        Map<String, Object> view = new HashMap<>();
-
-        Player currentPlayer = gameState.getPlayers().stream()
-            .filter(p -> p.getId().equals(playerId))
-            .findFirst()
-            .orElse(null);
-
-        if (currentPlayer != null) {
-            view.put("myHandTiles", currentPlayer.getHandTiles());
-            view.put("myFlowerTiles", currentPlayer.getFlowerTiles());
-            // 自己视角：明牌 + 暗杠都要看得到
-            java.util.List<java.util.List<Tile>> myAllMelds = new java.util.ArrayList<>();
-            if (currentPlayer.getExposedMelds() != null) {
-                myAllMelds.addAll(currentPlayer.getExposedMelds());
-            }
-            if (currentPlayer.getConcealedKongs() != null) {
-                myAllMelds.addAll(currentPlayer.getConcealedKongs());
+        roomExecutor.execute(roomId, () -> {
+            GameEngine engine = roomManager.getEngine(roomId);
+            if (engine == null) {
+                return;
             }
-            view.put("myExposedMelds", myAllMelds);
 
-            // 添加可用操作信息
-            Map<String, Object> availableActions = gameState.getPlayerActions(playerId);
-            view.put("availableActions", availableActions);
-        }
-        
-        view.putAll(buildPublicView(gameState));
-        
-        return view;
+            boolean success = engine.playerOpenGold(request.getPlayerId());
+            if (success) {
+                broadcastGameState(roomId, engine.getGameState());
+            }
+        });
     }
 
     /**
-     * 构建公共视图（所有玩家都能看到的信息）
+     * 广播游戏状态（过滤敏感信息；只下发与上一版本相比变化的部分）
+     * 已离开 HAND_FINISHED 阶段时顺带取消尚未执行的自动开局任务，并按新状态重新计算操作超时；
+     * 广播后房间进入等待玩家操作的空闲期，顺带提交一次预计算
      */
-    private Map<String, Object> buildPublicView(GameState gameState) {
-        Map<String, Object> view = new HashMap<>();
-        
-        view.put("roomId", gameState.getRoomId());
-        view.put("phase", gameState.getPhase());
-        view.put("currentPlayerIndex", gameState.getCurrentPlayerIndex());
-        view.put("dealerIndex", gameState.getDealerIndex());
-        view.put("consecutiveDealerWins", gameState.getConsecutiveDealerWins());
-        view.put("dealerChangesSinceCycleStart", gameState.getDealerChangesSinceCycleStart());
-        view.put("continueDecisions", gameState.getContinueDecisions());
-        view.put("goldTile", gameState.getGoldTile());
-        // 补花 / 开金阶段状态
-        view.put("replacingFlowers", gameState.isReplacingFlowers());
-        view.put("currentFlowerPlayerIndex", gameState.getCurrentFlowerPlayerIndex());
-        view.put("flowerRoundCount", gameState.getFlowerRoundCount());
-        view.put("waitingOpenGold", gameState.isWaitingOpenGold());
-        // 最近一次摸到/补到的最终有效牌（非花）及其相关信息
-        view.put("lastDrawnTile", gameState.getLastDrawnTile());
-        view.put("lastDrawPlayerIndex", gameState.getLastDrawPlayerIndex());
-        view.put("lastDrawValidHandCountBefore", gameState.getLastDrawValidHandCountBefore());
-        view.put("lastDiscardedTile", gameState.getLastDiscardedTile());
-        view.put("discardedTiles", gameState.getDiscardedTiles());
-        view.put("remainingTiles", gameState.getWallTiles().size());
-        view.put("currentActionPlayerId", gameState.getCurrentActionPlayerId());
-        view.put("currentActionType", gameState.getCurrentActionType());
-        // 最近一次已实际执行的动作（用于前端“吃/碰/杠/胡”提示，只在确认后才设置）
-        view.put("lastActionPlayerId", gameState.getLastActionPlayerId());
-        view.put("lastActionType", gameState.getLastActionType());
-        view.put("lastWinPlayerId", gameState.getLastWinPlayerId());
-        view.put("lastWinType", gameState.getLastWinType());
-        view.put("lastWinSettlement", gameState.getLastWinSettlement());
-        
-        // 玩家信息（隐藏手牌）
-        List<Map<String, Object>> playersInfo = new java.util.ArrayList<>();
-        for (Player p : gameState.getPlayers()) {
-            Map<String, Object> playerInfo = new HashMap<>();
-            playerInfo.put("id", p.getId());
-            playerInfo.put("name", p.getName());
-            playerInfo.put("position", p.getPosition());
-            playerInfo.put("score", p.getScore());
-            playerInfo.put("handSize", p.getHandSize());
-            playerInfo.put("flowerTiles", p.getFlowerTiles());
-            playerInfo.put("exposedMelds", p.getExposedMelds());
-            playerInfo.put("isDealer", p.isDealer());
-            // 连庄数只对当前庄家展示；下庄自动清0
-            playerInfo.put("dealerStreak", p.isDealer() ? gameState.getConsecutiveDealerWins() : 0);
-            playersInfo.add(playerInfo);
+    private void broadcastGameState(String roomId, GameState gameState) {
+        if (gameState.getPhase() != GamePhase.HAND_FINISHED) {
+            roomTimers.cancel(roomId, TIMER_NEXT_HAND);
         }
-        view.put("players", playersInfo);
-        
-        return view;
+        stateBroadcaster.broadcast(roomId, gameState);
+        turnTimeouts.arm(roomId, gameState, () -> autoAct(roomId));
+        speculation.onStateChanged(roomId, gameState, roomManager.getEngine(roomId));
     }
 
     /**
-     * 无人可吃碰杠胡/所有人都过后：
-     * - 若下家有暗杠，等待其选择
-     * - 否则进入下一轮并摸牌
-     *
-     * 说明：该逻辑原先在 discard() 与 pass() 中各写了一份，易产生维护不一致，因此抽取成单一实现。
+     * 操作超时：由服务端替被等待的玩家执行托管操作（补花 / 开金 / 过 / 出牌）
      */
-    private void handleNextPlayerAfterNoOneCanActionOrAllPassed(GameEngine engine, GameState gameState, String reason) {
-        int discardPlayerIndex = gameState.getLastDiscardPlayerIndex();
-        if (discardPlayerIndex < 0 || discardPlayerIndex >= gameState.getPlayers().size()) {
-            log.warn("无法处理下一步（{}）：lastDiscardPlayerIndex={}", reason, discardPlayerIndex);
+    private void autoAct(String roomId) {
+        GameEngine engine = roomManager.getEngine(roomId);
+        if (engine == null) {
             return;
         }
-
-        int nextPlayerIndex = (discardPlayerIndex + 1) % 4;
-        Player nextPlayer = gameState.getPlayers().get(nextPlayerIndex);
-
-        List<Tile> anGangTiles = com.fzmahjong.engine.ActionChecker.canAnGang(nextPlayer);
-        if (anGangTiles != null && !anGangTiles.isEmpty()) {
-            Map<String, Object> actions = new HashMap<>();
-            actions.put("canAnGang", true);
-            actions.put("anGangTiles", anGangTiles);
-            gameState.setPlayerActions(nextPlayer.getId(), actions);
-            gameState.setCurrentActionPlayerId(nextPlayer.getId());
-            gameState.setCurrentActionType("anGang");
-            log.info("{}：下家 {} 有暗杠，等待选择", reason, nextPlayer.getName());
-            return;
+        if (!engine.autoAct()) {
+            log.warn("房间 {} 超时托管未能执行任何操作，阶段={}", roomId, engine.getGameState().getPhase());
         }
-
-        engine.nextTurn();
-        Player currentPlayer = gameState.getCurrentPlayer();
-        if (currentPlayer != null) {
-            engine.playerDraw(currentPlayer.getId());
+        // 托管失败也照常广播：状态没变时不会下发任何消息，但会重新登记超时，稍后再试
+        GameState state = engine.getGameState();
+        broadcastGameState(roomId, state);
+        if (state.getPhase() == GamePhase.HAND_FINISHED) {
+            startNextHandWithDelay(roomId, engine);
         }
     }
 
     /**
      * 在当前局已经结束（HAND_FINISHED）且不需要轮庄确认的情况下，
      * 预留一小段时间（约 5 秒）用于前端展示胡牌结果和结算信息，然后自动开新的一局。
+     * 期间阶段一旦变化，{@link #broadcastGameState} 会取消这个任务。
+     * 停留期间下一局的牌墙和起手牌在后台预先发好，开局时直接换入。
      */
     private void startNextHandWithDelay(String roomId, GameEngine engine) {
-        new Thread(() -> {
-            try {
-                // 预留约 5 秒时间给前端展示胡牌原因 / 结算信息
-                Thread.sleep(5000);
-            } catch (InterruptedException e) {
-                log.warn("等待下一局开始的延迟被中断", e);
-                Thread.currentThread().interrupt();
-            }
-
-            GameState state = engine.getGameState();
-            // 只有在阶段仍然是 HAND_FINISHED 时才真正开启下一局，避免与其它流程（如轮庄确认）冲突
-            if (state.getPhase() == GamePhase.HAND_FINISHED) {
-                engine.startNextHand();
-                GameState newState = engine.getGameState();
-                broadcastGameState(roomId, newState);
-                log.info("已在延迟后自动开启新的一局");
-            } else {
-                log.info("阶段已从 HAND_FINISHED 变更为 {}，放弃自动开新局", state.getPhase());
-            }
-        }).start();
+        speculation.prepareNextHand(roomId, engine);
+        roomTimers.schedule(roomId, TIMER_NEXT_HAND, 5, TimeUnit.SECONDS, () -> {
+            engine.startNextHand();
+            broadcastGameState(roomId, engine.getGameState());
+            log.info("已在延迟后自动开启新的一局");
+        });
     }
 
     // === 请求对象 ===
@@ -623,6 +616,16 @@ public class GameController {
         public void setPlayerId(String playerId) { this.playerId = playerId; }
     }
 
+    public static class TingHintRequest {
+        private String playerId;
+        private long seq;
+
+        public String getPlayerId() { return playerId; }
+        public void setPlayerId(String playerId) { this.playerId = playerId; }
+        public long getSeq() { return seq; }
+        public void setSeq(long seq) { this.seq = seq; }
+    }
+
     public static class ActionRequest {
         private String playerId;
 
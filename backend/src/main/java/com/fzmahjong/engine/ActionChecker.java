@@ -13,70 +13,11 @@ public class ActionChecker {
     
     /**
      * 检查玩家是否可以吃牌
-     * 吃：只能吃上家打出的牌，且必须是顺子（只有万条饼可以吃）
+     * 吃：只能吃上家打出的牌，且必须是顺子（只有万条饼可以吃）；金牌既不能被吃，也不能用来吃
      */
     public static boolean canChi(Player player, Tile discardedTile, int discardPlayerIndex, int playerIndex, Tile goldTile) {
-        // 只能吃上家的牌
-        int previousPlayerIndex = (playerIndex + 3) % 4;
-        if (discardPlayerIndex != previousPlayerIndex) {
-            return false;
-        }
-
-        // 金牌不能参与吃：既不能吃金牌本身，也不能用手中的金牌去吃
-        if (goldTile != null && discardedTile != null && discardedTile.isSameAs(goldTile)) {
-            return false;
-        }
-        
-        // 只有万条饼可以吃
-        if (discardedTile.getType() == TileType.WIND || discardedTile.getType() == TileType.DRAGON) {
-            return false;
-        }
-        
-        // 手牌中的金牌不参与吃牌判断
-        List<Tile> handTiles = new ArrayList<>();
-        for (Tile tile : player.getHandTiles()) {
-            if (goldTile != null && tile.isSameAs(goldTile)) {
-                continue;
-            }
-            handTiles.add(tile);
-        }
-        int value = discardedTile.getValue();
-        TileType type = discardedTile.getType();
-        
-        // 检查是否可以组成顺子
-        // 例如：手牌有1万2万，可以吃3万；手牌有2万3万，可以吃1万或4万；手牌有3万4万，可以吃2万或5万
-        boolean canChiLeft = false;  // 可以组成 x, x+1, x+2
-        boolean canChiMiddle = false; // 可以组成 x-1, x, x+1
-        boolean canChiRight = false;  // 可以组成 x-2, x-1, x
-        
-        // 检查左吃（需要手牌有 value-2, value-1）
-        if (value >= 3) {
-            boolean hasValueMinus2 = handTiles.stream().anyMatch(t -> 
-                t.getType() == type && t.getValue() == value - 2);
-            boolean hasValueMinus1 = handTiles.stream().anyMatch(t -> 
-                t.getType() == type && t.getValue() == value - 1);
-            canChiLeft = hasValueMinus2 && hasValueMinus1;
-        }
-        
-        // 检查中吃（需要手牌有 value-1, value+1）
-        if (value >= 2 && value <= 8) {
-            boolean hasValueMinus1 = handTiles.stream().anyMatch(t -> 
-                t.getType() == type && t.getValue() == value - 1);
-            boolean hasValuePlus1 = handTiles.stream().anyMatch(t -> 
-                t.getType() == type && t.getValue() == value + 1);
-            canChiMiddle = hasValueMinus1 && hasValuePlus1;
-        }
-        
-        // 检查右吃（需要手牌有 value+1, value+2）
-        if (value <= 7) {
-            boolean hasValuePlus1 = handTiles.stream().anyMatch(t -> 
-                t.getType() == type && t.getValue() == value + 1);
-            boolean hasValuePlus2 = handTiles.stream().anyMatch(t -> 
-                t.getType() == type && t.getValue() == value + 2);
-            canChiRight = hasValuePlus1 && hasValuePlus2;
-        }
-        
-        return canChiLeft || canChiMiddle || canChiRight;
+        return (evaluate(player, discardedTile, ActionEvaluator.relation(playerIndex, discardPlayerIndex), goldTile)
+            & ActionEvaluator.CHI) != 0;
     }
     
     /**
@@ -84,11 +25,7 @@ public class ActionChecker {
      * 碰：手牌中有2张相同的牌
      */
     public static boolean canPeng(Player player, Tile discardedTile) {
-        List<Tile> handTiles = player.getHandTiles();
-        long count = handTiles.stream()
-            .filter(t -> t.isSameAs(discardedTile))
-            .count();
-        return count >= 2;
+        return (evaluate(player, discardedTile, ActionEvaluator.OTHER, null) & ActionEvaluator.PENG) != 0;
     }
     
     /**
@@ -96,42 +33,26 @@ public class ActionChecker {
      * 明杠：手牌中有3张相同的牌，可以杠别人打出的牌
      */
     public static boolean canGang(Player player, Tile discardedTile) {
-        List<Tile> handTiles = player.getHandTiles();
-        long count = handTiles.stream()
-            .filter(t -> t.isSameAs(discardedTile))
-            .count();
-        return count >= 3;
+        return (evaluate(player, discardedTile, ActionEvaluator.OTHER, null) & ActionEvaluator.GANG) != 0;
     }
     
     /**
      * 检查玩家是否可以暗杠
-     * 暗杠：手牌中有4张相同的牌
+     * 暗杠：手牌中有4张相同的牌；返回可暗杠的牌种位集，0 表示不能暗杠
      */
-    public static List<Tile> canAnGang(Player player) {
-        List<Tile> handTiles = new ArrayList<>(player.getHandTiles());
-        Map<String, Integer> tileCount = new HashMap<>();
-        
-        // 统计每种牌的数量
-        for (Tile tile : handTiles) {
-            String key = tile.getType().name() + "_" + tile.getValue();
-            tileCount.put(key, tileCount.getOrDefault(key, 0) + 1);
-        }
-        
-        // 找出有4张的牌
-        List<Tile> anGangTiles = new ArrayList<>();
-        for (Tile tile : handTiles) {
-            String key = tile.getType().name() + "_" + tile.getValue();
-            if (tileCount.get(key) == 4) {
-                // 避免重复添加
-                boolean alreadyAdded = anGangTiles.stream()
-                    .anyMatch(t -> t.isSameAs(tile));
-                if (!alreadyAdded) {
-                    anGangTiles.add(tile);
-                }
-            }
+    public static long anGangKinds(Player player) {
+        return ActionEvaluator.anGangKinds(player.getKindCounts());
+    }
+
+    /**
+     * 吃 / 碰 / 明杠的统一判定（不含胡，见 ActionEvaluator#evaluate）
+     */
+    private static int evaluate(Player player, Tile discardedTile, int relation, Tile goldTile) {
+        if (discardedTile == null) {
+            return 0;
         }
-        
-        return anGangTiles;
+        return ActionEvaluator.evaluate(player.getKindCounts(), discardedTile.getKind(),
+            goldTile == null ? -1 : goldTile.getKind(), relation, 0L);
     }
     
     /**
@@ -159,11 +80,11 @@ public class ActionChecker {
             return Collections.emptyList();
         }
 
-        // 过滤花牌（FLOWER），花牌不参与张数/和牌判断
-        List<Tile> baseTiles = new ArrayList<>();
+        // 花牌（FLOWER）不参与张数/和牌判断
+        int baseCount = 0;
         for (Tile t : player.getHandTiles()) {
             if (t != null && t.getType() != TileType.FLOWER) {
-                baseTiles.add(t);
+                baseCount++;
             }
         }
 
@@ -171,50 +92,25 @@ public class ActionChecker {
         // 而是直接枚举“再进一张牌”后能胡的所有候选：
         // - WinValidator 本身会根据 3n+2 结构和金牌规则做最终裁决；
         // - 这样可以避免因为张数过滤过严而漏掉某些听牌（例如吃碰杠后特殊牌型）。
-        if (baseTiles.isEmpty() || baseTiles.size() > 17) {
+        if (baseCount == 0 || baseCount > 17) {
             return Collections.emptyList();
         }
 
-        List<Tile> candidates = buildAllCandidateTiles();
-        List<Tile> tingTiles = new ArrayList<>();
-
-        for (Tile candidate : candidates) {
-            List<Tile> test = new ArrayList<>(baseTiles);
-            // 这里 candidate 的 id 无关紧要；WinValidator 判断只看 type/value
-            test.add(new Tile(candidate.getType(), candidate.getValue(),
-                    candidate.getType().name() + "_" + candidate.getValue()));
-
-            boolean canWinNormal = WinValidator.canWin(test, goldTile, false);
-
-            if (canWinNormal) {
-                tingTiles.add(candidate);
-            }
-        }
-
-        Collections.sort(tingTiles);
-        return tingTiles;
+        // 一次分析得到所有可胡的进张（结果与逐张调用 WinValidator.canWin 相同），
+        // 牌种下标按 类型→点数 递增，因此输出天然有序
+        return kindsToTiles(WinValidator.getWinningKinds(player.getHandTiles(), goldTile));
     }
 
-    private static List<Tile> buildAllCandidateTiles() {
-        List<Tile> result = new ArrayList<>();
-
-        // 万/条/饼：1-9
-        for (int v = 1; v <= 9; v++) {
-            result.add(new Tile(TileType.WAN, v, "WAN_" + v));
-            result.add(new Tile(TileType.TIAO, v, "TIAO_" + v));
-            result.add(new Tile(TileType.BING, v, "BING_" + v));
-        }
-
-        // 风牌：东南西北（1-4）
-        for (int v = 1; v <= 4; v++) {
-            result.add(new Tile(TileType.WIND, v, "WIND_" + v));
-        }
-
-        // 箭牌：中白发（1-3）
-        for (int v = 1; v <= 3; v++) {
-            result.add(new Tile(TileType.DRAGON, v, "DRAGON_" + v));
-        }
-
-        return result;
+    /**
+     * 牌种位集 → 每种一张代表牌（按牌种下标升序）
+     */
+    public static List<Tile> kindsToTiles(long kinds) {
+        List<Tile> tiles = new ArrayList<>(Long.bitCount(kinds));
+        while (kinds != 0) {
+            int kind = Long.numberOfTrailingZeros(kinds);
+            tiles.add(WinValidator.kindTile(kind));
+            kinds &= kinds - 1;
+        }
+        return tiles;
     }
 }
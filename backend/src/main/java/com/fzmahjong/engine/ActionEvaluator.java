@@ -0,0 +1,141 @@
+package com.fzmahjong.engine;
+
+import com.fzmahjong.model.ActionSet;
+
+/**
+ * 统一的响应判定：别人打出一张牌后，某个座位可以胡 / 明杠 / 碰 / 吃（含吃的具体组合）
+ *
+ * 输入只有该座位手牌的牌种计数（{@link com.fzmahjong.model.Player#getKindCounts()}）、打出的牌种、
+ * 金牌牌种、座位关系，以及“点炮可胡”的牌种位集（由 ClaimIndex 按手牌版本缓存，见 WinValidator#getWinningKinds）。
+ * 一次调用只做常数次数组读取，结果打包成一个 int 返回，不分配任何对象：
+ * - 低位与 ActionSet 的 HU / GANG / PENG / CHI 相同
+ * - CHI_LEFT / CHI_MIDDLE / CHI_RIGHT 表示可以用哪两张牌去吃（见 {@link #chiFirstKind} / {@link #chiSecondKind}）
+ * 判定规则与原 ActionChecker.canHu / canGang / canPeng / canChi 一致：只有下家可以吃，金牌既不能被吃也不能用来吃。
+ */
+public final class ActionEvaluator {
+
+    /** 座位关系：出牌者本人 / 下家（可以吃） / 对家或上家 */
+    public static final int SELF = 0;
+    public static final int NEXT = 1;
+    public static final int OTHER = 2;
+
+    /** 结果标志位 */
+    public static final int HU = ActionSet.HU;
+    public static final int GANG = ActionSet.GANG;
+    public static final int PENG = ActionSet.PENG;
+    public static final int CHI = ActionSet.CHI;
+    /** 用 k-2、k-1 吃 k */
+    public static final int CHI_LEFT = ActionSet.CHI_LEFT;
+    /** 用 k-1、k+1 吃 k */
+    public static final int CHI_MIDDLE = ActionSet.CHI_MIDDLE;
+    /** 用 k+1、k+2 吃 k */
+    public static final int CHI_RIGHT = ActionSet.CHI_RIGHT;
+    public static final int CHI_SHAPES = CHI_LEFT | CHI_MIDDLE | CHI_RIGHT;
+
+    /** 万条饼的牌种数（只有这三门可以吃） */
+    private static final int SUIT_KINDS = 27;
+
+    private ActionEvaluator() {
+    }
+
+    /**
+     * 座位 seat 相对出牌者 discardSeat 的关系
+     */
+    public static int relation(int seat, int discardSeat) {
+        if (seat == discardSeat) {
+            return SELF;
+        }
+        return seat == (discardSeat + 1) % 4 ? NEXT : OTHER;
+    }
+
+    /**
+     * 某座位对打出的牌可以执行的全部操作
+     *
+     * @param counts      该座位手牌的牌种计数（下标见 WinValidator#kindTile）
+     * @param offeredKind 打出的牌的牌种
+     * @param goldKind    金牌牌种，未开金时为 -1
+     * @param relation    {@link #SELF} / {@link #NEXT} / {@link #OTHER}
+     * @param winsOn      该座位点炮可胡的牌种位集（只判断吃碰杠时传 0）
+     * @return HU / GANG / PENG / CHI 与 CHI_LEFT / CHI_MIDDLE / CHI_RIGHT 的组合
+     */
+    public static int evaluate(int[] counts, int offeredKind, int goldKind, int relation, long winsOn) {
+        if (relation == SELF || offeredKind < 0 || offeredKind >= WinValidator.KIND_COUNT) {
+            return 0;
+        }
+        int result = (winsOn & (1L << offeredKind)) != 0 ? HU : 0;
+        int held = counts[offeredKind];
+        if (held >= 3) {
+            result |= GANG;
+        }
+        if (held >= 2) {
+            result |= PENG;
+        }
+        if (relation == NEXT && offeredKind < SUIT_KINDS && offeredKind != goldKind) {
+            // 同一门内牌种下标连续，value±k 对应 kind±k
+            int value = offeredKind % 9 + 1;
+            if (value >= 3 && usable(counts, offeredKind - 2, goldKind) && usable(counts, offeredKind - 1, goldKind)) {
+                result |= CHI_LEFT;
+            }
+            if (value >= 2 && value <= 8
+                    && usable(counts, offeredKind - 1, goldKind) && usable(counts, offeredKind + 1, goldKind)) {
+                result |= CHI_MIDDLE;
+            }
+            if (value <= 7 && usable(counts, offeredKind + 1, goldKind) && usable(counts, offeredKind + 2, goldKind)) {
+                result |= CHI_RIGHT;
+            }
+            if ((result & CHI_SHAPES) != 0) {
+                result |= CHI;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 手里有 4 张的牌种位集（可以暗杠的牌）
+     */
+    public static long anGangKinds(int[] counts) {
+        long kinds = 0L;
+        for (int kind = 0; kind < WinValidator.KIND_COUNT; kind++) {
+            if (counts[kind] == 4) {
+                kinds |= 1L << kind;
+            }
+        }
+        return kinds;
+    }
+
+    /**
+     * 某种吃法用到的第一张手牌的牌种（牌种较小的一张）
+     */
+    public static int chiFirstKind(int shape, int offeredKind) {
+        switch (shape) {
+            case CHI_LEFT:
+                return offeredKind - 2;
+            case CHI_MIDDLE:
+                return offeredKind - 1;
+            case CHI_RIGHT:
+                return offeredKind + 1;
+            default:
+                throw new IllegalArgumentException("不是吃牌组合：" + shape);
+        }
+    }
+
+    /**
+     * 某种吃法用到的第二张手牌的牌种（牌种较大的一张）
+     */
+    public static int chiSecondKind(int shape, int offeredKind) {
+        switch (shape) {
+            case CHI_LEFT:
+                return offeredKind - 1;
+            case CHI_MIDDLE:
+                return offeredKind + 1;
+            case CHI_RIGHT:
+                return offeredKind + 2;
+            default:
+                throw new IllegalArgumentException("不是吃牌组合：" + shape);
+        }
+    }
+
+    private static boolean usable(int[] counts, int kind, int goldKind) {
+        return kind != goldKind && counts[kind] > 0;
+    }
+}
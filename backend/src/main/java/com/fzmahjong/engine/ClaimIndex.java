@@ -0,0 +1,96 @@
+package com.fzmahjong.engine;
+
+import com.fzmahjong.model.ActionSet;
+import com.fzmahjong.model.Player;
+import com.fzmahjong.model.Tile;
+
+/**
+ * 按座位缓存的“点炮可胡”索引
+ *
+ * 每个座位维护一个 34 种牌的位集：别人打出哪些牌可以胡。
+ * 位集只依赖该座位的手牌和金牌，按手牌的 Zobrist 哈希（{@link Player#getHandHash()}）和金牌判断是否要重算；
+ * 摸一张再打出同种牌（摸切）后哈希回到原值，不用重算；
+ * 别人出牌后判断谁能响应就只剩一次位测试加上 {@link ActionEvaluator#evaluate} 的几次计数读取。
+ *
+ * 一名玩家的手牌只在自己摸牌 / 出牌 / 吃碰杠时变化，因此其余三家连续出牌时都直接复用同一份位集。
+ * 判定结果与 ActionChecker.canHu / canGang / canPeng / canChi 完全一致。
+ * 非线程安全，与所属 GameEngine 一起在房间线程中使用。
+ */
+public class ClaimIndex {
+
+    /** 可响应操作的标志位（与 ActionSet 的同名标志位相同，可直接放进 ActionSet） */
+    public static final int HU = ActionSet.HU;
+    public static final int GANG = ActionSet.GANG;
+    public static final int PENG = ActionSet.PENG;
+    public static final int CHI = ActionSet.CHI;
+
+    private static final int SEATS = 4;
+
+    private final Seat[] seats = new Seat[SEATS];
+    /** 后台预计算好的听牌位集（可为 null），重算前先查 */
+    private final SpeculativeResults speculative;
+    private long rebuilds;
+
+    /**
+     * 一个座位的位集及其对应的手牌哈希
+     */
+    private static final class Seat {
+        Player player;
+        long handHash;
+        int goldKind;
+        long winsOn;
+    }
+
+    public ClaimIndex() {
+        this(null);
+    }
+
+    public ClaimIndex(SpeculativeResults speculative) {
+        this.speculative = speculative;
+        for (int i = 0; i < SEATS; i++) {
+            seats[i] = new Seat();
+        }
+    }
+
+    /**
+     * 该玩家对这张弃牌可以执行的操作（HU / GANG / PENG / CHI，以及吃的具体组合，见 ActionEvaluator）
+     *
+     * @param chiAllowed 该玩家是否是出牌者的下家（只有下家可以吃）
+     */
+    public int claims(Player player, Tile goldTile, Tile discardedTile, boolean chiAllowed) {
+        Seat seat = refresh(player, goldTile);
+        return ActionEvaluator.evaluate(player.getKindCounts(), discardedTile.getKind(), seat.goldKind,
+            chiAllowed ? ActionEvaluator.NEXT : ActionEvaluator.OTHER, seat.winsOn);
+    }
+
+    /**
+     * 该玩家“别人打出哪些牌可以胡”的牌种位集
+     */
+    public long winsOn(Player player, Tile goldTile) {
+        return refresh(player, goldTile).winsOn;
+    }
+
+    /**
+     * 累计重算位集的次数（其余调用都命中了缓存）
+     */
+    public long getRebuilds() {
+        return rebuilds;
+    }
+
+    private Seat refresh(Player player, Tile goldTile) {
+        Seat seat = seats[player.getPosition() & (SEATS - 1)];
+        int goldKind = goldTile == null ? -1 : goldTile.getKind();
+        if (seat.player == player && seat.handHash == player.getHandHash() && seat.goldKind == goldKind) {
+            return seat;
+        }
+        rebuilds++;
+        seat.player = player;
+        seat.handHash = player.getHandHash();
+        seat.goldKind = goldKind;
+        long winsOn = speculative == null ? SpeculativeResults.MISS
+            : speculative.get(seat.handHash, goldKind, SpeculativeResults.OP_TING);
+        seat.winsOn = winsOn != SpeculativeResults.MISS ? winsOn
+            : WinValidator.getWinningKinds(player.getHandTiles(), goldTile);
+        return seat;
+    }
+}
@@ -0,0 +1,617 @@
+package com.fzmahjong.engine;
+
+import com.fzmahjong.model.GameState;
+import com.fzmahjong.model.Player;
+import com.fzmahjong.model.Tile;
+import com.fzmahjong.model.Zobrist;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 供搜索使用的紧凑局面（机器人、提示、期望值计算等前瞻搜索）
+ *
+ * GameState 由 Player、ArrayList、嵌套的 List&lt;List&lt;Tile&gt;&gt; 组成，复制一次要深拷贝上百个对象；
+ * 这里把一局牌压成几组基本类型数组：
+ * - 牌墙：牌种数组 + 牌头 / 牌尾游标（与 Wall 一样只移动游标，数组本身只读，分叉时直接共享）
+ * - 手牌：每家按牌种计数（可直接交给 ActionEvaluator / HandDecomposer）
+ * - 副露：每家若干个 short（类型 + 牌种），花牌只记张数
+ * - 牌池：按打出顺序的牌种数组
+ * {@link #fork()} 只做几次小数组复制；{@link #apply(int)} / {@link #undo()} 在原地执行 / 撤销
+ * 摸牌、出牌、吃、碰、明杠、暗杠，每步都是常数时间，搜索可以在同一个对象上反复前进后退。
+ *
+ * 规则与 GameEngine 一致：摸到花（风、箭、花牌）从牌尾补、剩余张数不超过海底预留（基本 18 张，每个明杠多留 1 张）时不能再摸、
+ * 杠后从牌尾补牌、金牌不能打出也不能用来吃。胡牌不作为着法生成，由调用方在局面上自行判断
+ * （例如 HandDecomposer 对 {@link #getKindCounts(int)} 拆出任一种拆法即可胡）。
+ * {@link #getHash()} 是随 apply / undo 增量维护的 Zobrist 哈希，可作搜索置换表的键。
+ * 非线程安全；每个搜索线程各自 fork 一份使用。
+ */
+public final class CompactGameState {
+
+    /** 着法类型 */
+    public static final int DRAW = 1;
+    public static final int DISCARD = 2;
+    public static final int CHI = 3;
+    public static final int PENG = 4;
+    public static final int GANG = 5;
+    public static final int AN_GANG = 6;
+
+    /** 一个局面最多的着法数（出牌 34 种 + 暗杠 + 三家吃碰杠 + 摸牌） */
+    public static final int MAX_MOVES = 64;
+
+    private static final int SEATS = 4;
+    /** 每家最多的副露数（17 张暗牌 = 5 副面子 + 1 将） */
+    private static final int MAX_MELDS = 5;
+    /** 风、箭、花牌在福州麻将中都算花（见 Tile#isFlowerTile） */
+    private static final int FIRST_FLOWER_KIND = 27;
+
+    // 着法编码：牌种 6 位 | 座位 2 位 | 类型 3 位 | 吃法 2 位
+    private static final int SEAT_SHIFT = 6;
+    private static final int TYPE_SHIFT = 8;
+    private static final int SHAPE_SHIFT = 11;
+
+    // 副露编码：类型 << 6 | 牌种（吃为三张中最小的牌种）
+    private static final int MELD_TYPE_SHIFT = 6;
+
+    private final byte[] wall;          // 整局牌墙的牌种（只读，分叉时共享）
+    private int head;
+    private int tail;
+    private int reserved;
+
+    private final int[][] hands;        // 每家手牌按牌种计数
+    private final int[] handSize;
+    private final int[] flowers;
+    private final short[] melds;        // seat * MAX_MELDS + i
+    private final int[] meldCount;
+    private final byte[] discards;      // 牌池（按打出顺序），被吃碰杠的牌会移走
+    private int discardCount;
+
+    private final int goldKind;
+    private int turn;                   // 当前行动的座位
+    private boolean mustDiscard;        // true：该出牌；false：该摸牌（或其他家响应上一张弃牌）
+    private boolean kongDraw;           // 杠后补牌：下一次摸牌从牌尾摸
+    private int lastDiscardSeat;        // 刚打出、仍可被响应的弃牌来自哪家；没有时为 -1
+    private long hash;                  // 手牌、副露、花牌、牌池、金的 Zobrist 哈希（牌墙位置与轮次在 getHash 中加上）
+
+    /** 撤销记录：着法与执行前的游标、轮次等标量（见 {@link #record}），以及执行前的哈希 */
+    private long[] history = new long[64];
+    private long[] hashHistory = new long[64];
+    private int historySize;
+
+    private CompactGameState(byte[] wall, int goldKind) {
+        this.wall = wall;
+        this.goldKind = goldKind;
+        this.hands = new int[SEATS][Tile.KIND_COUNT];
+        this.handSize = new int[SEATS];
+        this.flowers = new int[SEATS];
+        this.melds = new short[SEATS * MAX_MELDS];
+        this.meldCount = new int[SEATS];
+        this.discards = new byte[Tile.DECK_SIZE];
+        this.lastDiscardSeat = -1;
+    }
+
+    private CompactGameState(CompactGameState other) {
+        this.wall = other.wall;
+        this.head = other.head;
+        this.tail = other.tail;
+        this.reserved = other.reserved;
+        this.hands = new int[SEATS][];
+        for (int seat = 0; seat < SEATS; seat++) {
+            this.hands[seat] = other.hands[seat].clone();
+        }
+        this.handSize = other.handSize.clone();
+        this.flowers = other.flowers.clone();
+        this.melds = other.melds.clone();
+        this.meldCount = other.meldCount.clone();
+        this.discards = other.discards.clone();
+        this.discardCount = other.discardCount;
+        this.goldKind = other.goldKind;
+        this.turn = other.turn;
+        this.mustDiscard = other.mustDiscard;
+        this.kongDraw = other.kongDraw;
+        this.lastDiscardSeat = other.lastDiscardSeat;
+        this.hash = other.hash;
+    }
+
+    /**
+     * 从对局中的 GameState 建立紧凑局面（需 4 名玩家）
+     *
+     * 轮次推断：当前玩家刚出完牌、其他家还没响应时，视为轮到下家摸牌且这张弃牌仍可被吃碰杠；
+     * 否则当前玩家已摸过牌、刚吃碰杠过，或暗牌为 3n+2 张（庄家起手）时该出牌。
+     * 不能只看张数：摸牌前暗杠只补一张牌，之后这家的暗牌张数就不再是 3n+2。
+     */
+    public static CompactGameState from(GameState state) {
+        List<Player> players = state.getPlayers();
+        if (players == null || players.size() != SEATS) {
+            throw new IllegalArgumentException("需要 4 名玩家");
+        }
+        List<Tile> wallTiles = state.getWallTiles();
+        byte[] wall = new byte[wallTiles.size()];
+        for (int i = 0; i < wall.length; i++) {
+            wall[i] = (byte) wallTiles.get(i).getKind();
+        }
+        Tile goldTile = state.getGoldTile();
+        CompactGameState s = new CompactGameState(wall, goldTile == null ? -1 : goldTile.getKind());
+        s.tail = wall.length;
+        s.reserved = state.getWallReserved();
+
+        for (int seat = 0; seat < SEATS; seat++) {
+            Player player = players.get(seat);
+            System.arraycopy(player.getKindCounts(), 0, s.hands[seat], 0, Tile.KIND_COUNT);
+            s.handSize[seat] = player.getHandTiles().size();
+            s.flowers[seat] = player.getFlowerTiles() == null ? 0 : player.getFlowerTiles().size();
+            if (player.getExposedMelds() != null) {
+                for (List<Tile> meld : player.getExposedMelds()) {
+                    s.addMeld(seat, exposedMeldType(meld), minKind(meld));
+                }
+            }
+            if (player.getConcealedKongs() != null) {
+                for (List<Tile> kong : player.getConcealedKongs()) {
+                    s.addMeld(seat, AN_GANG, minKind(kong));
+                }
+            }
+        }
+        for (Tile tile : state.getDiscardedTiles()) {
+            s.discards[s.discardCount++] = (byte) tile.getKind();
+        }
+
+        int current = state.getCurrentPlayerIndex();
+        Tile lastDiscard = state.getLastDiscardedTile();
+        int discarder = state.getLastDiscardPlayerIndex();
+        Player currentPlayer = players.get(current);
+        boolean claimed = state.getLastActionType() != null
+                && currentPlayer.getId().equals(state.getLastActionPlayerId());
+        if (lastDiscard != null && discarder == current && s.discardCount > 0) {
+            s.turn = (current + 1) % SEATS;
+            s.lastDiscardSeat = current;
+        } else {
+            s.turn = current;
+            s.mustDiscard = s.handSize[current] % 3 == 2
+                    || state.getLastDrawPlayerIndex() == current
+                    || claimed;
+        }
+        s.hash = s.computeHash();
+        return s;
+    }
+
+    /**
+     * 复制出一个独立的局面（牌墙数组共享，其余数组复制）；新局面的撤销记录从空开始
+     */
+    public CompactGameState fork() {
+        return new CompactGameState(this);
+    }
+
+    // === 着法 ===
+
+    public static int move(int type, int seat, int kind) {
+        return (type << TYPE_SHIFT) | (seat << SEAT_SHIFT) | kind;
+    }
+
+    /**
+     * 吃：shape 为 ActionEvaluator.CHI_LEFT / CHI_MIDDLE / CHI_RIGHT
+     */
+    public static int chiMove(int seat, int offeredKind, int shape) {
+        int index = Integer.numberOfTrailingZeros(shape) - Integer.numberOfTrailingZeros(ActionEvaluator.CHI_LEFT);
+        return move(CHI, seat, offeredKind) | (index << SHAPE_SHIFT);
+    }
+
+    public static int moveType(int move) {
+        return (move >>> TYPE_SHIFT) & 7;
+    }
+
+    public static int moveSeat(int move) {
+        return (move >>> SEAT_SHIFT) & 3;
+    }
+
+    /**
+     * 着法涉及的牌种：出牌 / 暗杠为该牌，吃碰杠为被响应的弃牌，摸牌无意义
+     */
+    public static int moveKind(int move) {
+        return move & 63;
+    }
+
+    /**
+     * 吃法（ActionEvaluator.CHI_LEFT / CHI_MIDDLE / CHI_RIGHT）
+     */
+    public static int chiShape(int move) {
+        return ActionEvaluator.CHI_LEFT << ((move >>> SHAPE_SHIFT) & 3);
+    }
+
+    /**
+     * 生成当前局面的全部着法，写入 out（长度至少 {@link #MAX_MOVES}），返回着法数
+     *
+     * - 该出牌：打出任一张非金手牌，或暗杠
+     * - 该摸牌：其余三家对上一张弃牌的明杠 / 碰 / 吃，轮到的一家摸牌前暗杠或摸牌
+     * 牌墙摸到海底且无人响应时返回 0（流局）。
+     */
+    public int generateMoves(int[] out) {
+        int n = 0;
+        int[] hand = hands[turn];
+        if (mustDiscard) {
+            for (int kind = 0; kind < Tile.KIND_COUNT; kind++) {
+                if (hand[kind] > 0 && kind != goldKind) {
+                    out[n++] = move(DISCARD, turn, kind);
+                }
+            }
+            return addAnGangs(out, n, hand);
+        }
+        if (lastDiscardSeat >= 0) {
+            int offered = discards[discardCount - 1];
+            for (int seat = 0; seat < SEATS; seat++) {
+                int relation = ActionEvaluator.relation(seat, lastDiscardSeat);
+                int result = ActionEvaluator.evaluate(hands[seat], offered, goldKind, relation, 0L);
+                if ((result & ActionEvaluator.GANG) != 0) {
+                    out[n++] = move(GANG, seat, offered);
+                }
+                if ((result & ActionEvaluator.PENG) != 0) {
+                    out[n++] = move(PENG, seat, offered);
+                }
+                for (int shape = ActionEvaluator.CHI_LEFT; shape <= ActionEvaluator.CHI_RIGHT; shape <<= 1) {
+                    if ((result & shape) != 0) {
+                        out[n++] = chiMove(seat, offered, shape);
+                    }
+                }
+            }
+        }
+        if (!kongDraw) {
+            n = addAnGangs(out, n, hand);
+        }
+        if (canDraw()) {
+            out[n++] = move(DRAW, turn, 0);
+        }
+        return n;
+    }
+
+    private int addAnGangs(int[] out, int n, int[] hand) {
+        for (int kind = 0; kind < WinValidator.KIND_COUNT; kind++) {
+            if (hand[kind] == 4) {
+                out[n++] = move(AN_GANG, turn, kind);
+            }
+        }
+        return n;
+    }
+
+    /**
+     * 在原地执行一步（调用方保证着法来自 {@link #generateMoves}）
+     */
+    public void apply(int move) {
+        int seat = moveSeat(move);
+        int kind = moveKind(move);
+        record(move);
+        switch (moveType(move)) {
+            case DRAW:
+                draw(seat);
+                break;
+            case DISCARD:
+                hands[seat][kind]--;
+                handSize[seat]--;
+                hash += Zobrist.discard(discardCount, kind) - Zobrist.seat(seat, Zobrist.handTile(kind));
+                discards[discardCount++] = (byte) kind;
+                lastDiscardSeat = seat;
+                turn = (seat + 1) % SEATS;
+                mustDiscard = false;
+                break;
+            case CHI: {
+                int shape = chiShape(move);
+                int first = ActionEvaluator.chiFirstKind(shape, kind);
+                int second = ActionEvaluator.chiSecondKind(shape, kind);
+                hands[seat][first]--;
+                hands[seat][second]--;
+                hash -= Zobrist.seat(seat, Zobrist.handTile(first) + Zobrist.handTile(second));
+                claim(seat, 2, CHI, Math.min(first, kind));
+                break;
+            }
+            case PENG:
+                hands[seat][kind] -= 2;
+                hash -= Zobrist.seat(seat, 2 * Zobrist.handTile(kind));
+                claim(seat, 2, PENG, kind);
+                break;
+            case GANG:
+                hands[seat][kind] -= 3;
+                hash -= Zobrist.seat(seat, 3 * Zobrist.handTile(kind));
+                claim(seat, 3, GANG, kind);
+                reserved++;                 // 明杠：海底多留一张
+                afterKong();
+                break;
+            case AN_GANG:
+                hands[seat][kind] -= 4;
+                handSize[seat] -= 4;
+                hash -= Zobrist.seat(seat, 4 * Zobrist.handTile(kind));
+                addMeld(seat, AN_GANG, kind);
+                turn = seat;
+                lastDiscardSeat = -1;
+                afterKong();
+                break;
+            default:
+                historySize--;
+                throw new IllegalArgumentException("未知着法：" + move);
+        }
+    }
+
+    /**
+     * 撤销最近一次 {@link #apply}
+     */
+    public void undo() {
+        if (historySize == 0) {
+            throw new IllegalStateException("没有可撤销的着法");
+        }
+        long rec = history[--historySize];
+        hash = hashHistory[historySize];
+        int move = (int) (rec & 0xFFFF);
+        int seat = moveSeat(move);
+        int kind = moveKind(move);
+        int prevHead = (int) ((rec >>> 16) & 0xFF);
+        int prevTail = (int) ((rec >>> 24) & 0xFF);
+        switch (moveType(move)) {
+            case DRAW: {
+                // 最后摸到的一张进了手牌，之前摸到的都是花
+                int drawn = (head - prevHead) + (prevTail - tail);
+                int last = tail < prevTail ? wall[tail] : wall[prevHead];
+                hands[seat][last]--;
+                handSize[seat]--;
+                flowers[seat] -= drawn - 1;
+                break;
+            }
+            case DISCARD:
+                discardCount--;
+                hands[seat][kind]++;
+                handSize[seat]++;
+                break;
+            case CHI: {
+                int shape = chiShape(move);
+                hands[seat][ActionEvaluator.chiFirstKind(shape, kind)]++;
+                hands[seat][ActionEvaluator.chiSecondKind(shape, kind)]++;
+                unclaim(seat, 2, kind);
+                break;
+            }
+            case PENG:
+                hands[seat][kind] += 2;
+                unclaim(seat, 2, kind);
+                break;
+            case GANG:
+                hands[seat][kind] += 3;
+                unclaim(seat, 3, kind);
+                reserved--;
+                break;
+            case AN_GANG:
+                hands[seat][kind] += 4;
+                handSize[seat] += 4;
+                meldCount[seat]--;
+                break;
+            default:
+                break;
+        }
+        head = prevHead;
+        tail = prevTail;
+        turn = (int) ((rec >>> 32) & 3);
+        mustDiscard = (rec & (1L << 34)) != 0;
+        kongDraw = (rec & (1L << 35)) != 0;
+        lastDiscardSeat = (int) ((rec >>> 36) & 7) - 1;
+    }
+
+    /**
+     * 摸一张牌（杠后从牌尾），摸到花就记入花牌并从牌尾补，直到摸到非花或牌墙摸到海底
+     */
+    private void draw(int seat) {
+        int kind = kongDraw ? wall[--tail] : wall[head++];
+        while (kind >= FIRST_FLOWER_KIND && canDraw()) {
+            flowers[seat]++;
+            hash += Zobrist.seat(seat, Zobrist.flowers(1));
+            kind = wall[--tail];
+        }
+        hands[seat][kind]++;
+        handSize[seat]++;
+        hash += Zobrist.seat(seat, Zobrist.handTile(kind));
+        turn = seat;
+        mustDiscard = true;
+        kongDraw = false;
+        lastDiscardSeat = -1;
+    }
+
+    /**
+     * 杠后从牌尾补牌；牌墙已到海底补不了时与 GameEngine 一样直接出牌
+     */
+    private void afterKong() {
+        kongDraw = canDraw();
+        mustDiscard = !kongDraw;
+    }
+
+    /**
+     * 吃 / 碰 / 明杠：从牌池取回弃牌，组成副露，轮到响应者
+     */
+    private void claim(int seat, int fromHand, int type, int meldKind) {
+        discardCount--;
+        hash -= Zobrist.discard(discardCount, discards[discardCount]);
+        handSize[seat] -= fromHand;
+        addMeld(seat, type, meldKind);
+        turn = seat;
+        mustDiscard = true;
+        lastDiscardSeat = -1;
+    }
+
+    private void unclaim(int seat, int fromHand, int offeredKind) {
+        discards[discardCount++] = (byte) offeredKind;
+        handSize[seat] += fromHand;
+        meldCount[seat]--;
+    }
+
+    private void addMeld(int seat, int type, int kind) {
+        if (meldCount[seat] == MAX_MELDS) {
+            throw new IllegalStateException("副露数超过上限：" + seat);
+        }
+        melds[seat * MAX_MELDS + meldCount[seat]++] = (short) ((type << MELD_TYPE_SHIFT) | kind);
+        hash += Zobrist.seat(seat, Zobrist.meld(type - CHI, kind));
+    }
+
+    /**
+     * 记下着法与执行前的标量：着法 16 位 | 牌头 8 位 | 牌尾 8 位 | 轮次 2 位 | 该出牌 1 位 | 杠后补牌 1 位 | 弃牌座位+1 3 位
+     */
+    private void record(int move) {
+        if (historySize == history.length) {
+            history = Arrays.copyOf(history, history.length * 2);
+            hashHistory = Arrays.copyOf(hashHistory, hashHistory.length * 2);
+        }
+        hashHistory[historySize] = hash;
+        history[historySize++] = (move & 0xFFFFL)
+            | ((long) head << 16)
+            | ((long) tail << 24)
+            | ((long) turn << 32)
+            | (mustDiscard ? 1L << 34 : 0L)
+            | (kongDraw ? 1L << 35 : 0L)
+            | ((long) (lastDiscardSeat + 1) << 36);
+    }
+
+    private static int exposedMeldType(List<Tile> meld) {
+        if (meld.size() == 4) {
+            return GANG;
+        }
+        int kind = meld.get(0).getKind();
+        for (Tile tile : meld) {
+            if (tile.getKind() != kind) {
+                return CHI;
+            }
+        }
+        return PENG;
+    }
+
+    private static int minKind(List<Tile> meld) {
+        int kind = Integer.MAX_VALUE;
+        for (Tile tile : meld) {
+            kind = Math.min(kind, tile.getKind());
+        }
+        return kind;
+    }
+
+    // === 读取 ===
+
+    public int getTurn() {
+        return turn;
+    }
+
+    /**
+     * 当前行动者该出牌（否则为该摸牌 / 等待响应弃牌）
+     */
+    public boolean isDiscardStage() {
+        return mustDiscard;
+    }
+
+    /**
+     * 仍可被响应的弃牌来自哪家；没有时为 -1
+     */
+    public int getLastDiscardSeat() {
+        return lastDiscardSeat;
+    }
+
+    public int getGoldKind() {
+        return goldKind;
+    }
+
+    /**
+     * 某家手牌按牌种的计数（只读使用）
+     */
+    public int[] getKindCounts(int seat) {
+        return hands[seat];
+    }
+
+    public int getHandSize(int seat) {
+        return handSize[seat];
+    }
+
+    public int getFlowerCount(int seat) {
+        return flowers[seat];
+    }
+
+    public int getMeldCount(int seat) {
+        return meldCount[seat];
+    }
+
+    /**
+     * 某家第 i 个副露（用 {@link #meldType} / {@link #meldKind} 解码）
+     *
+     * apply 按组成的先后追加；from 建立时先列明牌再列暗杠，所以比较两个局面的副露应不计顺序。
+     */
+    public int getMeld(int seat, int i) {
+        return melds[seat * MAX_MELDS + i];
+    }
+
+    public static int meldType(int meld) {
+        return meld >>> MELD_TYPE_SHIFT;
+    }
+
+    /**
+     * 副露的牌种（吃为三张中最小的牌种）
+     */
+    public static int meldKind(int meld) {
+        return meld & 63;
+    }
+
+    public int getDiscardCount() {
+        return discardCount;
+    }
+
+    public int getDiscardKind(int i) {
+        return discards[i];
+    }
+
+    /**
+     * 牌墙剩余张数
+     */
+    public int getWallSize() {
+        return tail - head;
+    }
+
+    /**
+     * 牌墙剩余的第 i 张（索引 0 为牌头）的牌种
+     */
+    public int getWallKind(int i) {
+        return wall[head + i];
+    }
+
+    public int getReserved() {
+        return reserved;
+    }
+
+    /**
+     * 剩余张数是否仍多于海底预留张数
+     */
+    public boolean canDraw() {
+        return tail - head > reserved;
+    }
+
+    /**
+     * 局面的 Zobrist 哈希：手牌、副露、花牌张数、牌池、金（增量维护）+ 牌墙位置 + 轮次与阶段
+     *
+     * 与 GameState#getStateHash 共用 {@link Zobrist} 的键，但牌墙游标是相对 from 时的牌墙，
+     * 两者不能直接比较；同一棵搜索树里的局面可以互相比较。
+     */
+    public long getHash() {
+        int stage = (mustDiscard ? 1 : 0) | (kongDraw ? 2 : 0) | ((lastDiscardSeat + 1) << 2);
+        return hash + Zobrist.wall(head, tail, reserved) + Zobrist.turn(turn) + Zobrist.stage(stage);
+    }
+
+    private long computeHash() {
+        long h = Zobrist.gold(goldKind);
+        for (int seat = 0; seat < SEATS; seat++) {
+            long player = Zobrist.flowers(flowers[seat]);
+            for (int kind = 0; kind < Tile.KIND_COUNT; kind++) {
+                player += hands[seat][kind] * Zobrist.handTile(kind);
+            }
+            for (int i = 0; i < meldCount[seat]; i++) {
+                int meld = melds[seat * MAX_MELDS + i];
+                player += Zobrist.meld(meldType(meld) - CHI, meldKind(meld));
+            }
+            h += Zobrist.seat(seat, player);
+        }
+        for (int i = 0; i < discardCount; i++) {
+            h += Zobrist.discard(i, discards[i]);
+        }
+        return h;
+    }
+
+    /**
+     * 可撤销的步数
+     */
+    public int getHistorySize() {
+        return historySize;
+    }
+}
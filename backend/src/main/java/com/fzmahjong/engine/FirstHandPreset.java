@@ -307,18 +307,24 @@ public final class FirstHandPreset {
             return null;
         }
         List<Tile> wall = new ArrayList<>(144);
+        int[] used = new int[Tile.KIND_COUNT]; // 每种牌已取到第几张
         for (int i = 0; i < 144; i++) {
             Tile t = parseTileCode(WALL_ORDER.get(i));
             if (t == null) {
                 return null;
             }
-            wall.add(t);
+            // 依次取这种牌的第 0、1、2、3 张实体牌；同种牌超出张数说明预设有误
+            Tile copy = Tile.of(t.getType(), t.getValue(), used[t.getKind()]++);
+            if (copy == null) {
+                return null;
+            }
+            wall.add(copy);
         }
         return wall;
     }
 
     /**
-     * 解析单张牌码为 Tile。
+     * 解析单张牌码为 Tile（返回该种牌的第一张实体牌）。
      * 万 1W-9W，条 1T-9T，饼 1B-9B，风 E/S/W/N，字 Z/P/F，花 H1-H8。
      */
     public static Tile parseTileCode(String code) {
@@ -328,13 +334,13 @@ public final class FirstHandPreset {
         String s = code.trim().toUpperCase();
         if (s.length() == 1) {
             switch (s) {
-                case "E": return new Tile(TileType.WIND, 1);   // 东
-                case "S": return new Tile(TileType.WIND, 2);   // 南
-                case "W": return new Tile(TileType.WIND, 3);   // 西
-                case "N": return new Tile(TileType.WIND, 4);   // 北
-                case "Z": return new Tile(TileType.DRAGON, 1); // 中
-                case "P": return new Tile(TileType.DRAGON, 2); // 白
-                case "F": return new Tile(TileType.DRAGON, 3); // 发
+                case "E": return Tile.of(TileType.WIND, 1, 0);   // 东
+                case "S": return Tile.of(TileType.WIND, 2, 0);   // 南
+                case "W": return Tile.of(TileType.WIND, 3, 0);   // 西
+                case "N": return Tile.of(TileType.WIND, 4, 0);   // 北
+                case "Z": return Tile.of(TileType.DRAGON, 1, 0); // 中
+                case "P": return Tile.of(TileType.DRAGON, 2, 0); // 白
+                case "F": return Tile.of(TileType.DRAGON, 3, 0); // 发
                 default: return null;
             }
         }
@@ -344,16 +350,16 @@ public final class FirstHandPreset {
             if (first >= '1' && first <= '9') {
                 int val = first - '0';
                 switch (second) {
-                    case 'W': return new Tile(TileType.WAN, val);
-                    case 'T': return new Tile(TileType.TIAO, val);
-                    case 'B': return new Tile(TileType.BING, val);
-                    case 'H': return (val >= 1 && val <= 8) ? new Tile(TileType.FLOWER, val) : null;
+                    case 'W': return Tile.of(TileType.WAN, val, 0);
+                    case 'T': return Tile.of(TileType.TIAO, val, 0);
+                    case 'B': return Tile.of(TileType.BING, val, 0);
+                    case 'H': return (val >= 1 && val <= 8) ? Tile.of(TileType.FLOWER, val, 0) : null;
                     default: return null;
                 }
             }
             // 花牌 "H1"～"H8"（与文档、WALL_ORDER、createStandardOrderCodes 一致）
             if (first == 'H' && second >= '1' && second <= '8') {
-                return new Tile(TileType.FLOWER, second - '0');
+                return Tile.of(TileType.FLOWER, second - '0', 0);
             }
         }
         return null;
@@ -5,7 +5,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.Iterator;
 
 /**
  * 游戏引擎 - 核心游戏逻辑
@@ -13,11 +12,36 @@ import java.util.Iterator;
 public class GameEngine {
     
     private static final Logger log = LoggerFactory.getLogger(GameEngine.class);
+
+    /** 与 {"hu", "gang", "peng", "chi"} 一一对应的操作标志位（按优先级从高到低） */
+    private static final int[] PRIORITY_FLAGS = {ActionSet.HU, ActionSet.GANG, ActionSet.PENG, ActionSet.CHI};
     
     private GameState gameState;
+    /** 等待玩家操作期间后台预先算好的自摸判定与听牌位集（见 SpeculationService） */
+    private final SpeculativeResults speculative = new SpeculativeResults();
+    /** 各座位“别人出牌后可吃碰杠胡”的位集缓存（手牌变化时才重算） */
+    private final ClaimIndex claimIndex = new ClaimIndex(speculative);
+    /** 本房间的洗牌随机源：每局从中取一个种子洗牌（不与其他房间共享） */
+    private final SplittableRandom random;
+    /** 下一局已预留的洗牌种子（单局结束停留期间确定，仅在房间线程读写） */
+    private Long nextHandSeed;
+    /** 后台按 nextHandSeed 预先发好的下一局（由后台线程写入） */
+    private volatile PreparedHand preparedHand;
 
     public GameEngine(GameState gameState) {
+        this(gameState, new SplittableRandom());
+    }
+
+    /**
+     * 指定房间随机种子（自对弈、复现问题局时使用）
+     */
+    public GameEngine(GameState gameState, long seed) {
+        this(gameState, new SplittableRandom(seed));
+    }
+
+    private GameEngine(GameState gameState, SplittableRandom random) {
         this.gameState = gameState;
+        this.random = random;
     }
 
     /**
@@ -66,7 +90,7 @@ public class GameEngine {
         gameState.setLastActionType(null);
         gameState.setLastDiscardedTile(null);
         gameState.setLastDiscardPlayerIndex(-1);
-        gameState.getDiscardedTiles().clear();
+        gameState.clearDiscardedTiles();
         gameState.setGoldTile(null);
         gameState.setReplacingFlowers(false);
         gameState.setCurrentFlowerPlayerIndex(-1);
@@ -85,14 +109,13 @@ public class GameEngine {
             gameState.getPlayers().get(gameState.getDealerIndex()).setDealer(true);
         }
 
-        // 1. 初始化牌墙
-        initializeWall();
-
+        // 1-2. 单局结束停留期间已按预留种子洗好牌、发好牌时直接换入；否则现场初始化牌墙并发牌（庄17其余16）
+        PreparedHand prepared = takePreparedHand();
+        if (prepared == null) {
+            prepared = dealNewHand();
+        }
         gameState.setPhase(GamePhase.DEALING);
-
-        // 2. 发牌（庄17其余16）
-        log.info("开始牌头摸牌...");
-        dealTiles();
+        installPreparedHand(prepared);
 
         // 3. 进入“手动补花阶段”：从庄家开始，一轮一轮补花，实际补花由前端按钮驱动
         gameState.setPhase(GamePhase.REPLACING_FLOWERS);
@@ -106,11 +129,61 @@ public class GameEngine {
     }
 
     /**
-     * 初始化牌墙
+     * 单局结束停留期间调用（房间线程）：为下一局预留洗牌种子，
+     * 返回一个可在任意线程执行的预发牌任务，开局时直接换入其结果（见 {@link PreparedHand}）。
+     * 当前不在 HAND_FINISHED 阶段时返回 null。
+     */
+    public Runnable prepareNextHand() {
+        if (gameState.getPhase() != GamePhase.HAND_FINISHED || gameState.getPlayers().size() != 4) {
+            return null;
+        }
+        if (nextHandSeed == null) {
+            nextHandSeed = random.nextLong();
+        }
+        long seed = nextHandSeed;
+        int dealerIndex = gameState.getDealerIndex();
+        return () -> preparedHand = PreparedHand.deal(seed, dealerIndex);
+    }
+
+    /**
+     * 取出下一局的预发牌：没有预留种子时返回 null（走常规的洗牌发牌）；
+     * 预留了种子但后台还没算完（或庄家已变）时，当场按同一种子发牌，结果与后台算出的相同
+     */
+    private PreparedHand takePreparedHand() {
+        Long seed = nextHandSeed;
+        nextHandSeed = null;
+        PreparedHand prepared = preparedHand;
+        preparedHand = null;
+        if (seed == null || gameState.getPlayers().size() != 4) {
+            return null;
+        }
+        int dealerIndex = gameState.getDealerIndex();
+        if (prepared == null || !seed.equals(prepared.getSeed()) || prepared.getDealerIndex() != dealerIndex) {
+            log.info("预发牌未就绪，按预留种子现场发牌");
+            prepared = PreparedHand.deal(seed, dealerIndex);
+        }
+        return prepared;
+    }
+
+    /**
+     * 换入发好的牌墙余牌与四家起手牌
+     */
+    private void installPreparedHand(PreparedHand prepared) {
+        gameState.setWallTiles(prepared.getWall());
+        gameState.setWallSeed(prepared.getSeed());
+        for (int seat = 0; seat < 4; seat++) {
+            gameState.getPlayers().get(seat).setHandTiles(prepared.getHand(seat));
+        }
+        log.info("换入发好的一局，洗牌种子 {}，牌墙剩余{}张", prepared.getSeed(), gameState.getWallTiles().size());
+    }
+
+    /**
+     * 初始化牌墙并从牌头按轮次发牌（发牌顺序见 {@link PreparedHand}）
      * 第一局若配置了 {@link FirstHandPreset#WALL_ORDER}（144 张），则使用预设牌序；否则及第二局起均随机。
      */
-    private void initializeWall() {
-        List<Tile> wall;
+    private PreparedHand dealNewHand() {
+        int dealerIndex = gameState.getDealerIndex();
+        List<Tile> wall = null;
         boolean isFirstHand = gameState.isFirstHandAfterStart();
         boolean hasPreset = FirstHandPreset.hasPreset();
         
@@ -121,7 +194,6 @@ public class GameEngine {
             if (wall != null) {
                 log.info("第一局使用预设牌序，共{}张牌", wall.size());
             } else {
-                wall = TileFactory.createAndShuffleWall();
                 log.warn("预设牌序无效（buildWall返回null），改用随机牌墙");
             }
             gameState.setFirstHandAfterStart(false);
@@ -136,50 +208,17 @@ public class GameEngine {
                     log.warn("WALL_ORDER为null");
                 }
             }
-            wall = TileFactory.createAndShuffleWall();
             if (gameState.isFirstHandAfterStart()) {
                 gameState.setFirstHandAfterStart(false);
             }
-            log.info("牌墙初始化完成，共{}张牌", wall.size());
-        }
-        gameState.setWallTiles(wall);
-    }
-
-    /**
-     * 牌头摸牌
-     * 庄家17张，其他玩家16张
-     * 从牌墙顶部（牌头）按轮次摸牌
-     */
-    private void dealTiles() {
-        int dealerIndex = gameState.getDealerIndex();
-        
-        // 四轮，每轮每人4张（16张）
-        // 从庄家开始，逆时针顺序摸牌
-        for (int round = 0; round < 4; round++) {
-            for (int i = 0; i < 4; i++) {
-                int playerIndex = (dealerIndex + i) % 4;
-                Player player = gameState.getPlayers().get(playerIndex);
-                for (int j = 0; j < 4; j++) {
-                    Tile tile = gameState.drawTile(); // 从牌头（索引0）取牌
-                    if (tile != null) {
-                        player.addTile(tile);
-                    }
-                }
-            }
-        }
-        
-        // 庄家再多抓一张（开门，17张）
-        Player dealer = gameState.getDealer();
-        Tile tile = gameState.drawTile(); // 从牌头取牌
-        if (tile != null) {
-            dealer.addTile(tile);
         }
-        
-        // 手牌排序（此时金牌还未开出，传入null）
-        for (Player player : gameState.getPlayers()) {
-            player.sortHand(null);
-            log.info("玩家 {} 手牌数：{}", player.getName(), player.getHandSize());
+        if (wall != null) {
+            return PreparedHand.deal(wall, dealerIndex);
         }
+        // 随机牌墙：按种子洗牌，种子记录在 GameState 中用于复现
+        long seed = random.nextLong();
+        log.info("随机牌墙，洗牌种子 {}", seed);
+        return PreparedHand.deal(seed, dealerIndex);
     }
 
     /**
@@ -516,13 +555,12 @@ public class GameEngine {
         if (gameState.isQiangJinWindowActive() && validHandCountBefore == 16) {
             Tile goldTile = gameState.getGoldTile();
             if (goldTile != null) {
-                // 检查当前16张是否听牌
-                List<Tile> tingTiles = ActionChecker.getTingTiles(player, goldTile);
+                // 检查当前16张是否听牌（按座位缓存的听牌位集，与 getTingTiles 结果一致）
+                int tingCount = Long.bitCount(claimIndex.winsOn(player, goldTile));
                 // 仅当“听牌张数 ≥ 2”时才允许抢金，防止两张金起手直接三金倒被视作抢金
-                canQiangJinBeforeDraw = tingTiles != null && tingTiles.size() >= 2;
+                canQiangJinBeforeDraw = tingCount >= 2;
                 if (canQiangJinBeforeDraw) {
-                    log.info("玩家 {} 摸牌前满足抢金条件：16张已听牌，听牌数={}", player.getName(),
-                        tingTiles.size());
+                    log.info("玩家 {} 摸牌前满足抢金条件：16张已听牌，听牌数={}", player.getName(), tingCount);
                 }
             }
         }
@@ -606,7 +644,7 @@ public class GameEngine {
         player.removeTile(tileToDiscard);
         gameState.setLastDiscardedTile(tileToDiscard);
         gameState.setLastDiscardPlayerIndex(player.getPosition());
-        gameState.getDiscardedTiles().add(tileToDiscard);
+        gameState.addDiscardedTile(tileToDiscard);
 
         // 抢金窗口：庄家首打之后开启；直到庄家首次再摸牌（见 playerDraw）后关闭
         if (player.getPosition() == gameState.getDealerIndex() && gameState.getDiscardedTiles().size() == 1) {
@@ -633,6 +671,64 @@ public class GameEngine {
         log.debug("轮到玩家：{}", nextPlayer.getName());
     }
 
+    /**
+     * 无人可吃碰杠胡/所有人都过后：
+     * - 若下家有暗杠，等待其选择
+     * - 否则进入下一轮并摸牌
+     *
+     * 说明：该逻辑原先在控制器的 discard() 与 pass() 中各写了一份，后抽取成单一实现；
+     * 放在引擎里，控制器与无头自对弈模拟器走的是同一条推进路径。
+     */
+    public void handleNextPlayerAfterNoOneCanActionOrAllPassed(String reason) {
+        int discardPlayerIndex = gameState.getLastDiscardPlayerIndex();
+        if (discardPlayerIndex < 0 || discardPlayerIndex >= gameState.getPlayers().size()) {
+            log.warn("无法处理下一步（{}）：lastDiscardPlayerIndex={}", reason, discardPlayerIndex);
+            return;
+        }
+
+        int nextPlayerIndex = (discardPlayerIndex + 1) % 4;
+        Player nextPlayer = gameState.getPlayers().get(nextPlayerIndex);
+
+        long anGangKinds = ActionChecker.anGangKinds(nextPlayer);
+        if (anGangKinds != 0L) {
+            gameState.setPlayerActions(nextPlayer, ActionSet.anGangBeforeDraw(anGangKinds));
+            gameState.setCurrentActionPlayerId(nextPlayer.getId());
+            gameState.setCurrentActionType("anGang");
+            log.info("{}：下家 {} 有暗杠，等待选择", reason, nextPlayer.getName());
+            return;
+        }
+
+        nextTurn();
+        Player currentPlayer = gameState.getCurrentPlayer();
+        if (currentPlayer != null) {
+            playerDraw(currentPlayer.getId());
+        }
+    }
+
+    /**
+     * 按需计算听牌提示（客户端看到 tingHint 标志后请求）：
+     * 结果与 ActionChecker.getTingTiles 相同，但按（座位, 手牌版本, 金牌）缓存，同一手牌反复请求不重算
+     */
+    public List<Tile> getTingHint(String playerId) {
+        Player player = findPlayerById(playerId);
+        if (player == null) {
+            return Collections.emptyList();
+        }
+        int validCount = player.getValidTileCount();
+        if (validCount == 0 || validCount > 17) {
+            return Collections.emptyList();
+        }
+        return ActionChecker.kindsToTiles(claimIndex.winsOn(player, gameState.getGoldTile()));
+    }
+
+    /**
+     * 听牌提示是否可能非空（只看张数和金数，不做胡牌分析）：
+     * 暗牌 3n+1 张时进一张可能成 3n+2；手里已有两张金时再进一张金即三金倒
+     */
+    private static boolean isTingHintAvailable(Player player, Tile goldTile) {
+        return player.getValidTileCount() % 3 == 1 || (goldTile != null && player.countOf(goldTile) == 2);
+    }
+
     /**
      * 根据ID查找玩家
      */
@@ -651,37 +747,31 @@ public class GameEngine {
         Tile goldTile = gameState.getGoldTile();
 
         // 摸牌后只判断：暗杠 / 自摸 / 三金倒（吃碰杠只在别人出牌时判断）
-        List<Tile> anGangTiles = ActionChecker.canAnGang(player);
-        boolean canAnGang = anGangTiles != null && !anGangTiles.isEmpty();
+        long anGangKinds = ActionChecker.anGangKinds(player);
+        boolean canAnGang = anGangKinds != 0L;
         boolean isQiangJin = isQiangJinForCurrentDraw(player, goldTile);
-        boolean canHuNormal = ActionChecker.canHu(player, null, goldTile, isQiangJin);
+        // 非抢金时先取后台预计算好的结果（按手牌哈希匹配，见 SpeculationService）
+        long speculated = isQiangJin ? SpeculativeResults.MISS
+            : speculative.get(player.getHandHash(), goldTile == null ? -1 : goldTile.getKind(), SpeculativeResults.OP_WIN);
+        boolean canHuNormal = speculated != SpeculativeResults.MISS
+            ? speculated != 0
+            : ActionChecker.canHu(player, null, goldTile, isQiangJin);
 
         boolean canSanJinDao = false;
         if (goldTile != null) {
-            long goldCount = player.getHandTiles().stream().filter(t -> t.isSameAs(goldTile)).count();
-            canSanJinDao = goldCount >= 3;
+            canSanJinDao = player.countOf(goldTile) >= 3;
         }
 
         // 花胡：累计花牌数达到 20 张，直接胡牌（独立于普通牌型）
         boolean canHuaHu = isHuaHu(player);
         boolean canHu = canHuNormal || canHuaHu;
 
-        Map<String, Object> playerActions = new HashMap<>();
-        playerActions.put("canChi", false);
-        playerActions.put("canPeng", false);
-        playerActions.put("canGang", false);
-        playerActions.put("canAnGang", canAnGang);
-        playerActions.put("canHu", canHu);
-        playerActions.put("canSanJinDao", canSanJinDao); // 三金倒
-
-        // 不传递吃、碰、杠的牌列表（摸牌阶段不展示）
-        playerActions.put("chiTiles", new ArrayList<>());
-        playerActions.put("pengTiles", new ArrayList<>());
-        playerActions.put("gangTiles", new ArrayList<>());
-        playerActions.put("anGangTiles", anGangTiles == null ? new ArrayList<>() : anGangTiles);
-
-        // 听牌提示：ActionChecker 会按张数约束自动返回空/非空
-        playerActions.put("tingTiles", ActionChecker.getTingTiles(player, goldTile));
+        // 摸牌阶段没有吃、碰、杠；听牌提示只下发“可以请求”的标志，客户端按需通过 /game/tingHint 获取（见 getTingHint）
+        int flags = (canAnGang ? ActionSet.AN_GANG : 0)
+            | (canHu ? ActionSet.HU : 0)
+            | (canSanJinDao ? ActionSet.SAN_JIN_DAO : 0) // 三金倒
+            | (isTingHintAvailable(player, goldTile) ? ActionSet.TING_HINT : 0);
+        ActionSet playerActions = ActionSet.self(flags, anGangKinds);
 
         // 如果摸牌后可以自摸、暗杠或三金倒，设置当前操作玩家和操作类型
         boolean canSelfAction = canHu || canAnGang || canSanJinDao;
@@ -691,7 +781,7 @@ public class GameEngine {
             gameState.setCurrentActionType("drawAction");
         }
         
-        gameState.setPlayerActions(player.getId(), playerActions);
+        gameState.setPlayerActions(player, playerActions);
         
         log.debug("玩家 {} 摸牌后可用操作：暗杠={}, 胡={}, 三金倒={}, 花胡={}",
             player.getName(),
@@ -745,8 +835,9 @@ public class GameEngine {
      * 检查其他玩家在有人出牌后可以进行的操作
      * 按照优先级顺序：胡 > 杠 > 碰 > 吃（只有下家可以吃）
      * 注意：如果玩家可以同时"胡"和"碰"，应该都能选择
+     * （包级可见，供 JMH 基准直接调用）
      */
-    private void checkAvailableActionsAfterDiscard(Tile discardedTile, int discardPlayerIndex) {
+    void checkAvailableActionsAfterDiscard(Tile discardedTile, int discardPlayerIndex) {
         gameState.clearAllActions();
         gameState.setCurrentActionPlayerId(null);
         gameState.setCurrentActionType(null);
@@ -758,178 +849,66 @@ public class GameEngine {
         // 先给出牌者设置基础动作（主要是听牌列表），避免前端无数据无法展示
         if (discardPlayerIndex >= 0 && discardPlayerIndex < gameState.getPlayers().size()) {
             Player discarder = gameState.getPlayers().get(discardPlayerIndex);
-            Map<String, Object> discarderActions = new HashMap<>();
-            discarderActions.put("canHu", false);
-            discarderActions.put("canGang", false);
-            discarderActions.put("canPeng", false);
-            discarderActions.put("canChi", false);
-            discarderActions.put("canAnGang", false);
-            discarderActions.put("canSanJinDao", false);
-            discarderActions.put("chiTiles", new ArrayList<>());
-            discarderActions.put("pengTiles", new ArrayList<>());
-            discarderActions.put("gangTiles", new ArrayList<>());
-            discarderActions.put("anGangTiles", new ArrayList<>());
-            discarderActions.put("tingTiles", ActionChecker.getTingTiles(discarder, gameState.getGoldTile()));
-            gameState.setPlayerActions(discarder.getId(), discarderActions);
+            boolean tingHint = isTingHintAvailable(discarder, gameState.getGoldTile());
+            gameState.setPlayerActions(discarder, ActionSet.self(tingHint ? ActionSet.TING_HINT : 0, 0L));
         }
         
         // 按优先级顺序检查：胡 > 杠 > 碰 > 吃
         String[] actionTypes = {"hu", "gang", "peng", "chi"};
-        String highestPriorityAction = null;
         List<String> highestPriorityPlayers = new ArrayList<>();
         
-        // 先检查所有玩家可以执行的所有操作
-        Map<String, Map<String, Boolean>> playerActionsMap = new HashMap<>();
-        
-        for (int i = 0; i < gameState.getPlayers().size(); i++) {
-            Player otherPlayer = gameState.getPlayers().get(i);
+        // 先用按座位缓存的位集查出每家可响应的操作（胡/杠/碰所有玩家都可以，吃只有下家可以）
+        int[] claims = new int[gameState.getPlayers().size()];
+        int anyClaims = 0;
+        int nextPlayerIndex = (discardPlayerIndex + 1) % 4;
+        for (int i = 0; i < claims.length; i++) {
             if (i == discardPlayerIndex) {
                 continue; // 跳过出牌的玩家
             }
-            
-            Map<String, Boolean> actions = new HashMap<>();
-            actions.put("canHu", false);
-            actions.put("canGang", false);
-            actions.put("canPeng", false);
-            actions.put("canChi", false);
-            
-            // 检查胡（所有玩家都可以）
-            boolean canHu = ActionChecker.canHu(otherPlayer, discardedTile, 
-                gameState.getGoldTile(), false);
-            actions.put("canHu", canHu);
-            
-            // 检查杠（所有玩家都可以）
-            boolean canGang = ActionChecker.canGang(otherPlayer, discardedTile);
-            actions.put("canGang", canGang);
-            
-            // 检查碰（所有玩家都可以）
-            boolean canPeng = ActionChecker.canPeng(otherPlayer, discardedTile);
-            actions.put("canPeng", canPeng);
-            
-            // 检查吃（只有下家可以）
-            int nextPlayerIndex = (discardPlayerIndex + 1) % 4;
-            if (i == nextPlayerIndex) {
-                boolean canChi = ActionChecker.canChi(otherPlayer, discardedTile,
-                    discardPlayerIndex, i, gameState.getGoldTile());
-                actions.put("canChi", canChi);
-            }
-            
-            // 如果玩家有任何可用操作，记录
-            if (canHu || canGang || canPeng || actions.get("canChi")) {
-                playerActionsMap.put(otherPlayer.getId(), actions);
-            }
+            claims[i] = claimIndex.claims(gameState.getPlayers().get(i), gameState.getGoldTile(),
+                discardedTile, i == nextPlayerIndex);
+            anyClaims |= claims[i];
         }
-        
+        // 大多数出牌没有人能响应：直接返回，由调用方进入下一轮摸牌
+        if (anyClaims == 0) {
+            return;
+        }
+
         // 按优先级顺序，找到最高优先级的操作
-        for (String actionType : actionTypes) {
-            List<String> canActionPlayers = new ArrayList<>();
-            
-            for (Map.Entry<String, Map<String, Boolean>> entry : playerActionsMap.entrySet()) {
-                String playerId = entry.getKey();
-                Map<String, Boolean> actions = entry.getValue();
-                
-                boolean canAction = false;
-                switch (actionType) {
-                    case "hu":
-                        canAction = Boolean.TRUE.equals(actions.get("canHu"));
-                        break;
-                    case "gang":
-                        canAction = Boolean.TRUE.equals(actions.get("canGang"));
-                        break;
-                    case "peng":
-                        canAction = Boolean.TRUE.equals(actions.get("canPeng"));
-                        break;
-                    case "chi":
-                        canAction = Boolean.TRUE.equals(actions.get("canChi"));
-                        break;
-                }
-                
-                if (canAction) {
-                    canActionPlayers.add(playerId);
-                }
-            }
-            
-            // 如果找到可以执行该优先级的玩家，记录并停止检查低优先级
-            if (!canActionPlayers.isEmpty()) {
-                highestPriorityAction = actionType;
-                highestPriorityPlayers = canActionPlayers;
-                break;
-            }
+        int highestPriorityIndex = 0;
+        while ((anyClaims & PRIORITY_FLAGS[highestPriorityIndex]) == 0) {
+            highestPriorityIndex++;
         }
-        
-        // 设置每个玩家的可用操作
+        String highestPriorityAction = actionTypes[highestPriorityIndex];
+        int highestPriorityFlag = PRIORITY_FLAGS[highestPriorityIndex];
         // 重要：需要给所有能执行"最高优先级或更高优先级"操作的玩家设置操作信息
         // 例如：如果最高优先级是"碰"，那么能"胡"的玩家也应该能操作（因为"胡"优先级更高）
-        int highestPriorityIndex = -1;
-        for (int i = 0; i < actionTypes.length; i++) {
-            if (actionTypes[i].equals(highestPriorityAction)) {
-                highestPriorityIndex = i;
-                break;
-            }
+        int highestOrHigher = 0;
+        for (int i = 0; i <= highestPriorityIndex; i++) {
+            highestOrHigher |= PRIORITY_FLAGS[i];
         }
-        
-        for (Map.Entry<String, Map<String, Boolean>> entry : playerActionsMap.entrySet()) {
-            String playerId = entry.getKey();
-            Map<String, Boolean> actions = entry.getValue();
-            
-            // 找到对应的玩家
-            Player player = findPlayerById(playerId);
-            if (player == null) {
+
+        for (int i = 0; i < claims.length; i++) {
+            if ((claims[i] & highestOrHigher) == 0) {
                 continue;
             }
-            
-            // 检查玩家是否能执行最高优先级或更高优先级的操作
-            boolean canExecuteHighestOrHigher = false;
-            if (highestPriorityIndex >= 0) {
-                // 检查从"胡"到最高优先级之间的所有操作
-                for (int i = 0; i <= highestPriorityIndex; i++) {
-                    String actionType = actionTypes[i];
-                    boolean canAction = false;
-                    switch (actionType) {
-                        case "hu":
-                            canAction = Boolean.TRUE.equals(actions.get("canHu"));
-                            break;
-                        case "gang":
-                            canAction = Boolean.TRUE.equals(actions.get("canGang"));
-                            break;
-                        case "peng":
-                            canAction = Boolean.TRUE.equals(actions.get("canPeng"));
-                            break;
-                        case "chi":
-                            canAction = Boolean.TRUE.equals(actions.get("canChi"));
-                            break;
-                    }
-                    if (canAction) {
-                        canExecuteHighestOrHigher = true;
-                        break;
-                    }
-                }
-            }
-            
-            // 如果玩家可以执行最高优先级或更高优先级的操作，设置操作信息
-            if (canExecuteHighestOrHigher) {
-                Map<String, Object> playerActions = new HashMap<>();
-                playerActions.put("discardedTile", discardedTile);
-                playerActions.put("discardPlayerIndex", discardPlayerIndex);
-                
-                // 设置所有可用操作（如果玩家可以同时"胡"和"碰"，都设置为true）
-                playerActions.put("canHu", actions.get("canHu"));
-                playerActions.put("canGang", actions.get("canGang"));
-                playerActions.put("canPeng", actions.get("canPeng"));
-                playerActions.put("canChi", actions.get("canChi"));
-                // 听牌提示（别人出牌阶段也可能需要展示本家听牌）
-                playerActions.put("tingTiles", ActionChecker.getTingTiles(player, gameState.getGoldTile()));
-                
-                gameState.setPlayerActions(playerId, playerActions);
-                
-                // 记录玩家可以执行的操作
-                List<String> availableOps = new ArrayList<>();
-                if (actions.get("canHu")) availableOps.add("胡");
-                if (actions.get("canGang")) availableOps.add("杠");
-                if (actions.get("canPeng")) availableOps.add("碰");
-                if (actions.get("canChi")) availableOps.add("吃");
-                log.info("玩家 {} 可以：{}", player.getName(), String.join("、", availableOps));
+            Player player = gameState.getPlayers().get(i);
+            if ((claims[i] & highestPriorityFlag) != 0) {
+                highestPriorityPlayers.add(player.getId());
             }
+
+            // 设置所有可用操作（如果玩家可以同时"胡"和"碰"，都设置为true）；
+            // 听牌提示（别人出牌阶段也可能需要展示本家听牌）
+            int flags = claims[i] | (isTingHintAvailable(player, gameState.getGoldTile()) ? ActionSet.TING_HINT : 0);
+            gameState.setPlayerActions(player, ActionSet.claim(flags, discardedTile, discardPlayerIndex));
+
+            // 记录玩家可以执行的操作
+            List<String> availableOps = new ArrayList<>();
+            if ((claims[i] & ActionSet.HU) != 0) availableOps.add("胡");
+            if ((claims[i] & ActionSet.GANG) != 0) availableOps.add("杠");
+            if ((claims[i] & ActionSet.PENG) != 0) availableOps.add("碰");
+            if ((claims[i] & ActionSet.CHI) != 0) availableOps.add("吃");
+            log.info("玩家 {} 可以：{}", player.getName(), String.join("、", availableOps));
         }
         
         // 设置第一个应该执行操作的玩家（按玩家顺序）
@@ -1028,7 +1007,7 @@ public class GameEngine {
         player.addExposedMeld(meld);
         
         // 从牌堆中移除被吃的牌
-        gameState.getDiscardedTiles().removeIf(t -> t.getId().equals(discardedTile.getId()));
+        gameState.removeDiscardedTile(discardedTile);
         gameState.setLastDiscardedTile(null);
         
         // 设置当前玩家为吃牌的玩家
@@ -1089,7 +1068,7 @@ public class GameEngine {
         player.addExposedMeld(meld);
         
         // 从牌堆中移除被碰的牌
-        gameState.getDiscardedTiles().removeIf(t -> t.getId().equals(discardedTile.getId()));
+        gameState.removeDiscardedTile(discardedTile);
         gameState.setLastDiscardedTile(null);
         
         // 设置当前玩家为碰牌的玩家
@@ -1148,9 +1127,11 @@ public class GameEngine {
         List<Tile> meld = new ArrayList<>(matchingTiles);
         meld.add(discardedTile);
         player.addExposedMeld(meld);
-        
+        // 明杠：海底多留一张
+        gameState.reserveForKong();
+
         // 从牌堆中移除被杠的牌
-        gameState.getDiscardedTiles().removeIf(t -> t.getId().equals(discardedTile.getId()));
+        gameState.removeDiscardedTile(discardedTile);
         gameState.setLastDiscardedTile(null);
         
         // 设置当前玩家为杠牌的玩家
@@ -1171,9 +1152,7 @@ public class GameEngine {
             if (tile != null) {
                 // 记录“杠后进张”的摸牌信息，供前端高亮与抢金等逻辑使用
                 gameState.setLastDrawValidHandCountBefore(
-                    (int) player.getHandTiles().stream()
-                        .filter(t -> t != null && t.getType() != TileType.FLOWER)
-                        .count()
+                    player.getValidTileCount()
                 );
                 gameState.setLastDrawPlayerIndex(player.getPosition());
 
@@ -1229,9 +1208,7 @@ public class GameEngine {
         }
         
         // 检查是否可以暗杠
-        List<Tile> anGangTiles = ActionChecker.canAnGang(player);
-        boolean canAnGang = anGangTiles.stream()
-            .anyMatch(t -> t.isSameAs(tile));
+        boolean canAnGang = player.countOf(tile) == 4;
         
         if (!canAnGang) {
             log.warn("玩家 {} 不能暗杠这张牌", player.getName());
@@ -1278,9 +1255,7 @@ public class GameEngine {
             if (drawnTile != null) {
                 // 记录“暗杠后进张”的摸牌信息，供前端高亮与抢金等逻辑使用
                 gameState.setLastDrawValidHandCountBefore(
-                    (int) player.getHandTiles().stream()
-                        .filter(t -> t != null && t.getType() != TileType.FLOWER)
-                        .count()
+                    player.getValidTileCount()
                 );
                 gameState.setLastDrawPlayerIndex(player.getPosition());
 
@@ -1389,13 +1364,17 @@ public class GameEngine {
             player.addTile(discardedTile);
         }
 
+        // 对完整胡牌牌组只分析一次，胡牌类型与计分都读取同一份结果
+        WinAnalysis analysis = WinAnalysis.analyze(player, gameState.getGoldTile(), isZiMo, isQiangJin,
+            canHuNormal, gameState.getDiscardedTiles().isEmpty());
+
         // 依据当前局面与规则，判定本次胡牌的“牌型类型”标签
-        String winType = determineWinType(player, isZiMo, isQiangJin);
+        String winType = determineWinType(analysis);
         gameState.setLastWinPlayerId(player.getId());
         gameState.setLastWinType(winType);
 
         // 按当前规则进行一局结算（一个人赢三家赔）
-        applyScoring(player, isZiMo, winType);
+        applyScoring(player, analysis, winType);
 
         // 记录最近一次已执行的动作：胡
         gameState.setLastActionPlayerId(player.getId());
@@ -1408,171 +1387,83 @@ public class GameEngine {
     }
 
     /**
-     * 根据当前局面判定胡牌类型（只记录一个最终类型标签）
+     * 根据当前局面判定胡牌类型（包级可见，供 JMH 基准直接调用）
+     * 自摸时按当前手牌重新校验正常牌型胡；实际胡牌时由 playerHu 直接传入已有的分析结果。
+     */
+    String determineWinType(Player player, boolean isZiMo, boolean isQiangJin) {
+        Tile goldTile = gameState.getGoldTile();
+        boolean canHuNormalSelf = isZiMo && ActionChecker.canHu(player, null, goldTile, isQiangJin);
+        return determineWinType(WinAnalysis.analyze(player, goldTile, isZiMo, isQiangJin,
+            canHuNormalSelf, gameState.getDiscardedTiles().isEmpty()));
+    }
+
+    /**
+     * 根据胡牌分析结果判定胡牌类型（只记录一个最终类型标签）
      *
      * 优先级：
      * 清一色 > 混一色 > 金龙 > 金雀 > 三金倒 > 无花无杠 > 天胡 > 抢金 > 花胡 > 一张花 > 自摸 > 胡
      */
-    private String determineWinType(Player player, boolean isZiMo, boolean isQiangJin) {
-        Tile goldTile = gameState.getGoldTile();
-
-        // 统计手牌中金牌数量（包含点炮牌已加入后的完整胡牌牌组）
-        int goldCount = 0;
-        for (Tile t : player.getHandTiles()) {
-            if (goldTile != null && t.isSameAs(goldTile)) {
-                goldCount++;
-            }
-        }
+    private String determineWinType(WinAnalysis analysis) {
+        // 花色统计（用于清一色 / 混一色）：只看参与胡牌的牌（手牌 + 明牌 + 暗杠），
+        // 字牌在福州麻将中也是花，金牌在混一色中被当作"花牌"处理，均不影响花色判断
+        boolean singleSuit = analysis.isSingleSuit();
 
-        // 统计花牌与杠
-        int flowerCount = player.getFlowerTiles() == null ? 0 : player.getFlowerTiles().size();
-        boolean hasKong = false;
-        if (player.getExposedMelds() != null) {
-            for (List<Tile> meld : player.getExposedMelds()) {
-                if (meld != null && meld.size() == 4) {
-                    hasKong = true;
-                    break;
-                }
-            }
-        }
-        if (!hasKong && player.getConcealedKongs() != null && !player.getConcealedKongs().isEmpty()) {
-            hasKong = true;
-        }
-
-        boolean noFlowerNoKong = flowerCount == 0 && !hasKong;
-        boolean oneFlower = flowerCount == 1;
-        boolean isHuaHu = flowerCount >= 20;
-
-        // 自摸场景下，先判断“是否满足正常牌型胡”（不包含花胡等特殊判定）
-        boolean canHuNormalSelf = false;
-        if (isZiMo) {
-            canHuNormalSelf = ActionChecker.canHu(player, null, goldTile, isQiangJin);
-        }
-
-        // 天胡：庄家开局17张、未有任何出牌且直接“正常牌型自摸胡”
-        // 注意：如果只是靠 20 张花牌达成花胡，不应计为天胡。
-        boolean isTianHu = isZiMo
-                && player.isDealer()
-                && gameState.getDiscardedTiles().isEmpty()
-                && canHuNormalSelf;
-
-        // 三金倒：自摸且手上至少三张金（包括庄家起手17张三金）
-        boolean isSanJinDao = isZiMo && goldCount >= 3;
-
-        // 花色统计（用于清一色 / 混一色）
-        // 忽略花牌和字牌（字牌在福州麻将中也是花），只看所有参与胡牌的牌（手牌 + 明牌 + 暗杠）
-        // 注意：统计花色时排除金牌，因为金牌在混一色中被当作"花牌"处理，不应影响花色判断
-        Set<Integer> suitSet = new HashSet<>(); // 0:万,1:条,2:饼
-
-        // 收集所有非花牌（手牌），排除金牌
-        for (Tile t : player.getHandTiles()) {
-            if (t == null || t.getType() == TileType.FLOWER) continue;
-            // 排除金牌：金牌在混一色中被当作"花牌"处理，不应影响花色判断
-            if (goldTile != null && t.isSameAs(goldTile)) continue;
-            int idx = mapSuitIndex(t.getType());
-            if (idx >= 0) {
-                suitSet.add(idx);
-            }
-            // 字牌（WIND/DRAGON）在福州麻将中是花牌，直接跳过
-        }
-        // 明牌，排除金牌
-        if (player.getExposedMelds() != null) {
-            for (List<Tile> meld : player.getExposedMelds()) {
-                if (meld == null) continue;
-                for (Tile t : meld) {
-                    if (t == null || t.getType() == TileType.FLOWER) continue;
-                    // 排除金牌
-                    if (goldTile != null && t.isSameAs(goldTile)) continue;
-                    int idx = mapSuitIndex(t.getType());
-                    if (idx >= 0) {
-                        suitSet.add(idx);
-                    }
-                    // 字牌（WIND/DRAGON）在福州麻将中是花牌，直接跳过
-                }
-            }
-        }
-        // 暗杠，排除金牌
-        if (player.getConcealedKongs() != null) {
-            for (List<Tile> kong : player.getConcealedKongs()) {
-                if (kong == null) continue;
-                for (Tile t : kong) {
-                    if (t == null || t.getType() == TileType.FLOWER) continue;
-                    // 排除金牌
-                    if (goldTile != null && t.isSameAs(goldTile)) continue;
-                    int idx = mapSuitIndex(t.getType());
-                    if (idx >= 0) {
-                        suitSet.add(idx);
-                    }
-                    // 字牌（WIND/DRAGON）在福州麻将中是花牌，直接跳过
-                }
-            }
-        }
-
-        boolean hasSuit = !suitSet.isEmpty();
-        boolean singleSuit = suitSet.size() == 1;
-
-        // 混一色：同一花色 + 字牌，同时包含金牌
-        // 这里按照常见福州麻将习惯进行近似：不追踪金牌是否“代替其他花色”。
         // 混一色：同一花色 + 有金（且金不是该花色）
+        // 这里按照常见福州麻将习惯进行近似：不追踪金牌是否“代替其他花色”。
         // 优先级：清一色 > 混一色 > 金龙 > 金雀
-        if (hasSuit && singleSuit && goldCount > 0 && goldTile != null) {
-            // 检查金的花色：如果金是万/条/饼，则不能是手牌的花色
-            int goldSuitIndex = mapSuitIndex(goldTile.getType());
-            // 如果金是字牌/花牌（goldSuitIndex == -1），或者金的花色与手牌花色不同，则符合混一色条件
-            if (goldSuitIndex < 0 || !suitSet.contains(goldSuitIndex)) {
+        if (singleSuit && analysis.getHandGoldCount() > 0 && gameState.getGoldTile() != null) {
+            // 如果金是字牌/花牌（goldSuit == -1），或者金的花色与手牌花色不同，则符合混一色条件
+            int goldSuit = analysis.getGoldSuit();
+            if (goldSuit < 0 || (analysis.getSuitMask() & (1 << goldSuit)) == 0) {
                 return "混一色";
             }
         }
 
         // 清一色：所有非花牌都在同一花色（且金牌也是该花色，或者没有金牌）
-        if (hasSuit && singleSuit) {
+        if (singleSuit) {
             return "清一色";
         }
 
         // 按照优先级判断：金龙 > 金雀 > 三金倒 > 抢金 > 无花无杠
-        
-        // 先检查金龙：至少3张金，且去掉3张金后剩下的牌能组成胡牌
-        if (goldCount >= 3 && isSanJinDao) {
-            if (canWinWithoutThreeGolds(player, goldTile)) {
-                return "金龙";
-            }
-            // 如果不是金龙，但有3张金且自摸，则是三金倒
-            return "三金倒";
+
+        // 先检查金龙：至少3张金，且去掉3张金后剩下的牌能组成胡牌；
+        // 如果不是金龙，但有3张金且自摸，则是三金倒
+        if (analysis.isSanJinDao()) {
+            return analysis.isJinLong() ? "金龙" : "三金倒";
         }
-        
+
         // 再检查金雀：2张金做对子，金不代替任何牌
-        // 需要验证：去掉两张金后，剩下的牌能组成标准胡牌（不使用金补）
-        if (goldCount == 2 && isJinQue(player, goldTile)) {
+        if (analysis.isJinQue()) {
             return "金雀";
         }
 
         // 抢金：优先级放在三金倒之后、无花无杠之前
-        if (isQiangJin) {
+        if (analysis.isQiangJin()) {
             return "抢金";
         }
 
         // 无花无杠：胡牌时既无花牌也无任何杠
-        if (noFlowerNoKong) {
+        if (analysis.isNoFlowerNoKong()) {
             return "无花无杠";
         }
 
         // 天胡
-        if (isTianHu) {
+        if (analysis.isTianHu()) {
             return "天胡";
         }
 
         // 花胡：补到/抓到花累计达到 20 张
-        if (isHuaHu) {
+        if (analysis.isHuaHu()) {
             return "花胡";
         }
 
         // 一张花：胡牌时刚好只有一张花
-        if (oneFlower) {
+        if (analysis.getFlowerCount() == 1) {
             return "一张花";
         }
 
         // 自摸（非以上特殊牌型）
-        if (isZiMo) {
+        if (analysis.isZiMo()) {
             return "自摸";
         }
 
@@ -1580,203 +1471,6 @@ public class GameEngine {
         return "胡";
     }
 
-    /**
-     * 检查是否是金雀：用两张金做对子，金不代替任何牌
-     * 条件：去掉两张金后，剩下的牌能组成标准胡牌（不使用金补）
-     * 注意：去掉2张金后，剩下的牌应该是15张（3n），能组成5个面子
-     */
-    private boolean isJinQue(Player player, Tile goldTile) {
-        if (player == null || goldTile == null) {
-            return false;
-        }
-        
-        // 复制手牌列表
-        List<Tile> handTiles = new ArrayList<>(player.getHandTiles());
-        
-        // 去掉2张金牌
-        int removed = 0;
-        Iterator<Tile> it = handTiles.iterator();
-        while (it.hasNext() && removed < 2) {
-            Tile tile = it.next();
-            if (tile.isSameAs(goldTile)) {
-                it.remove();
-                removed++;
-            }
-        }
-        
-        // 如果去掉2张金后不是15张，不能是金雀
-        // 过滤掉花牌
-        List<Tile> validTiles = new ArrayList<>();
-        for (Tile tile : handTiles) {
-            if (tile.getType() != com.fzmahjong.model.TileType.FLOWER) {
-                validTiles.add(tile);
-            }
-        }
-        
-        // 如果去掉2张金后不是15张，不能是金雀
-        if (validTiles.size() != 15) {
-            return false;
-        }
-        
-        // 统计牌的数量
-        int[][] counts = new int[5][10]; // 0:万,1:条,2:饼,3:风,4:箭; 点数用1..9
-        for (Tile tile : validTiles) {
-            int typeIndex = mapTypeIndexForWinValidator(tile.getType());
-            int value = tile.getValue();
-            if (value >= 1 && value <= 9 && typeIndex >= 0) {
-                counts[typeIndex][value]++;
-            }
-        }
-        
-        // 检查能否组成5个面子（不使用金补）
-        return canFormFiveMelds(counts);
-    }
-    
-    /**
-     * 检查能否用给定的牌组成5个面子（不使用金补）
-     */
-    private boolean canFormFiveMelds(int[][] counts) {
-        // 使用递归检查能否组成5个面子
-        return canFormFiveMeldsRecursive(counts, 0);
-    }
-    
-    /**
-     * 递归检查能否组成5个面子
-     */
-    private boolean canFormFiveMeldsRecursive(int[][] counts, int meldCount) {
-        // 如果已经组成5个面子，检查是否所有牌都用完了
-        if (meldCount == 5) {
-            for (int i = 0; i < counts.length; i++) {
-                for (int j = 1; j <= 9; j++) {
-                    if (counts[i][j] > 0) {
-                        return false;
-                    }
-                }
-            }
-            return true;
-        }
-        
-        // 找到当前还存在的最小一张牌
-        int type = -1;
-        int value = -1;
-        outer:
-        for (int t = 0; t < counts.length; t++) {
-            for (int v = 1; v <= 9; v++) {
-                if (counts[t][v] > 0) {
-                    type = t;
-                    value = v;
-                    break outer;
-                }
-            }
-        }
-        
-        // 如果没有牌了，但还没组成5个面子，返回false
-        if (type == -1) {
-            return false;
-        }
-        
-        // 尝试一：以 (type, value) 组刻子 AAA
-        if (counts[type][value] >= 3) {
-            counts[type][value] -= 3;
-            if (canFormFiveMeldsRecursive(counts, meldCount + 1)) {
-                counts[type][value] += 3;
-                return true;
-            }
-            counts[type][value] += 3;
-        }
-        
-        // 尝试二：如果是万/条/饼，尝试顺子 ABC
-        if (isShunziTypeForJinQue(type) && value <= 7) {
-            if (counts[type][value] > 0 && counts[type][value + 1] > 0 && counts[type][value + 2] > 0) {
-                counts[type][value]--;
-                counts[type][value + 1]--;
-                counts[type][value + 2]--;
-                if (canFormFiveMeldsRecursive(counts, meldCount + 1)) {
-                    counts[type][value]++;
-                    counts[type][value + 1]++;
-                    counts[type][value + 2]++;
-                    return true;
-                }
-                counts[type][value]++;
-                counts[type][value + 1]++;
-                counts[type][value + 2]++;
-            }
-        }
-        
-        return false;
-    }
-    
-    /**
-     * 将 TileType 映射到内部计数数组的下标（用于WinValidator）
-     */
-    private int mapTypeIndexForWinValidator(com.fzmahjong.model.TileType type) {
-        switch (type) {
-            case WAN:
-                return 0;
-            case TIAO:
-                return 1;
-            case BING:
-                return 2;
-            case WIND:
-                return 3;
-            case DRAGON:
-                return 4;
-            default:
-                return -1;
-        }
-    }
-    
-    /**
-     * 是否是可以组成顺子的花色（万/条/饼）
-     */
-    private boolean isShunziTypeForJinQue(int typeIndex) {
-        return typeIndex == 0 || typeIndex == 1 || typeIndex == 2;
-    }
-
-    /**
-     * 检查去掉3张金后，剩下的牌能否组成胡牌（用于判断是否是金龙）
-     * 金龙的条件：不仅要有三个金，剩下的3n+2手牌也要是胡的才行
-     */
-    private boolean canWinWithoutThreeGolds(Player player, Tile goldTile) {
-        if (player == null || goldTile == null) {
-            return false;
-        }
-        
-        // 复制手牌列表
-        List<Tile> handTiles = new ArrayList<>(player.getHandTiles());
-        
-        // 去掉3张金牌
-        int removed = 0;
-        Iterator<Tile> it = handTiles.iterator();
-        while (it.hasNext() && removed < 3) {
-            Tile tile = it.next();
-            if (tile.isSameAs(goldTile)) {
-                it.remove();
-                removed++;
-            }
-        }
-        
-        // 如果去掉3张金后，剩下的牌能组成胡牌，就是金龙
-        // 注意：这里不传 isQiangJin，因为抢金是另一种胡牌方式
-        return WinValidator.canWin(handTiles, goldTile, false);
-    }
-
-    /**
-     * 将 TileType 映射为“可组成顺子”的花色下标（与 WinValidator 中类似，但用于胡型统计）
-     */
-    private int mapSuitIndex(TileType type) {
-        switch (type) {
-            case WAN:
-                return 0;
-            case TIAO:
-                return 1;
-            case BING:
-                return 2;
-            default:
-                return -1;
-        }
-    }
-
     /**
      * 花胡判定：当前玩家累计补到/持有的花牌数量达到 20 张。
      * 这里按“玩家面前的花牌区”来统计（player.getFlowerTiles），
@@ -1805,62 +1499,23 @@ public class GameEngine {
      * - 这里采用“庄数 = 连庄次数 + 1，最多 3”的近似：连庄 0/1/2+ 分别对应底 1/2/3。
      * - 金牌计数时，不统计花牌区，只统计参与胡牌的牌（手牌 + 明牌 + 暗杠）。
      */
-    private void applyScoring(Player winner, boolean isZiMo, String winType) {
+    private void applyScoring(Player winner, WinAnalysis analysis, String winType) {
         if (winner == null || gameState.getPlayers() == null || gameState.getPlayers().isEmpty()) {
             return;
         }
+        boolean isZiMo = analysis.isZiMo();
 
         // 1. 底分：按连庄次数 + 1 计算，最多 3 分
         int dealerBase = Math.min(gameState.getConsecutiveDealerWins() + 1, 3);
 
         // 2. 花分：玩家面前花牌数量（包括起手和对局中补到的所有花）
-        int flowerCount = winner.getFlowerTiles() == null ? 0 : winner.getFlowerTiles().size();
+        int flowerCount = analysis.getFlowerCount();
 
         // 3. 金分：手牌 + 明牌 + 暗杠中的所有金
-        Tile goldTile = gameState.getGoldTile();
-        int goldCount = 0;
-        if (goldTile != null) {
-            // 手牌
-            for (Tile t : winner.getHandTiles()) {
-                if (t != null && t.isSameAs(goldTile)) {
-                    goldCount++;
-                }
-            }
-            // 明牌
-            if (winner.getExposedMelds() != null) {
-                for (List<Tile> meld : winner.getExposedMelds()) {
-                    if (meld == null) continue;
-                    for (Tile t : meld) {
-                        if (t != null && t.isSameAs(goldTile)) {
-                            goldCount++;
-                        }
-                    }
-                }
-            }
-            // 暗杠
-            if (winner.getConcealedKongs() != null) {
-                for (List<Tile> kong : winner.getConcealedKongs()) {
-                    if (kong == null) continue;
-                    for (Tile t : kong) {
-                        if (t != null && t.isSameAs(goldTile)) {
-                            goldCount++;
-                        }
-                    }
-                }
-            }
-        }
+        int goldCount = analysis.getTotalGoldCount();
 
         // 4. 杠分：明杠每个 1 分，暗杠每个 2 分
-        int mingGangCount = 0;
-        if (winner.getExposedMelds() != null) {
-            for (List<Tile> meld : winner.getExposedMelds()) {
-                if (meld != null && meld.size() == 4) {
-                    mingGangCount++;
-                }
-            }
-        }
-        int anGangCount = winner.getConcealedKongs() == null ? 0 : winner.getConcealedKongs().size();
-        int gangScore = mingGangCount * 1 + anGangCount * 2;
+        int gangScore = analysis.getExposedKongCount() * 1 + analysis.getConcealedKongCount() * 2;
 
         // 5. 特殊牌型分数表
         Map<String, Integer> specialScore = new HashMap<>();
@@ -2014,7 +1669,110 @@ public class GameEngine {
         log.info("控制器触发 startNextHand，开始新的一局");
         startHand();
     }
-    
+
+    /**
+     * 超时托管：替当前被等待的玩家执行一步“最保守”的操作，让牌桌继续推进
+     * - 补花阶段：替轮到的玩家补花
+     * - 等待开金：替庄家开金
+     * - 别人出牌后的胡/杠/碰/吃窗口：过（全部过完后照常进入下一轮摸牌）
+     * - 摸牌后的自摸/暗杠/三金倒窗口：放弃，并打出刚摸到的牌
+     * - 摸牌前的下家暗杠窗口：放弃暗杠，照常摸牌
+     * - 轮到出牌：打出刚摸到的牌（没有或是金牌时打最右边的非金牌）
+     *
+     * @return 是否执行了操作（当前没有在等待任何玩家时返回 false）
+     */
+    public boolean autoAct() {
+        switch (gameState.getPhase()) {
+            case REPLACING_FLOWERS: {
+                Player player = gameState.getPlayers().get(gameState.getCurrentFlowerPlayerIndex());
+                log.info("玩家 {} 补花超时，自动补花", player.getName());
+                return playerReplaceFlowers(player.getId());
+            }
+            case OPENING_GOLD: {
+                Player dealer = gameState.getDealer();
+                if (dealer == null) {
+                    return false;
+                }
+                log.info("庄家 {} 开金超时，自动开金", dealer.getName());
+                return playerOpenGold(dealer.getId());
+            }
+            case PLAYING:
+                break;
+            default:
+                return false;
+        }
+
+        String actionPlayerId = gameState.getCurrentActionPlayerId();
+        if (actionPlayerId == null) {
+            Player current = gameState.getCurrentPlayer();
+            log.info("玩家 {} 出牌超时，自动出牌", current.getName());
+            return autoDiscard(current);
+        }
+
+        Player actor = findPlayerById(actionPlayerId);
+        if (actor == null) {
+            return false;
+        }
+        String actionType = gameState.getCurrentActionType();
+        if ("drawAction".equals(actionType)) {
+            log.info("玩家 {} 摸牌后操作超时，放弃并自动出牌", actor.getName());
+            clearSelfActionWindow(actor);
+            return autoDiscard(actor);
+        }
+        if ("anGang".equals(actionType)) {
+            log.info("玩家 {} 摸牌前暗杠超时，放弃暗杠并摸牌", actor.getName());
+            clearSelfActionWindow(actor);
+            nextTurn();
+            return playerDraw(gameState.getCurrentPlayer().getId());
+        }
+
+        log.info("玩家 {} {} 超时，自动过", actor.getName(), actionType);
+        if (!playerPass(actor.getId())) {
+            return false;
+        }
+        if (gameState.getCurrentActionPlayerId() == null) {
+            handleNextPlayerAfterNoOneCanActionOrAllPassed("超时自动过");
+        }
+        return true;
+    }
+
+    /**
+     * 关闭摸牌前 / 摸牌后的自身操作窗口（暗杠、自摸、三金倒）
+     */
+    private void clearSelfActionWindow(Player player) {
+        gameState.setPlayerActions(player, ActionSet.NONE);
+        gameState.setCurrentActionPlayerId(null);
+        gameState.setCurrentActionType(null);
+    }
+
+    /**
+     * 托管出牌：优先打出刚摸到的牌，否则打最右边的一张非金牌；出牌后无人可操作时直接进入下一轮
+     */
+    private boolean autoDiscard(Player player) {
+        Tile goldTile = gameState.getGoldTile();
+        Tile tile = null;
+        Tile lastDrawn = gameState.getLastDrawnTile();
+        if (lastDrawn != null && gameState.getLastDrawPlayerIndex() == player.getPosition()
+                && (goldTile == null || !lastDrawn.isSameAs(goldTile))
+                && findTileById(player.getHandTiles(), lastDrawn.getId()) != null) {
+            tile = lastDrawn;
+        }
+        List<Tile> hand = player.getHandTiles();
+        for (int i = hand.size() - 1; i >= 0 && tile == null; i--) {
+            if (goldTile == null || !hand.get(i).isSameAs(goldTile)) {
+                tile = hand.get(i);
+            }
+        }
+        if (tile == null || !playerDiscard(player.getId(), tile.getId())) {
+            log.warn("玩家 {} 无法自动出牌", player.getName());
+            return false;
+        }
+        if (gameState.getCurrentActionPlayerId() == null) {
+            handleNextPlayerAfterNoOneCanActionOrAllPassed("自动出牌后无人可操作");
+        }
+        return true;
+    }
+
     /**
      * 玩家过（不进行任何操作）
      * 实现优先级轮转：一个玩家选择"过"后，轮到下一个优先级玩家执行
@@ -2026,7 +1784,7 @@ public class GameEngine {
         }
         
         // 清除该玩家的可用操作
-        gameState.setPlayerActions(player.getId(), new HashMap<>());
+        gameState.setPlayerActions(player, ActionSet.NONE);
         
         log.debug("玩家 {} 选择过", player.getName());
         
@@ -2064,8 +1822,7 @@ public class GameEngine {
                     if (p == null || p.getPosition() == discardPlayerIndex) {
                         continue; // 跳过出牌的玩家
                     }
-                    Map<String, Object> actions = gameState.getPlayerActions(p.getId());
-                    if (!actions.isEmpty() && Boolean.TRUE.equals(actions.get("canHu"))) {
+                    if (gameState.getPlayerActions(p).has(ActionSet.HU)) {
                         canHuPlayers.add(p.getId());
                     }
                 }
@@ -2107,30 +1864,8 @@ public class GameEngine {
                     }
                     
                     Player otherPlayer = gameState.getPlayers().get(playerIndex);
-                    Map<String, Object> actions = gameState.getPlayerActions(otherPlayer.getId());
-                    
-                    if (actions.isEmpty()) {
-                        continue; // 该玩家没有可用操作
-                    }
-                    
                     // 检查该玩家是否可以执行当前优先级的操作
-                    boolean canAction = false;
-                    switch (actionType) {
-                        case "hu":
-                            canAction = Boolean.TRUE.equals(actions.get("canHu"));
-                            break;
-                        case "gang":
-                            canAction = Boolean.TRUE.equals(actions.get("canGang"));
-                            break;
-                        case "peng":
-                            canAction = Boolean.TRUE.equals(actions.get("canPeng"));
-                            break;
-                        case "chi":
-                            canAction = Boolean.TRUE.equals(actions.get("canChi"));
-                            break;
-                    }
-                    
-                    if (canAction) {
+                    if (gameState.getPlayerActions(otherPlayer).has(PRIORITY_FLAGS[actionIdx])) {
                         // 找到下一个可以执行操作的玩家
                         gameState.setCurrentActionPlayerId(otherPlayer.getId());
                         gameState.setCurrentActionType(actionType);
@@ -2246,8 +1981,7 @@ public class GameEngine {
             if (p == null || p.getPosition() == discardPlayerIndex) {
                 continue; // 跳过出牌的玩家
             }
-            Map<String, Object> actions = gameState.getPlayerActions(p.getId());
-            if (!actions.isEmpty() && Boolean.TRUE.equals(actions.get("canHu"))) {
+            if (gameState.getPlayerActions(p).has(ActionSet.HU)) {
                 canHuPlayers.add(p.getId());
             }
         }
@@ -2263,6 +1997,13 @@ public class GameEngine {
         return !sortedHuPlayers.isEmpty() && sortedHuPlayers.get(0).equals(playerId);
     }
     
+    /**
+     * 本房间的预计算结果（SpeculationService 的后台线程写入）
+     */
+    public SpeculativeResults getSpeculativeResults() {
+        return speculative;
+    }
+
     public GameState getGameState() {
         return gameState;
     }
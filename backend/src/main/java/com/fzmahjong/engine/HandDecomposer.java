@@ -0,0 +1,478 @@
+package com.fzmahjong.engine;
+
+import java.util.Arrays;
+
+/**
+ * 手牌拆法枚举器：一次搜索列出一手牌所有合法的（将, 面子, 金的用法）拆法
+ *
+ * WinValidator 只回答“能不能胡”，找到第一种拆法就返回；金雀、金龙这类牌型却要求某种特定的拆法存在
+ * （两张金恰好做将、三张金单独成一副面子），以前只能带着不同的约束重新搜一遍。
+ * 这里把每种拆法都列出来，牌型判定和将来的计分变体直接在结果里挑选，不必再次搜索。
+ *
+ * 金一律当作万能牌（与 WinValidator 相同，金牌本身不作为普通牌参与拆分），每副面子 / 将都记录哪几个位置由金补。
+ * 搜索规则：
+ * - 总是处理当前最小的一张普通牌，为它选择所在的一组（将 / 刻子 / 三种顺子形态，缺的位置用金补）；
+ *   同一牌种连续选择时组别编号不递减，因此同一拆法只会出现一次
+ * - 普通牌用完后，剩余的金只能组成“金将”或“三金面子”
+ * - 剪枝：每一步都用 SuitMeldTable 查“剩余的牌和金能否拆完”，走不通的分支直接跳过，搜索量与拆法数同阶
+ * - 结果最多保存 limit 种（超出时 {@link Result#isTruncated()} 为 true），
+ *   但 {@link Result#hasGoldPair()} / {@link Result#hasGoldMeld()} 两个汇总标志总是覆盖全部拆法
+ *
+ * 拆法编码为一个 long（见 {@link #pair} / {@link #meld} / {@link #meldCount}），每组 10 位：
+ * 牌种 6 位（刻子 / 将为该牌种，顺子为首张牌种，全部由金组成时为 {@link #ALL_GOLD}）、顺子标志 1 位、金位置 3 位。
+ */
+public final class HandDecomposer {
+
+    /** 默认最多保存的拆法数 */
+    public static final int DEFAULT_LIMIT = 256;
+
+    /** 全部由金组成的将 / 面子的牌种 */
+    public static final int ALL_GOLD = 63;
+
+    /** 暗牌最多 17 张：1 将 + 5 副面子 */
+    private static final int MAX_TILES = 17;
+    private static final int MAX_MELDS = 5;
+
+    private static final int GROUP_BITS = 10;
+    private static final int GROUP_MASK = (1 << GROUP_BITS) - 1;
+    private static final int KIND_MASK = 63;
+    private static final int SEQUENCE_BIT = 1 << 6;
+    private static final int GOLD_SHIFT = 7;
+    private static final int COUNT_SHIFT = GROUP_BITS * (MAX_MELDS + 1);
+
+    /** 万条饼的牌种数（只有这三门可以组顺子） */
+    private static final int SUIT_KINDS = 27;
+
+    /** 当前最小牌所在一组的选法编号（同一牌种连续选择时不递减） */
+    private static final int OPT_PAIR = 0;
+    private static final int OPT_PAIR_GOLD = 1;
+    private static final int OPT_TRIPLET = 2;           // 2..4：真实牌 3 / 2 / 1 张，其余用金补
+    private static final int OPT_SEQUENCE = 5;          // 5..16：首张偏移(0..2) × 4 + 另外两个位置是否用金
+
+    private static final Result EMPTY = new Result(new long[0], 0, false, false, false);
+
+    private HandDecomposer() {
+    }
+
+    /**
+     * 按默认上限枚举拆法
+     *
+     * @param kindCounts 手牌按牌种的计数（下标见 {@link com.fzmahjong.model.Tile#getKind()}，花牌不参与）
+     * @param goldKind   金牌牌种，未开金时为 -1
+     */
+    public static Result decompose(int[] kindCounts, int goldKind) {
+        return decompose(kindCounts, goldKind, DEFAULT_LIMIT);
+    }
+
+    /**
+     * 枚举手牌的全部拆法，最多保存 limit 种
+     */
+    public static Result decompose(int[] kindCounts, int goldKind, int limit) {
+        int[] counts = new int[WinValidator.KIND_COUNT];
+        int golds = 0;
+        int total = 0;
+        for (int kind = 0; kind < counts.length; kind++) {
+            if (kind == goldKind) {
+                golds = kindCounts[kind];
+            } else {
+                counts[kind] = kindCounts[kind];
+            }
+            total += kindCounts[kind];
+        }
+        if (total < 2 || total > MAX_TILES || total % 3 != 2) {
+            return EMPTY;
+        }
+        Search search = new Search(counts, golds, Math.max(0, limit));
+        if (!search.feasible(0, golds, false)) {
+            return EMPTY;
+        }
+        search.run(0, OPT_PAIR, golds, false);
+        return search.result();
+    }
+
+    // === 拆法解码 ===
+
+    /**
+     * 拆法中的将
+     */
+    public static int pair(long partition) {
+        return (int) (partition & GROUP_MASK);
+    }
+
+    /**
+     * 拆法中的面子数
+     */
+    public static int meldCount(long partition) {
+        return (int) (partition >>> COUNT_SHIFT);
+    }
+
+    /**
+     * 拆法中的第 i 副面子
+     */
+    public static int meld(long partition, int i) {
+        return (int) ((partition >>> (GROUP_BITS * (i + 1))) & GROUP_MASK);
+    }
+
+    /**
+     * 一组（将 / 面子）的牌种：刻子 / 将为该牌种，顺子为首张牌种，全部由金组成时为 {@link #ALL_GOLD}
+     */
+    public static int groupKind(int group) {
+        return group & KIND_MASK;
+    }
+
+    public static boolean isSequence(int group) {
+        return (group & SEQUENCE_BIT) != 0;
+    }
+
+    /**
+     * 一组中由金补的位置（bit i 表示第 i 张是金）
+     */
+    public static int goldMask(int group) {
+        return group >>> GOLD_SHIFT;
+    }
+
+    /**
+     * 一组中用掉的金数
+     */
+    public static int goldCount(int group) {
+        return Integer.bitCount(goldMask(group));
+    }
+
+    private static int group(int kind, boolean sequence, int goldMask) {
+        return kind | (sequence ? SEQUENCE_BIT : 0) | (goldMask << GOLD_SHIFT);
+    }
+
+    /**
+     * 刻子 / 将中由金补的位置：真实牌在前，金在后
+     */
+    private static int tailGolds(int size, int golds) {
+        return ((1 << golds) - 1) << (size - golds);
+    }
+
+    /**
+     * 一次枚举的搜索状态
+     */
+    private static final class Search {
+        private final int[] counts;
+        private final int limit;
+        private long[] found;
+        private int size;
+        private boolean truncated;
+        private boolean goldPair;
+        private boolean goldMeld;
+
+        /** 当前路径：将与各副面子 */
+        private int pair = -1;
+        private final int[] melds = new int[MAX_MELDS];
+        private int meldTop;
+
+        /** 剪枝用：第 type 门之后各门原样不动时，“全拆面子 / 面子 + 1 将”的金数集合；查表不可用时为 null */
+        private final int[] restMeld;
+        private final int[] restPair;
+        private final int[] row = new int[10];
+
+        Search(int[] counts, int golds, int limit) {
+            this.counts = counts;
+            this.limit = limit;
+            this.found = new long[Math.min(limit, 64)];
+            int[][] suffix = golds <= SuitMeldTable.MAX_GOLD ? suffixMasks() : null;
+            this.restMeld = suffix == null ? null : suffix[0];
+            this.restPair = suffix == null ? null : suffix[1];
+        }
+
+        Result result() {
+            return new Result(Arrays.copyOf(found, size), size, truncated, goldPair, goldMeld);
+        }
+
+        /**
+         * 从牌种 from 开始找当前最小的一张普通牌，为它选择所在的一组
+         *
+         * @param minOption 当前最小牌与上一组同种时，本组选法编号的下限
+         */
+        void run(int from, int minOption, int golds, boolean pairUsed) {
+            int k = from;
+            while (k < counts.length && counts[k] == 0) {
+                k++;
+            }
+            if (k != from) {
+                minOption = OPT_PAIR;
+            }
+            if (k == counts.length) {
+                finishWithGolds(golds, pairUsed);
+                return;
+            }
+
+            int c = counts[k];
+            if (!pairUsed) {
+                if (minOption <= OPT_PAIR && c >= 2) {
+                    counts[k] -= 2;
+                    step(k, OPT_PAIR, group(k, false, 0), true, golds, true);
+                    counts[k] += 2;
+                }
+                if (minOption <= OPT_PAIR_GOLD && golds >= 1) {
+                    counts[k] -= 1;
+                    step(k, OPT_PAIR_GOLD, group(k, false, tailGolds(2, 1)), true, golds - 1, true);
+                    counts[k] += 1;
+                }
+            }
+            for (int real = 3; real >= 1; real--) {
+                int option = OPT_TRIPLET + 3 - real;
+                int need = 3 - real;
+                if (option < minOption || c < real || golds < need) {
+                    continue;
+                }
+                counts[k] -= real;
+                step(k, option, group(k, false, tailGolds(3, need)), false, golds - need, pairUsed);
+                counts[k] += real;
+            }
+            if (k < SUIT_KINDS) {
+                sequences(k, minOption, golds, pairUsed);
+            }
+        }
+
+        /**
+         * 包含最小牌 k 的三种顺子形态；比 k 小的位置只能用金，比 k 大的位置可用真实牌或金
+         */
+        private void sequences(int k, int minOption, int golds, boolean pairUsed) {
+            int value = k % 9;
+            for (int offset = 0; offset < 3; offset++) {
+                int start = k - offset;
+                if (value - offset < 0 || value - offset > 6) {
+                    continue;
+                }
+                for (int choice = 0; choice < 4; choice++) {
+                    int option = OPT_SEQUENCE + offset * 4 + choice;
+                    if (option < minOption) {
+                        continue;
+                    }
+                    // 顺子中除 k 以外的两个位置，choice 的 bit0 / bit1 依次表示该位置用金
+                    int mask = 0;
+                    int need = 0;
+                    boolean ok = true;
+                    int other = 0;
+                    for (int pos = 0; pos < 3 && ok; pos++) {
+                        int kind = start + pos;
+                        if (kind == k) {
+                            continue;
+                        }
+                        boolean gold = (choice & (1 << other)) != 0;
+                        other++;
+                        if (gold) {
+                            mask |= 1 << pos;
+                            need++;
+                        } else if (kind < k || counts[kind] == 0) {
+                            ok = false;
+                        }
+                    }
+                    if (!ok || need > golds) {
+                        continue;
+                    }
+                    takeSequence(start, mask, -1);
+                    step(k, option, group(start, true, mask), false, golds - need, pairUsed);
+                    takeSequence(start, mask, 1);
+                }
+            }
+        }
+
+        /**
+         * 记下选好的一组，剪枝后继续处理下一张最小牌
+         */
+        private void step(int k, int option, int group, boolean isPair, int golds, boolean pairUsed) {
+            if (!feasible(k, golds, pairUsed)) {
+                return;
+            }
+            if (isPair) {
+                pair = group;
+            } else {
+                melds[meldTop++] = group;
+            }
+            run(k, option, golds, pairUsed);
+            if (isPair) {
+                pair = -1;
+            } else {
+                meldTop--;
+            }
+        }
+
+        /**
+         * 普通牌已用完：剩余的金组成金将（若还没有将）和若干副三金面子
+         */
+        private void finishWithGolds(int golds, boolean pairUsed) {
+            int rest = pairUsed ? golds : golds - 2;
+            if (rest < 0 || rest % 3 != 0) {
+                return;
+            }
+            if (!pairUsed) {
+                pair = group(ALL_GOLD, false, tailGolds(2, 2));
+            }
+            int top = meldTop;
+            for (; rest > 0; rest -= 3) {
+                melds[meldTop++] = group(ALL_GOLD, false, tailGolds(3, 3));
+            }
+            record();
+            meldTop = top;
+            if (!pairUsed) {
+                pair = -1;
+            }
+        }
+
+        private void record() {
+            if (groupKind(pair) == ALL_GOLD) {
+                goldPair = true;
+            }
+            long partition = pair;
+            for (int i = 0; i < meldTop; i++) {
+                if (groupKind(melds[i]) == ALL_GOLD) {
+                    goldMeld = true;
+                }
+                partition |= (long) melds[i] << (GROUP_BITS * (i + 1));
+            }
+            partition |= (long) meldTop << COUNT_SHIFT;
+            if (size == limit) {
+                truncated = true;
+                return;
+            }
+            if (size == found.length) {
+                found = Arrays.copyOf(found, Math.min(limit, found.length * 2));
+            }
+            found[size++] = partition;
+        }
+
+        /**
+         * 顺子中不由金补的位置各增减一张（delta 为 -1 / +1）
+         */
+        private void takeSequence(int start, int goldMask, int delta) {
+            for (int pos = 0; pos < 3; pos++) {
+                if ((goldMask & (1 << pos)) == 0) {
+                    counts[start + pos] += delta;
+                }
+            }
+        }
+
+        /**
+         * 剩余的牌（牌种 from 所在的一门及之后各门）加上 golds 张金能否拆完
+         */
+        boolean feasible(int from, int golds, boolean pairUsed) {
+            if (restMeld == null) {
+                return true;
+            }
+            int type = WinValidator.kindType(Math.min(from, counts.length - 1));
+            SuitMeldTable table = type < 3 ? SuitMeldTable.NUMBER : SuitMeldTable.HONOR;
+            int key = table.key(row(type));
+            if (key < 0) {
+                return true;
+            }
+            int meld = table.meldMask(key);
+            // 查表只含普通牌参与的面子，多出的金还可以三张一组单独成面子
+            int goldBits = 0;
+            for (int g = golds; g >= 0; g -= 3) {
+                goldBits |= 1 << g;
+            }
+            if (pairUsed) {
+                return (SuitMeldTable.add(meld, restMeld[type]) & goldBits) != 0;
+            }
+            int pairMask = table.pairMask(key);
+            if (golds >= 2 && (SuitMeldTable.add(meld, restMeld[type]) & (goldBits >>> 2)) != 0) {
+                return true;
+            }
+            return ((SuitMeldTable.add(pairMask, restMeld[type]) | SuitMeldTable.add(meld, restPair[type])) & goldBits) != 0;
+        }
+
+        /**
+         * 第 type 门当前的计数（下标 1..9）
+         */
+        private int[] row(int type) {
+            Arrays.fill(row, 0);
+            int first = type < 3 ? type * 9 : (type == 3 ? 27 : 31);
+            int last = type < 3 ? first + 9 : (type == 3 ? 31 : 34);
+            for (int kind = first; kind < last; kind++) {
+                row[kind - first + 1] = counts[kind];
+            }
+            return row;
+        }
+
+        /**
+         * 各门之后（不含本门）其余各门的金数集合：[0] 全拆面子，[1] 面子 + 1 将；任一门超出查表范围时返回 null
+         */
+        private int[][] suffixMasks() {
+            int types = 5;
+            int[] meld = new int[types + 1];
+            int[] pairs = new int[types + 1];
+            meld[types] = 1;
+            pairs[types] = 0;
+            for (int type = types - 1; type >= 0; type--) {
+                SuitMeldTable table = type < 3 ? SuitMeldTable.NUMBER : SuitMeldTable.HONOR;
+                int key = table.key(row(type));
+                if (key < 0) {
+                    return null;
+                }
+                pairs[type] = SuitMeldTable.add(table.meldMask(key), pairs[type + 1])
+                        | SuitMeldTable.add(table.pairMask(key), meld[type + 1]);
+                meld[type] = SuitMeldTable.add(table.meldMask(key), meld[type + 1]);
+            }
+            // rest*[type] 表示 type 之后各门
+            return new int[][]{Arrays.copyOfRange(meld, 1, types + 1), Arrays.copyOfRange(pairs, 1, types + 1)};
+        }
+    }
+
+    /**
+     * 一手牌的拆法枚举结果（不可变）
+     */
+    public static final class Result {
+        private final long[] partitions;
+        private final int size;
+        private final boolean truncated;
+        private final boolean goldPair;
+        private final boolean goldMeld;
+
+        private Result(long[] partitions, int size, boolean truncated, boolean goldPair, boolean goldMeld) {
+            this.partitions = partitions;
+            this.size = size;
+            this.truncated = truncated;
+            this.goldPair = goldPair;
+            this.goldMeld = goldMeld;
+        }
+
+        /**
+         * 保存下来的拆法数
+         */
+        public int size() {
+            return size;
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * 第 i 种拆法（用 HandDecomposer 的静态方法解码）
+         */
+        public long get(int i) {
+            if (i < 0 || i >= size) {
+                throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+            }
+            return partitions[i];
+        }
+
+        /**
+         * 拆法超过上限，只保存了前 limit 种
+         */
+        public boolean isTruncated() {
+            return truncated;
+        }
+
+        /**
+         * 存在用两张金做将的拆法（覆盖全部拆法，不受上限影响）
+         */
+        public boolean hasGoldPair() {
+            return goldPair;
+        }
+
+        /**
+         * 存在三张金单独组成一副面子的拆法（覆盖全部拆法，不受上限影响）
+         */
+        public boolean hasGoldMeld() {
+            return goldMeld;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.fzmahjong.engine;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 胡牌 / 听牌结果的进程级共享缓存（所有房间共用）
+ *
+ * - key：手牌的规范签名（各门 SuitMeldTable key + 金数 + 金的牌种 + 查询类型），与具体牌 id 无关，
+ *   不同房间里“同样的计数向量”会命中同一条记录
+ * - 结构：定长、直接映射的 AtomicLongArray，每个槽位 4 个 long（版本号、签名低位、签名高位、结果），
+ *   读写都不分配对象；槽位冲突时新值直接覆盖旧值（记一次淘汰）
+ * - 并发：每个槽位是一个顺序锁，写入方把版本号 CAS 成奇数后写入、再改回偶数，CAS 失败（别的线程正在写）就放弃这次写入；
+ *   读方前后两次读到同一个偶数版本号才算读到完整的条目，不加锁，多个 STOMP 入站线程之间不会互相阻塞
+ * - 容量：JVM 参数 -Dfzmahjong.hand-cache.capacity（向上取 2 的幂，默认 0 即关闭，
+ *   先看 /api/stats/hand-cache 的命中率确有收益再打开）
+ */
+public final class HandEvalCache {
+
+    /** 查询类型：canWin 的结果（0/1） */
+    static final int OP_WIN = 0;
+
+    /** 查询类型：getWinningKinds 的结果（牌种位图） */
+    static final int OP_TING = 1;
+
+    /** 未命中 */
+    static final long MISS = -1L;
+
+    private static final int DEFAULT_CAPACITY = 0;
+
+    /** 每个槽位占用的 long 个数：版本号、签名低位、签名高位、结果 */
+    private static final int STRIDE = 4;
+
+    private static final AtomicLongArray SLOTS = createSlots();
+    private static final int SHIFT = SLOTS == null ? 0 : 64 - Integer.numberOfTrailingZeros(SLOTS.length() / STRIDE);
+
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+    private static final LongAdder EVICTIONS = new LongAdder();
+
+    private HandEvalCache() {
+    }
+
+    /**
+     * 缓存是否打开（关闭时调用方不必计算签名）
+     */
+    static boolean isEnabled() {
+        return SLOTS != null;
+    }
+
+    /**
+     * 手牌签名：低 64 位放万/条/饼三门的 key（每门 < 5^9，占 21 位）
+     *
+     * @return 任一门超出查表范围时返回 -1，调用方不走缓存
+     */
+    static long signatureLow(int[][] counts) {
+        long low = 0L;
+        for (int type = 0; type < 3; type++) {
+            int key = SuitMeldTable.NUMBER.key(counts[type]);
+            if (key < 0) {
+                return -1L;
+            }
+            low |= (long) key << (21 * type);
+        }
+        return low;
+    }
+
+    /**
+     * 手牌签名：高位放风（10 位）、箭（7 位）、金数（4 位）、金的牌种（6 位）和查询类型
+     *
+     * @return 无法编码（字牌超出查表范围或金数过多）时返回 -1，调用方不走缓存
+     */
+    static long signatureHigh(int[][] counts, int goldCount, int goldKind, int op) {
+        if (goldCount < 0 || goldCount > 15) {
+            return -1L;
+        }
+        int wind = SuitMeldTable.HONOR.key(counts[3]);
+        int dragon = SuitMeldTable.HONOR.key(counts[4]);
+        if (wind < 0 || dragon < 0) {
+            return -1L;
+        }
+        return wind | ((long) dragon << 10) | ((long) goldCount << 17)
+                | ((long) (goldKind + 1) << 21) | ((long) op << 27);
+    }
+
+    /**
+     * 查缓存；未命中返回 {@link #MISS}
+     */
+    static long get(long low, long high) {
+        if (SLOTS == null) {
+            return MISS;
+        }
+        int base = slot(low, high);
+        long stamp = SLOTS.get(base);
+        if ((stamp & 1L) == 0 && stamp != 0
+                && SLOTS.get(base + 1) == low && SLOTS.get(base + 2) == high) {
+            long value = SLOTS.get(base + 3);
+            if (SLOTS.get(base) == stamp) {
+                HITS.increment();
+                return value;
+            }
+        }
+        MISSES.increment();
+        return MISS;
+    }
+
+    /**
+     * 写缓存；槽位已有其他手牌时直接覆盖，别的线程正在写同一槽位时放弃
+     */
+    static void put(long low, long high, long value) {
+        if (SLOTS == null) {
+            return;
+        }
+        int base = slot(low, high);
+        long stamp = SLOTS.get(base);
+        if ((stamp & 1L) != 0 || !SLOTS.compareAndSet(base, stamp, stamp + 1)) {
+            return;
+        }
+        if (stamp != 0 && (SLOTS.get(base + 1) != low || SLOTS.get(base + 2) != high)) {
+            EVICTIONS.increment();
+        }
+        SLOTS.set(base + 1, low);
+        SLOTS.set(base + 2, high);
+        SLOTS.set(base + 3, value);
+        SLOTS.set(base, stamp + 2);
+    }
+
+    /**
+     * 命中 / 未命中 / 淘汰计数，以及当前容量
+     */
+    public static Map<String, Long> stats() {
+        long hits = HITS.sum();
+        long misses = MISSES.sum();
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("capacity", SLOTS == null ? 0L : SLOTS.length() / STRIDE);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("evictions", EVICTIONS.sum());
+        stats.put("hitRatePermille", hits + misses == 0 ? 0L : hits * 1000 / (hits + misses));
+        return stats;
+    }
+
+    /**
+     * 槽位在数组中的起始下标
+     */
+    private static int slot(long low, long high) {
+        long h = (low ^ Long.rotateLeft(high, 32)) * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> SHIFT) * STRIDE;
+    }
+
+    private static AtomicLongArray createSlots() {
+        int capacity = Integer.getInteger("fzmahjong.hand-cache.capacity", DEFAULT_CAPACITY);
+        if (capacity <= 0) {
+            return null;
+        }
+        int size = Integer.highestOneBit(Math.min(capacity, 1 << 26));
+        if (size < capacity) {
+            size <<= 1;
+        }
+        return new AtomicLongArray(Math.max(size, 2) * STRIDE);
+    }
+}
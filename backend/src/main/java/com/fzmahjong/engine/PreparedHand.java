@@ -0,0 +1,100 @@
+package com.fzmahjong.engine;
+
+import com.fzmahjong.model.Tile;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 预先洗好、发好的一局牌
+ *
+ * 单局结束后的停留期间，下一局的庄家和洗牌种子都已确定，
+ * 洗牌、按轮次发牌、理牌这些与房间状态无关的工作可以提前在后台线程完成；
+ * 真正开局时 GameEngine 只需把牌墙余牌和四家起手牌换入。
+ * 这里是发牌顺序的唯一实现：开局现场发牌（GameEngine#dealNewHand）也走这里，同一种子预发的牌与现场发的牌相同。
+ * 构造完成后只读，交给房间线程后由其独占使用。
+ */
+public final class PreparedHand {
+
+    private static final int SEATS = 4;
+    /** 每轮每人摸的张数、轮数（庄家最后再多摸一张） */
+    private static final int TILES_PER_ROUND = 4;
+    private static final int ROUNDS = 4;
+
+    private final Long seed;
+    private final int dealerIndex;
+    private final List<List<Tile>> hands;
+    private final List<Tile> wall;
+
+    private PreparedHand(Long seed, int dealerIndex, List<List<Tile>> hands, List<Tile> wall) {
+        this.seed = seed;
+        this.dealerIndex = dealerIndex;
+        this.hands = hands;
+        this.wall = wall;
+    }
+
+    /**
+     * 按种子洗牌并给四家发好起手牌（不访问任何房间状态，可在任意线程调用）
+     */
+    public static PreparedHand deal(long seed, int dealerIndex) {
+        return deal(TileFactory.createWall(seed), seed, dealerIndex);
+    }
+
+    /**
+     * 按给定牌序（如第一局的预设牌墙，无种子）给四家发好起手牌
+     */
+    public static PreparedHand deal(List<Tile> tiles, int dealerIndex) {
+        return deal(tiles, null, dealerIndex);
+    }
+
+    /**
+     * 从牌头按轮次发牌：四轮，从庄家开始每人每轮 4 张，庄家最后再多摸一张；发完按牌种理牌
+     */
+    private static PreparedHand deal(List<Tile> tiles, Long seed, int dealerIndex) {
+        List<List<Tile>> hands = new ArrayList<>(SEATS);
+        for (int seat = 0; seat < SEATS; seat++) {
+            hands.add(new ArrayList<>(ROUNDS * TILES_PER_ROUND + 1));
+        }
+        int head = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int i = 0; i < SEATS; i++) {
+                List<Tile> hand = hands.get((dealerIndex + i) % SEATS);
+                for (int j = 0; j < TILES_PER_ROUND; j++) {
+                    hand.add(tiles.get(head++));
+                }
+            }
+        }
+        hands.get(dealerIndex).add(tiles.get(head++));
+        // 与 Player#sortHand(null) 相同：按牌种下标稳定排序
+        for (List<Tile> hand : hands) {
+            hand.sort(Comparator.comparingInt(Tile::getKind));
+        }
+        return new PreparedHand(seed, dealerIndex, hands, new ArrayList<>(tiles.subList(head, tiles.size())));
+    }
+
+    /**
+     * 洗牌种子（预设牌墙为 null）
+     */
+    public Long getSeed() {
+        return seed;
+    }
+
+    public int getDealerIndex() {
+        return dealerIndex;
+    }
+
+    /**
+     * 某个座位的起手牌（已理好）
+     */
+    public List<Tile> getHand(int seat) {
+        return hands.get(seat);
+    }
+
+    /**
+     * 发牌后牌墙剩余的牌（索引 0 为牌头）
+     */
+    public List<Tile> getWall() {
+        return wall;
+    }
+}
@@ -0,0 +1,295 @@
+package com.fzmahjong.engine;
+
+import com.fzmahjong.model.Player;
+import com.fzmahjong.model.Tile;
+import com.fzmahjong.model.TileType;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 向听数计算器（福州麻将 16/17 张体系，金牌为万能牌）
+ *
+ * 向听数定义：距离听牌还差几张有效进张。
+ * - -1：已经和牌（3n+2 张时）
+ * -  0：听牌
+ * -  k：再进 k 张有效牌才能听牌
+ *
+ * 算法：
+ * - 需要的面子数 m = 5 - 明牌副数 - 暗杠副数；目标牌型为 m 副面子 + 1 对将，共 3m+2 张
+ * - 每门普通牌（金除外）单独 DFS，拆出面子（AAA/ABC）、搭子（AA/AB/AC）和至多 1 对将，
+ *   记录“每种面子数下最多能拆出的搭子数”；各门之间面子互不跨门，按面子数做 max-plus 合并
+ * - 对每种 (面子 M, 搭子 T, 将 P) 组合，计算已经“就位”的普通牌张数 U：
+ *   U = 3M + 2T + 2P + 剩余孤张中能充当空位种子的张数
+ *   金可以填任意空位，因此向听数 = (3m+2) - U - 金数 - 1
+ * - 3m+2 张时的 -1 以 WinValidator 的结论为准（包括三头金），保证与胡牌判断一致
+ * - 向听数只看牌型：“再摸几张金凑成三头金”是另一条路线，由 {@link #sanJinDistance} 单独给出，
+ *   需要时调用方自行取两者的较小值
+ * - 不考虑牌墙里还剩几张：需要的牌即使已经四张都见过也照常计入
+ */
+public class ShantenCalculator {
+
+    /** 一局需要的面子数（5 副面子 + 1 对将） */
+    private static final int FULL_MELDS = 5;
+
+    /** 不可打出（手中没有该牌种）时的占位值 */
+    public static final int NOT_IN_HAND = Integer.MAX_VALUE;
+
+    private static final int NONE = -1;
+
+    /**
+     * 计算玩家当前暗牌的向听数（花牌不参与；明牌与暗杠按已完成的面子计）
+     */
+    public static int calculate(Player player, Tile goldTile) {
+        int[][] counts = new int[5][10];
+        int goldCount = countHand(player.getHandTiles(), goldTile, counts);
+        return calculate(counts, goldCount, meldsNeeded(player));
+    }
+
+    /**
+     * 距离三头金还差几张金（未开金时为 {@link #NOT_IN_HAND}）
+     */
+    public static int sanJinDistance(Player player, Tile goldTile) {
+        if (goldTile == null) {
+            return NOT_IN_HAND;
+        }
+        int goldCount = 0;
+        for (Tile tile : player.getHandTiles()) {
+            if (tile != null && tile.isSameAs(goldTile)) {
+                goldCount++;
+            }
+        }
+        return Math.max(0, 3 - goldCount);
+    }
+
+    /**
+     * 摸牌后（3n+2 张）逐一尝试打出每种手牌，返回打出后的向听数。
+     *
+     * @return 按牌种下标（见 {@link WinValidator#kindTile(int)}）索引的数组，
+     *         手中没有的牌种为 {@link #NOT_IN_HAND}；打出金牌对应金牌本身的牌种下标
+     */
+    public static int[] calculateForDiscards(Player player, Tile goldTile) {
+        int[][] counts = new int[5][10];
+        int goldCount = countHand(player.getHandTiles(), goldTile, counts);
+        int melds = meldsNeeded(player);
+
+        int[] result = new int[WinValidator.KIND_COUNT];
+        Arrays.fill(result, NOT_IN_HAND);
+
+        // 打出某张牌只会改变所在那一门，其余各门的拆分结果可以复用
+        int[][][] suits = new int[counts.length][][];
+        for (int type = 0; type < counts.length; type++) {
+            suits[type] = analyzeSuit(counts[type], WinValidator.isShunziType(type));
+        }
+
+        for (int type = 0; type < counts.length; type++) {
+            int[][] original = suits[type];
+            for (int value = 1; value <= 9; value++) {
+                if (counts[type][value] == 0) {
+                    continue;
+                }
+                counts[type][value]--;
+                suits[type] = analyzeSuit(counts[type], WinValidator.isShunziType(type));
+                result[WinValidator.kindIndex(type, value)] = evaluate(counts, suits, goldCount, melds);
+                counts[type][value]++;
+            }
+            suits[type] = original;
+        }
+
+        if (goldCount > 0 && goldTile != null) {
+            int goldKind = WinValidator.kindIndex(goldTile.getType(), goldTile.getValue());
+            if (goldKind >= 0) {
+                result[goldKind] = evaluate(counts, suits, goldCount - 1, melds);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 计数版入口
+     *
+     * @param counts      非金普通牌计数 [0:万,1:条,2:饼,3:风,4:箭][点数 1..9]
+     * @param goldCount   金牌张数
+     * @param meldsNeeded 还需要在暗牌中组成的面子数
+     */
+    public static int calculate(int[][] counts, int goldCount, int meldsNeeded) {
+        int[][][] suits = new int[counts.length][][];
+        for (int type = 0; type < counts.length; type++) {
+            suits[type] = analyzeSuit(counts[type], WinValidator.isShunziType(type));
+        }
+        return evaluate(counts, suits, goldCount, meldsNeeded);
+    }
+
+    // === 内部实现 ===
+
+    private static int meldsNeeded(Player player) {
+        int declared = 0;
+        if (player.getExposedMelds() != null) {
+            declared += player.getExposedMelds().size();
+        }
+        if (player.getConcealedKongs() != null) {
+            declared += player.getConcealedKongs().size();
+        }
+        return Math.max(0, FULL_MELDS - declared);
+    }
+
+    /**
+     * 统计非金普通牌到 counts，返回金牌张数（花牌忽略）
+     */
+    private static int countHand(List<Tile> handTiles, Tile goldTile, int[][] counts) {
+        int goldCount = 0;
+        for (Tile tile : handTiles) {
+            if (tile == null || tile.getType() == TileType.FLOWER) {
+                continue;
+            }
+            if (goldTile != null && tile.isSameAs(goldTile)) {
+                goldCount++;
+                continue;
+            }
+            int typeIndex = WinValidator.mapTypeIndex(tile.getType());
+            int value = tile.getValue();
+            if (typeIndex >= 0 && value >= 1 && value <= 9) {
+                counts[typeIndex][value]++;
+            }
+        }
+        return goldCount;
+    }
+
+    /**
+     * 合并各门的拆分结果并给出向听数
+     */
+    private static int evaluate(int[][] counts, int[][][] suits, int goldCount, int melds) {
+        int tiles = goldCount;
+        for (int[] row : counts) {
+            for (int v = 1; v <= 9; v++) {
+                tiles += row[v];
+            }
+        }
+        int target = 3 * melds + 2;
+
+        // 三头金：3m+2 张时直接和牌，3m+1 张时进任意牌即和
+        if (goldCount == 3) {
+            return tiles >= target ? -1 : 0;
+        }
+
+        // 各门按面子数做 max-plus 合并：best[p][M] = 面子数为 M、将数为 p 时的最多搭子数
+        int[][] best = {{0, NONE, NONE, NONE, NONE, NONE}, {NONE, NONE, NONE, NONE, NONE, NONE}};
+        for (int[][] suit : suits) {
+            best = merge(best, suit);
+        }
+
+        int normal = tiles - goldCount;
+        int maxUseful = 0;
+        for (int p = 0; p <= 1; p++) {
+            for (int m = 0; m <= Math.min(melds, FULL_MELDS); m++) {
+                if (best[p][m] == NONE) {
+                    continue;
+                }
+                int t = Math.min(best[p][m], melds - m);
+                int isolated = normal - 3 * m - 2 * t - 2 * p;
+                int seeds = Math.min(isolated, melds - m - t + 1 - p);
+                maxUseful = Math.max(maxUseful, 3 * m + 2 * t + 2 * p + seeds);
+            }
+        }
+
+        int shanten = target - maxUseful - goldCount - 1;
+        if (tiles == target && WinValidator.canWinWithCounts(counts, goldCount)) {
+            return -1;
+        }
+        return Math.max(shanten, 0);
+    }
+
+    private static int[][] merge(int[][] left, int[][] right) {
+        int[][] merged = new int[2][FULL_MELDS + 1];
+        for (int[] row : merged) {
+            Arrays.fill(row, NONE);
+        }
+        for (int lp = 0; lp <= 1; lp++) {
+            for (int rp = 0; rp + lp <= 1; rp++) {
+                for (int lm = 0; lm <= FULL_MELDS; lm++) {
+                    if (left[lp][lm] == NONE) {
+                        continue;
+                    }
+                    for (int rm = 0; lm + rm <= FULL_MELDS; rm++) {
+                        if (right[rp][rm] == NONE) {
+                            continue;
+                        }
+                        int t = left[lp][lm] + right[rp][rm];
+                        if (t > merged[lp + rp][lm + rm]) {
+                            merged[lp + rp][lm + rm] = t;
+                        }
+                    }
+                }
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * 单门 DFS：返回 [将数 0/1][面子数 0..5] 时最多能拆出的搭子数（不可达为 -1）
+     */
+    private static int[][] analyzeSuit(int[] row, boolean sequences) {
+        int[][] best = new int[2][FULL_MELDS + 1];
+        for (int[] r : best) {
+            Arrays.fill(r, NONE);
+        }
+        int[] c = Arrays.copyOf(row, row.length);
+        dfs(c, 1, 0, 0, 0, sequences, best);
+        return best;
+    }
+
+    private static void dfs(int[] c, int value, int melds, int taatsu, int pair, boolean sequences, int[][] best) {
+        while (value <= 9 && c[value] == 0) {
+            value++;
+        }
+        if (value > 9) {
+            int m = Math.min(melds, FULL_MELDS);
+            if (taatsu > best[pair][m]) {
+                best[pair][m] = taatsu;
+            }
+            return;
+        }
+
+        // 刻子
+        if (c[value] >= 3) {
+            c[value] -= 3;
+            dfs(c, value, melds + 1, taatsu, pair, sequences, best);
+            c[value] += 3;
+        }
+        // 顺子
+        if (sequences && value <= 7 && c[value + 1] > 0 && c[value + 2] > 0) {
+            c[value]--;
+            c[value + 1]--;
+            c[value + 2]--;
+            dfs(c, value, melds + 1, taatsu, pair, sequences, best);
+            c[value]++;
+            c[value + 1]++;
+            c[value + 2]++;
+        }
+        // 对子：做将，或当作搭子
+        if (c[value] >= 2) {
+            c[value] -= 2;
+            if (pair == 0) {
+                dfs(c, value, melds, taatsu, 1, sequences, best);
+            }
+            dfs(c, value, melds, taatsu + 1, pair, sequences, best);
+            c[value] += 2;
+        }
+        // 两面/边张（AB）与嵌张（AC）搭子
+        if (sequences) {
+            for (int gap = 1; gap <= 2; gap++) {
+                if (value + gap <= 9 && c[value + gap] > 0) {
+                    c[value]--;
+                    c[value + gap]--;
+                    dfs(c, value, melds, taatsu + 1, pair, sequences, best);
+                    c[value]++;
+                    c[value + gap]++;
+                }
+            }
+        }
+        // 该张作为孤张留下
+        c[value]--;
+        dfs(c, value, melds, taatsu, pair, sequences, best);
+        c[value]++;
+    }
+}
@@ -0,0 +1,122 @@
+package com.fzmahjong.engine;
+
+import com.fzmahjong.model.Tile;
+import com.fzmahjong.model.Zobrist;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一个房间的预计算结果（SpeculationService 的后台线程写入，房间线程读取）
+ *
+ * 后台线程提前算好“下一个摸牌者摸牌后能否自摸”和“出牌者每种出牌后的听牌位集”，
+ * 按手牌的 Zobrist 哈希（{@link com.fzmahjong.model.Player#getHandHash()}）+ 金的牌种 + 查询类型记在这里；
+ * 摸牌后的自摸判定（GameEngine#checkAvailableActionsAfterDraw）和 ClaimIndex 重建位集时先查这里，命中就直接使用。
+ *
+ * - 结果只取决于手牌各牌种的张数和金，与房间进行到哪一步无关，所以状态变化后不需要作废，只会被新结果覆盖
+ * - 定长直接映射表，条目不可变；写入只发生在后台线程，房间线程读路径只有一次 volatile 读
+ * - 命中 / 未命中为进程级计数，见 /api/stats/speculation
+ */
+public final class SpeculativeResults {
+
+    /** 查询类型：摸牌后（3n+2 张）能否按正常牌型胡（非抢金） */
+    static final int OP_WIN = 0;
+
+    /** 查询类型：getWinningKinds 的结果（牌种位图） */
+    static final int OP_TING = 1;
+
+    /** 未命中 */
+    static final long MISS = -1L;
+
+    private static final int SLOTS = 256;
+
+    private static final LongAdder STORED = new LongAdder();
+    private static final LongAdder WIN_HITS = new LongAdder();
+    private static final LongAdder TING_HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+
+    private final AtomicReferenceArray<Entry> entries = new AtomicReferenceArray<>(SLOTS);
+
+    /**
+     * 一组手牌的哈希，与 Player#getHandHash 对同样的牌得到的值相同
+     */
+    public static long handHash(List<Tile> tiles) {
+        long hash = 0L;
+        for (Tile tile : tiles) {
+            if (tile.getKind() >= 0) {
+                hash += Zobrist.handTile(tile.getKind());
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * 记下“摸牌后能否自摸”（后台线程调用）
+     */
+    public void putWin(long handHash, Tile goldTile, boolean win) {
+        put(handHash, goldKindOf(goldTile), OP_WIN, win ? 1L : 0L);
+    }
+
+    /**
+     * 记下某手牌的听牌位集（后台线程调用）
+     */
+    public void putTing(long handHash, Tile goldTile, long winningKinds) {
+        put(handHash, goldKindOf(goldTile), OP_TING, winningKinds);
+    }
+
+    /**
+     * 查预计算的结果；未命中返回 {@link #MISS}
+     */
+    long get(long handHash, int goldKind, int op) {
+        Entry entry = entries.get(slot(handHash, op));
+        if (entry != null && entry.handHash == handHash && entry.goldKind == goldKind && entry.op == op) {
+            (op == OP_WIN ? WIN_HITS : TING_HITS).increment();
+            return entry.value;
+        }
+        MISSES.increment();
+        return MISS;
+    }
+
+    /**
+     * 写入 / 命中 / 未命中计数（所有房间合计）
+     */
+    public static Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("stored", STORED.sum());
+        stats.put("winHits", WIN_HITS.sum());
+        stats.put("tingHits", TING_HITS.sum());
+        stats.put("misses", MISSES.sum());
+        return stats;
+    }
+
+    private void put(long handHash, int goldKind, int op, long value) {
+        entries.set(slot(handHash, op), new Entry(handHash, goldKind, op, value));
+        STORED.increment();
+    }
+
+    private static int slot(long handHash, int op) {
+        long h = (handHash + op) * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> (64 - Integer.numberOfTrailingZeros(SLOTS)));
+    }
+
+    private static int goldKindOf(Tile goldTile) {
+        return goldTile == null ? -1 : goldTile.getKind();
+    }
+
+    private static final class Entry {
+        final long handHash;
+        final int goldKind;
+        final int op;
+        final long value;
+
+        Entry(long handHash, int goldKind, int op, long value) {
+            this.handHash = handHash;
+            this.goldKind = goldKind;
+            this.op = op;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.fzmahjong.engine;
+
+/**
+ * 单门拆面子查表（WinValidator 计数版胡牌判断的查表实现）。
+ *
+ * 每一门（万/条/饼，或风/箭）按各点位张数编码为五进制 key（每个点位 0..4 张），
+ * 离线预先算好两张表，值都是“可能恰好消耗的金数集合”（bit k 表示恰好用掉 k 张金）：
+ * - 面子表：该门全部拆成面子（AAA/ABC，缺的位置用金补）
+ * - 带将表：该门拆成面子 + 1 对将（两张普通 / 一张普通 + 一张金）
+ *
+ * 表的递推方式与 WinValidator 原有 DFS（allMelds）逐步一致：
+ * 每次取当前最小的一张牌，尝试刻子（真实牌最多用 3 张，缺的用金补）
+ * 以及包含该牌的三种顺子形态。因此查表结果与 DFS 完全等价，只是不再逐次回溯。
+ *
+ * 多门之间面子互不跨门，整手牌可胡当且仅当各门消耗的金数之和恰好等于手中金数，
+ * 组合时只需对各门的金数集合做一次“集合加法”。
+ */
+final class SuitMeldTable {
+
+    /** 表内支持的最大金数（bit 0..7）；超出时由调用方回退到 DFS */
+    static final int MAX_GOLD = 7;
+
+    /** 单个点位支持的最大张数（五进制编码） */
+    static final int MAX_COUNT = 4;
+
+    /** 万/条/饼：9 个点位，可组顺子 */
+    static final SuitMeldTable NUMBER = new SuitMeldTable(9, true);
+
+    /** 风/箭：只用到 1..4 点位，不能组顺子 */
+    static final SuitMeldTable HONOR = new SuitMeldTable(4, false);
+
+    private static final int GOLD_MASK = (1 << (MAX_GOLD + 1)) - 1;
+
+    private final int slots;
+    private final boolean sequences;
+    private final int[] place;      // 五进制位权：place[i] = 5^i
+    private final byte[] meldMask;  // 全拆面子可能消耗的金数集合
+    private final byte[] pairMask;  // 面子 + 1 将可能消耗的金数集合
+
+    private SuitMeldTable(int slots, boolean sequences) {
+        this.slots = slots;
+        this.sequences = sequences;
+        this.place = new int[slots + 1];
+        place[0] = 1;
+        for (int i = 1; i <= slots; i++) {
+            place[i] = place[i - 1] * (MAX_COUNT + 1);
+        }
+        int size = place[slots];
+        this.meldMask = new byte[size];
+        this.pairMask = new byte[size];
+        build();
+    }
+
+    /**
+     * 按 key 从小到大递推：每一步拆掉的牌都会让 key 严格变小，
+     * 因此子状态一定已经算好。
+     */
+    private void build() {
+        int[] c = new int[slots];
+        meldMask[0] = 1; // 空门：恰好消耗 0 张金
+        pairMask[0] = 0; // 空门无法单独提供将
+        for (int key = 1; key < meldMask.length; key++) {
+            // 五进制“里程表”自增，得到当前 key 的各点位张数
+            for (int i = 0; i < slots; i++) {
+                if (++c[i] <= MAX_COUNT) {
+                    break;
+                }
+                c[i] = 0;
+            }
+
+            int v = 0;
+            while (c[v] == 0) {
+                v++;
+            }
+
+            // 尝试一：以最小牌组刻子（真实牌最多用 3 张，缺的用金补）
+            int used = Math.min(3, c[v]);
+            int mask = shift(meldMask[key - used * place[v]], 3 - used);
+
+            // 尝试二：包含最小牌的三种顺子形态（首张 / 中张 / 末张），缺的位置用金补
+            if (sequences) {
+                for (int start = v - 2; start <= v; start++) {
+                    if (start < 0 || start > slots - 3) {
+                        continue;
+                    }
+                    int sub = key;
+                    int need = 0;
+                    for (int i = start; i < start + 3; i++) {
+                        if (c[i] > 0) {
+                            sub -= place[i];
+                        } else {
+                            need++;
+                        }
+                    }
+                    mask |= shift(meldMask[sub], need);
+                }
+            }
+            meldMask[key] = (byte) mask;
+
+            // 将：任意点位取两张普通牌，或一张普通牌 + 一张金
+            int pair = 0;
+            for (int i = 0; i < slots; i++) {
+                if (c[i] >= 1) {
+                    pair |= shift(meldMask[key - place[i]], 1);
+                }
+                if (c[i] >= 2) {
+                    pair |= meldMask[key - 2 * place[i]] & 0xFF;
+                }
+            }
+            pairMask[key] = (byte) pair;
+        }
+    }
+
+    /**
+     * 将计数数组中一门（下标 1..9）编码为表 key；
+     * 任一点位超过 {@link #MAX_COUNT} 张或超出本表点位范围时返回 -1（调用方回退 DFS）。
+     */
+    int key(int[] row) {
+        int key = 0;
+        for (int v = 1; v < row.length; v++) {
+            int n = row[v];
+            if (n == 0) {
+                continue;
+            }
+            if (n > MAX_COUNT || v > slots) {
+                return -1;
+            }
+            key += n * place[v - 1];
+        }
+        return key;
+    }
+
+    /**
+     * 在 key 的基础上第 value 点（1..9）再加一张；超出本表点位范围时返回 -1。
+     * 调用方需自行保证该点位原有张数小于 {@link #MAX_COUNT}。
+     */
+    int increment(int key, int value) {
+        if (value < 1 || value > slots) {
+            return -1;
+        }
+        return key + place[value - 1];
+    }
+
+    /**
+     * 该门全拆面子可能消耗的金数集合
+     */
+    int meldMask(int key) {
+        return meldMask[key] & 0xFF;
+    }
+
+    /**
+     * 该门拆成面子 + 1 将可能消耗的金数集合
+     */
+    int pairMask(int key) {
+        return pairMask[key] & 0xFF;
+    }
+
+    /**
+     * 金数集合加法：{a + b | a ∈ x, b ∈ y}，超出 MAX_GOLD 的部分直接丢弃
+     */
+    static int add(int x, int y) {
+        int result = 0;
+        while (x != 0) {
+            int k = Integer.numberOfTrailingZeros(x);
+            result |= y << k;
+            x &= x - 1;
+        }
+        return result & GOLD_MASK;
+    }
+
+    private static int shift(int mask, int golds) {
+        return ((mask & 0xFF) << golds) & GOLD_MASK;
+    }
+}
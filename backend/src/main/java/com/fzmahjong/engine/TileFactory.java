@@ -1,13 +1,17 @@
 package com.fzmahjong.engine;
 
 import com.fzmahjong.model.Tile;
-import com.fzmahjong.model.TileType;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * 麻将牌工厂 - 创建和洗牌
+ *
+ * 洗牌不再使用全 JVM 共享一个 Random 的 Collections.shuffle(list)：
+ * 每个房间持有自己的 SplittableRandom，每局从中取一个种子洗牌并记录下来，
+ * 同一个种子加上操作序列即可完整复现一局。
  */
 public class TileFactory {
 
@@ -19,52 +23,27 @@ public class TileFactory {
      * - 花牌（春夏秋冬梅兰竹菊）：8 张
      */
     public static List<Tile> createFullDeck() {
-        List<Tile> tiles = new ArrayList<>();
-        
-        // 万、条、饼（1-9，每种4张）
-        for (TileType type : new TileType[]{TileType.WAN, TileType.TIAO, TileType.BING}) {
-            for (int value = 1; value <= 9; value++) {
-                for (int count = 0; count < 4; count++) {
-                    tiles.add(new Tile(type, value));
-                }
-            }
-        }
-        
-        // 东南西北（1-4，每种4张）
-        for (int value = 1; value <= 4; value++) {
-            for (int count = 0; count < 4; count++) {
-                tiles.add(new Tile(TileType.WIND, value));
-            }
-        }
-        
-        // 中发白（1=中，2=白，3=发，每种4张）
-        for (int value = 1; value <= 3; value++) {
-            for (int count = 0; count < 4; count++) {
-                tiles.add(new Tile(TileType.DRAGON, value));
-            }
-        }
-        
-        // 花牌：春夏秋冬梅兰竹菊（1-8，每种1张，共8张）
-        for (int value = 1; value <= 8; value++) {
-            tiles.add(new Tile(TileType.FLOWER, value));
-        }
-        
-        return tiles;
+        // 144 张牌是固定的享元实例，这里只复制一份可洗的列表，不再新建牌对象
+        return new ArrayList<>(Tile.deck());
     }
 
     /**
-     * 洗牌
+     * 用指定的随机数生成器原地洗牌（Fisher-Yates，与 {@code Collections.shuffle(list, random)} 的交换顺序一致）
      */
-    public static void shuffle(List<Tile> tiles) {
-        Collections.shuffle(tiles);
+    public static void shuffle(List<Tile> tiles, RandomGenerator random) {
+        for (int size = tiles.size(); size > 1; size--) {
+            int j = random.nextInt(size);
+            tiles.set(j, tiles.set(size - 1, tiles.get(j)));
+        }
     }
 
     /**
-     * 创建并洗好的牌墙
+     * 按种子洗好的牌墙：唯一的洗牌入口，对局中的牌墙都由 PreparedHand#deal(long, int) 经这里洗好再发牌，
+     * 同一种子复盘得到的牌序与对局中相同
      */
-    public static List<Tile> createAndShuffleWall() {
+    public static List<Tile> createWall(long seed) {
         List<Tile> tiles = createFullDeck();
-        shuffle(tiles);
+        shuffle(tiles, new SplittableRandom(seed));
         return tiles;
     }
 }
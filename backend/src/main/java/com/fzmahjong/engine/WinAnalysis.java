@@ -0,0 +1,243 @@
+package com.fzmahjong.engine;
+
+import com.fzmahjong.model.Player;
+import com.fzmahjong.model.Tile;
+
+import java.util.List;
+
+/**
+ * 一次胡牌的分析结果（不可变）
+ *
+ * 胡牌时只对赢家的完整胡牌牌组（点炮牌已加入手牌）扫描一遍，得到：
+ * - 拆法：暗牌的全部（将, 面子, 金的用法）拆法（见 HandDecomposer）
+ * - 金的用法：手牌中的金数、明牌 / 暗杠中的金数、金是否只做将（金雀）、三金能否单独成面子（金龙）
+ * - 花色分布：参与胡牌的万 / 条 / 饼（不含金和字牌）以及金本身的花色
+ * - 杠与花：明杠数、暗杠数、花牌数
+ * - 特殊牌型标志：天胡、三金倒、花胡、抢金等
+ * GameEngine#determineWinType 判定胡牌类型、applyScoring 计分都只读这里的字段，不再各自重新遍历手牌和明牌。
+ */
+public final class WinAnalysis {
+
+    /** 万条饼的牌种数（只有这三门参与清一色 / 混一色的花色统计） */
+    private static final int SUIT_KINDS = 27;
+
+    /** 花胡所需的花牌数 */
+    private static final int HUA_HU_FLOWERS = 20;
+
+    private final boolean ziMo;
+    private final boolean qiangJin;
+    private final boolean normalWin;          // 满足正常牌型胡（不含花胡）
+    private final boolean tianHu;
+    private final int handGoldCount;          // 手牌中的金（含点炮牌）
+    private final int meldGoldCount;          // 明牌与暗杠中的金
+    private final int suitMask;               // 参与胡牌的花色：bit0 万，bit1 条，bit2 饼（不含金）
+    private final int goldSuit;               // 金的花色 0/1/2；金为字牌或未开金时为 -1
+    private final int flowerCount;
+    private final int exposedKongCount;
+    private final int concealedKongCount;
+    private final boolean jinQue;
+    private final boolean jinLong;
+    private final HandDecomposer.Result decomposition;
+
+    private WinAnalysis(Builder b) {
+        this.ziMo = b.ziMo;
+        this.qiangJin = b.qiangJin;
+        this.normalWin = b.normalWin;
+        this.tianHu = b.tianHu;
+        this.handGoldCount = b.handGoldCount;
+        this.meldGoldCount = b.meldGoldCount;
+        this.suitMask = b.suitMask;
+        this.goldSuit = b.goldSuit;
+        this.flowerCount = b.flowerCount;
+        this.exposedKongCount = b.exposedKongCount;
+        this.concealedKongCount = b.concealedKongCount;
+        this.jinQue = b.jinQue;
+        this.jinLong = b.jinLong;
+        this.decomposition = b.decomposition;
+    }
+
+    /**
+     * 分析赢家当前的胡牌牌组
+     *
+     * @param winner    赢家（点炮时点炮牌已加入手牌）
+     * @param goldTile  金牌，未开金时为 null
+     * @param ziMo      是否自摸
+     * @param qiangJin  是否抢金
+     * @param normalWin 是否满足正常牌型胡（由 playerHu 的胡牌校验得到，花胡时可能为 false）
+     * @param noDiscard 本局是否还没有人出过牌（天胡判定）
+     */
+    public static WinAnalysis analyze(Player winner, Tile goldTile, boolean ziMo, boolean qiangJin,
+                                      boolean normalWin, boolean noDiscard) {
+        int goldKind = goldTile == null ? -1 : goldTile.getKind();
+        int[] counts = winner.getKindCounts();
+
+        Builder b = new Builder();
+        b.ziMo = ziMo;
+        b.qiangJin = qiangJin;
+        b.normalWin = normalWin;
+        // 天胡：庄家开局17张、未有任何出牌且直接“正常牌型自摸胡”（只靠 20 张花达成花胡不算）
+        b.tianHu = ziMo && winner.isDealer() && noDiscard && normalWin;
+        b.handGoldCount = goldKind >= 0 ? counts[goldKind] : 0;
+        b.goldSuit = goldKind >= 0 && goldKind < SUIT_KINDS ? goldKind / 9 : -1;
+        b.flowerCount = winner.getFlowerTiles() == null ? 0 : winner.getFlowerTiles().size();
+
+        // 手牌花色：字牌（WIND/DRAGON）在福州麻将中是花牌，金在混一色中也当作“花”，都不影响花色判断
+        for (int kind = 0; kind < SUIT_KINDS; kind++) {
+            if (counts[kind] > 0 && kind != goldKind) {
+                b.suitMask |= 1 << (kind / 9);
+            }
+        }
+        if (winner.getExposedMelds() != null) {
+            for (List<Tile> meld : winner.getExposedMelds()) {
+                if (meld == null) continue;
+                if (meld.size() == 4) {
+                    b.exposedKongCount++;
+                }
+                b.scanMeld(meld, goldKind);
+            }
+        }
+        if (winner.getConcealedKongs() != null) {
+            for (List<Tile> kong : winner.getConcealedKongs()) {
+                b.concealedKongCount++;
+                if (kong == null) continue;
+                b.scanMeld(kong, goldKind);
+            }
+        }
+
+        // 一次列出暗牌的全部拆法，金雀 / 金龙都只是在拆法里挑选
+        b.decomposition = HandDecomposer.decompose(counts, goldKind);
+        // 金雀：恰好两张金做将，其余 15 张不用金就能拆成 5 个面子
+        b.jinQue = b.handGoldCount == 2 && winner.getValidTileCount() == 17 && b.decomposition.hasGoldPair();
+        // 金龙：自摸三金倒，且三张金单独成一副面子后剩下的牌仍能胡（剩余的金照常当万能牌）
+        b.jinLong = ziMo && b.handGoldCount >= 3 && b.decomposition.hasGoldMeld();
+        return new WinAnalysis(b);
+    }
+
+    public boolean isZiMo() {
+        return ziMo;
+    }
+
+    public boolean isQiangJin() {
+        return qiangJin;
+    }
+
+    public boolean isNormalWin() {
+        return normalWin;
+    }
+
+    public boolean isTianHu() {
+        return tianHu;
+    }
+
+    /**
+     * 手牌中的金数（含点炮牌）
+     */
+    public int getHandGoldCount() {
+        return handGoldCount;
+    }
+
+    /**
+     * 参与胡牌的全部金数（手牌 + 明牌 + 暗杠）
+     */
+    public int getTotalGoldCount() {
+        return handGoldCount + meldGoldCount;
+    }
+
+    /**
+     * 三金倒：自摸且手上至少三张金（包括庄家起手17张三金）
+     */
+    public boolean isSanJinDao() {
+        return ziMo && handGoldCount >= 3;
+    }
+
+    public boolean isJinQue() {
+        return jinQue;
+    }
+
+    public boolean isJinLong() {
+        return jinLong;
+    }
+
+    /**
+     * 暗牌（含点炮牌）的全部拆法；抢金、花胡等不按牌型胡时可能为空
+     */
+    public HandDecomposer.Result getDecomposition() {
+        return decomposition;
+    }
+
+    /**
+     * 参与胡牌的花色位集：bit0 万，bit1 条，bit2 饼（不含金与字牌）
+     */
+    public int getSuitMask() {
+        return suitMask;
+    }
+
+    /**
+     * 所有参与胡牌的非金序数牌都在同一花色
+     */
+    public boolean isSingleSuit() {
+        return Integer.bitCount(suitMask) == 1;
+    }
+
+    /**
+     * 金的花色（0 万、1 条、2 饼）；金为字牌或未开金时为 -1
+     */
+    public int getGoldSuit() {
+        return goldSuit;
+    }
+
+    public int getFlowerCount() {
+        return flowerCount;
+    }
+
+    public boolean isHuaHu() {
+        return flowerCount >= HUA_HU_FLOWERS;
+    }
+
+    public int getExposedKongCount() {
+        return exposedKongCount;
+    }
+
+    public int getConcealedKongCount() {
+        return concealedKongCount;
+    }
+
+    /**
+     * 胡牌时既无花牌也无任何杠
+     */
+    public boolean isNoFlowerNoKong() {
+        return flowerCount == 0 && exposedKongCount == 0 && concealedKongCount == 0;
+    }
+
+    private static final class Builder {
+        boolean ziMo;
+        boolean qiangJin;
+        boolean normalWin;
+        boolean tianHu;
+        int handGoldCount;
+        int meldGoldCount;
+        int suitMask;
+        int goldSuit;
+        int flowerCount;
+        int exposedKongCount;
+        int concealedKongCount;
+        boolean jinQue;
+        boolean jinLong;
+        HandDecomposer.Result decomposition;
+
+        /**
+         * 明牌 / 暗杠：累计金数与花色
+         */
+        void scanMeld(List<Tile> tiles, int goldKind) {
+            for (Tile t : tiles) {
+                if (t == null) continue;
+                int kind = t.getKind();
+                if (goldKind >= 0 && kind == goldKind) {
+                    meldGoldCount++;
+                } else if (kind >= 0 && kind < SUIT_KINDS) {
+                    suitMask |= 1 << (kind / 9);
+                }
+            }
+        }
+    }
+}
@@ -10,6 +10,13 @@ import java.util.*;
  */
 public class WinValidator {
 
+    /**
+     * 牌种总数：万/条/饼各 9 种 + 风 4 种 + 箭 3 种
+     */
+    public static final int KIND_COUNT = 34;
+
+    private static final Tile[] KIND_TILES = buildKindTiles();
+
     /**
      * 检查是否可以和牌
      * 福州麻将和牌规则：
@@ -84,16 +91,237 @@ public class WinValidator {
             return totalTileCount == 17;
         }
 
-        // 使用"计数 + 金牌 DFS"进行标准胡牌判断（平和 / 金雀 / 金将 / 金作面子）
-        return canWinWithCounts(counts, goldCount);
+        // 使用"计数 + 金牌查表"进行标准胡牌判断（平和 / 金雀 / 金将 / 金作面子），
+        // 共享缓存打开时同样的计数向量在各房间之间共享结果
+        long high = HandEvalCache.isEnabled() ? HandEvalCache.signatureHigh(counts, goldCount, -1, HandEvalCache.OP_WIN) : -1L;
+        long low = high < 0 ? -1L : HandEvalCache.signatureLow(counts);
+        if (low < 0) {
+            return canWinWithCounts(counts, goldCount);
+        }
+        long cached = HandEvalCache.get(low, high);
+        if (cached != HandEvalCache.MISS) {
+            return cached != 0;
+        }
+        boolean win = canWinWithCounts(counts, goldCount);
+        HandEvalCache.put(low, high, win ? 1L : 0L);
+        return win;
+    }
+
+    /**
+     * 听牌计算：一次分析手牌计数，返回“再进一张哪种牌即可胡”的牌种集合。
+     *
+     * 结果与“对 34 种候选牌逐一调用 canWin(手牌 + 候选, goldTile, false)”完全一致
+     * （包括三头金、张数约束等全部规则），但只建一次计数数组、查一次各门的表：
+     * 候选牌只会改变自己那一门的 key，其余各门的组合结果可以预先算好复用。
+     *
+     * @return bit i 表示进一张第 i 种牌即可胡（牌种下标见 {@link #kindTile(int)}）
+     */
+    public static long getWinningKinds(List<Tile> handTiles, Tile goldTile) {
+        if (handTiles == null) {
+            return 0L;
+        }
+
+        int[][] counts = new int[5][10];
+        int goldCount = 0;
+        int totalTileCount = 0;
+        for (Tile tile : handTiles) {
+            if (tile == null || tile.getType() == TileType.FLOWER) {
+                continue;
+            }
+            totalTileCount++;
+            if (goldTile != null && tile.isSameAs(goldTile)) {
+                goldCount++;
+                continue;
+            }
+            int typeIndex = mapTypeIndex(tile.getType());
+            int value = tile.getValue();
+            if (value >= 1 && value <= 9 && typeIndex >= 0) {
+                counts[typeIndex][value]++;
+            }
+        }
+
+        int goldKind = goldTile == null ? -1 : kindIndex(goldTile.getType(), goldTile.getValue());
+
+        long high = HandEvalCache.isEnabled() ? HandEvalCache.signatureHigh(counts, goldCount, goldKind, HandEvalCache.OP_TING) : -1L;
+        long low = high < 0 ? -1L : HandEvalCache.signatureLow(counts);
+        if (low < 0) {
+            return winningKinds(counts, goldCount, totalTileCount, goldKind, tableKeys(counts));
+        }
+        long cached = HandEvalCache.get(low, high);
+        if (cached != HandEvalCache.MISS) {
+            return cached;
+        }
+        long result = winningKinds(counts, goldCount, totalTileCount, goldKind, tableKeys(counts));
+        HandEvalCache.put(low, high, result);
+        return result;
+    }
+
+    /**
+     * 听牌计算主体（keys 为各门的查表 key，任一门超出范围时传 null）
+     */
+    private static long winningKinds(int[][] counts, int goldCount, int totalTileCount, int goldKind, int[] keys) {
+        // 进张后的张数约束（3n+2 且不超过 17 张）；三头金不受此约束
+        int after = totalTileCount + 1;
+        boolean sizeOk = after >= 2 && after <= 17 && (after % 3) == 2;
+
+        long result = 0L;
+        for (int kind = 0; kind < KIND_COUNT; kind++) {
+            int goldAfter = kind == goldKind ? goldCount + 1 : goldCount;
+            if (goldAfter == 3) {
+                result |= 1L << kind;
+            }
+        }
+        if (!sizeOk) {
+            return result;
+        }
+
+        // 各门当前的金数集合；任一门超出查表范围则整手回退为逐张判断
+        boolean tableOk = keys != null && goldCount + 1 <= SuitMeldTable.MAX_GOLD;
+        int[] meld = new int[counts.length];
+        int[] pair = new int[counts.length];
+        for (int type = 0; type < counts.length && tableOk; type++) {
+            meld[type] = tableOf(type).meldMask(keys[type]);
+            pair[type] = tableOf(type).pairMask(keys[type]);
+        }
+
+        // 对每一门预先算好“其余各门全拆面子”和“其余各门拆面子 + 将”的金数集合
+        int[] restMeld = new int[counts.length];
+        int[] restPair = new int[counts.length];
+        if (tableOk) {
+            for (int type = 0; type < counts.length; type++) {
+                int melds = 1;
+                int withPair = 0;
+                for (int other = 0; other < counts.length; other++) {
+                    if (other == type) {
+                        continue;
+                    }
+                    withPair = SuitMeldTable.add(withPair, meld[other]) | SuitMeldTable.add(melds, pair[other]);
+                    melds = SuitMeldTable.add(melds, meld[other]);
+                }
+                restMeld[type] = melds;
+                restPair[type] = withPair;
+            }
+        }
+
+        for (int kind = 0; kind < KIND_COUNT; kind++) {
+            if ((result & (1L << kind)) != 0) {
+                continue;
+            }
+            int type = kindType(kind);
+            int value = kindValue(kind);
+            boolean win;
+            if (kind == goldKind) {
+                // 进的是金：各门不变，只是金数 +1
+                win = tableOk
+                        ? combine(meld[0], pair[0], restMeld[0], restPair[0], goldCount + 1)
+                        : canWinWithCounts(counts, goldCount + 1);
+            } else if (tableOk && counts[type][value] < SuitMeldTable.MAX_COUNT
+                    && tableOf(type).increment(keys[type], value) >= 0) {
+                int key = tableOf(type).increment(keys[type], value);
+                win = combine(tableOf(type).meldMask(key), tableOf(type).pairMask(key),
+                        restMeld[type], restPair[type], goldCount);
+            } else {
+                counts[type][value]++;
+                win = canWinWithCounts(counts, goldCount);
+                counts[type][value]--;
+            }
+            if (win) {
+                result |= 1L << kind;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 各门的查表 key；任一门超出查表范围时返回 null
+     */
+    private static int[] tableKeys(int[][] counts) {
+        int[] keys = new int[counts.length];
+        for (int type = 0; type < counts.length; type++) {
+            keys[type] = tableOf(type).key(counts[type]);
+            if (keys[type] < 0) {
+                return null;
+            }
+        }
+        return keys;
+    }
+
+    private static SuitMeldTable tableOf(int type) {
+        return isShunziType(type) ? SuitMeldTable.NUMBER : SuitMeldTable.HONOR;
+    }
+
+    /**
+     * 某一门（meld/pair）与其余各门（restMeld/restPair）组合后，能否恰好用完 goldCount 张金：
+     * 金做将 / 将在本门 / 将在其他门 三种情况任一成立即可
+     */
+    private static boolean combine(int meld, int pair, int restMeld, int restPair, int goldCount) {
+        int goldBit = 1 << goldCount;
+        if (goldCount >= 2 && (SuitMeldTable.add(meld, restMeld) & (1 << (goldCount - 2))) != 0) {
+            return true;
+        }
+        if ((SuitMeldTable.add(pair, restMeld) & goldBit) != 0) {
+            return true;
+        }
+        return (SuitMeldTable.add(meld, restPair) & goldBit) != 0;
     }
 
     /**
      * 计数版胡牌判断入口：
+     * - 优先查 SuitMeldTable：每门查出“全拆面子 / 面子+将”可能消耗的金数集合，
+     *   再组合各门，判断能否恰好用完手中的金
+     * - 超出查表范围（某点位超过 4 张或金数过多）时回退到 DFS
+     */
+    static boolean canWinWithCounts(int[][] counts, int goldCount) {
+        if (goldCount > SuitMeldTable.MAX_GOLD) {
+            return canWinWithCountsDfs(counts, goldCount);
+        }
+
+        int[] meld = new int[counts.length];
+        int[] pair = new int[counts.length];
+        for (int type = 0; type < counts.length; type++) {
+            SuitMeldTable table = tableOf(type);
+            int key = table.key(counts[type]);
+            if (key < 0) {
+                return canWinWithCountsDfs(counts, goldCount);
+            }
+            meld[type] = table.meldMask(key);
+            pair[type] = table.pairMask(key);
+        }
+
+        // 情况一：2 张金直接做将，其余各门全拆面子
+        int goldBit = 1 << goldCount;
+        int allMelds = 1;
+        for (int m : meld) {
+            allMelds = SuitMeldTable.add(allMelds, m);
+        }
+        if (goldCount >= 2 && (allMelds & (1 << (goldCount - 2))) != 0) {
+            return true;
+        }
+
+        // 情况二：将出在某一门（两张普通 / 一张普通+一张金），其余各门全拆面子
+        for (int type = 0; type < counts.length; type++) {
+            if (pair[type] == 0) {
+                continue;
+            }
+            int combined = pair[type];
+            for (int other = 0; other < counts.length; other++) {
+                if (other != type) {
+                    combined = SuitMeldTable.add(combined, meld[other]);
+                }
+            }
+            if ((combined & goldBit) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * DFS 版胡牌判断（查表范围之外的兜底）：
      * - 先枚举“将”的用法（2 普通 / 1 普通+1 金 / 2 金）
      * - 剩余牌全部拆成面子（AAA/ABC），缺的用金补
      */
-    private static boolean canWinWithCounts(int[][] counts, int goldCount) {
+    static boolean canWinWithCountsDfs(int[][] counts, int goldCount) {
         // 情况一：2 张金直接做将
         if (goldCount >= 2) {
             if (allMelds(counts, goldCount - 2)) {
@@ -137,7 +365,7 @@ public class WinValidator {
     /**
      * 检查“所有剩余牌 + 剩余金”能否全部拆成面子（AAA/ABC）
      */
-    private static boolean allMelds(int[][] counts, int goldCount) {
+    static boolean allMelds(int[][] counts, int goldCount) {
         // 找到当前还存在的最小一张牌
         int type = -1;
         int value = -1;
@@ -270,10 +498,67 @@ public class WinValidator {
         return count;
     }
 
+    /**
+     * 牌种下标对应的代表牌（听牌提示中使用，id 形如 "WAN_1"）
+     */
+    public static Tile kindTile(int kind) {
+        return KIND_TILES[kind];
+    }
+
+    /**
+     * 牌种下标：万 0-8，条 9-17，饼 18-26，风 27-30，箭 31-33；花牌返回 -1
+     */
+    static int kindIndex(TileType type, int value) {
+        return kindIndex(mapTypeIndex(type), value);
+    }
+
+    /**
+     * 牌种下标（按计数数组下标：0:万,1:条,2:饼,3:风,4:箭）
+     */
+    static int kindIndex(int typeIndex, int value) {
+        switch (typeIndex) {
+            case 0:
+            case 1:
+            case 2:
+                return value >= 1 && value <= 9 ? typeIndex * 9 + value - 1 : -1;
+            case 3:
+                return value >= 1 && value <= 4 ? 27 + value - 1 : -1;
+            case 4:
+                return value >= 1 && value <= 3 ? 31 + value - 1 : -1;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * 牌种下标对应的计数数组下标（0:万,1:条,2:饼,3:风,4:箭）
+     */
+    static int kindType(int kind) {
+        return kind < 27 ? kind / 9 : (kind < 31 ? 3 : 4);
+    }
+
+    /**
+     * 牌种下标对应的点数（1..9）
+     */
+    static int kindValue(int kind) {
+        return kind < 27 ? kind % 9 + 1 : (kind < 31 ? kind - 26 : kind - 30);
+    }
+
+    private static Tile[] buildKindTiles() {
+        TileType[] types = {TileType.WAN, TileType.TIAO, TileType.BING, TileType.WIND, TileType.DRAGON};
+        Tile[] tiles = new Tile[KIND_COUNT];
+        for (int kind = 0; kind < KIND_COUNT; kind++) {
+            TileType type = types[kindType(kind)];
+            int value = kindValue(kind);
+            tiles[kind] = new Tile(type, value, type.name() + "_" + value);
+        }
+        return tiles;
+    }
+
     /**
      * 将 TileType 映射到内部计数数组的下标
      */
-    private static int mapTypeIndex(TileType type) {
+    static int mapTypeIndex(TileType type) {
         switch (type) {
             case WAN:
                 return 0;
@@ -293,7 +578,7 @@ public class WinValidator {
     /**
      * 是否是可以组成顺子的花色（万/条/饼）
      */
-    private static boolean isShunziType(int typeIndex) {
+    static boolean isShunziType(int typeIndex) {
         return typeIndex == 0 || typeIndex == 1 || typeIndex == 2;
     }
 }
@@ -0,0 +1,230 @@
+package com.fzmahjong.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 某个玩家当前可执行的操作（不可变）
+ *
+ * 操作用 int 位标志表示，可暗杠的牌用牌种位集表示，不再每回合新建 Map 和若干空列表。
+ * 序列化时由 {@link Serializer} 输出与原先 Map 相同的 JSON 字段（前端的 AvailableActions）：
+ * - 无操作：{}
+ * - 摸牌前的下家暗杠：{canAnGang, anGangTiles}
+ * - 摸牌后 / 刚出完牌：{canChi, canPeng, canGang, canAnGang, canHu, canSanJinDao,
+ *   chiTiles, pengTiles, gangTiles, anGangTiles, tingHint}
+ * - 别人出牌后：{discardedTile, discardPlayerIndex, canHu, canGang, canPeng, canChi, chiOptions, tingHint}
+ *   其中 chiOptions 是可以用来吃的两张牌（每种一张代表牌，前端按牌面找手牌），不必再由前端推算
+ */
+@JsonSerialize(using = ActionSet.Serializer.class)
+public final class ActionSet {
+
+    /** 操作标志位（胡/杠/碰/吃与 ClaimIndex 的取值一致） */
+    public static final int HU = 1;
+    public static final int GANG = 2;
+    public static final int PENG = 4;
+    public static final int CHI = 8;
+    public static final int AN_GANG = 16;
+    public static final int SAN_JIN_DAO = 32;
+    /** 听牌提示可以请求（结果通过 /game/tingHint 按需获取） */
+    public static final int TING_HINT = 64;
+    /** 吃的具体组合（见 ActionEvaluator）：用 k-2、k-1 / k-1、k+1 / k+1、k+2 吃 k */
+    public static final int CHI_LEFT = 128;
+    public static final int CHI_MIDDLE = 256;
+    public static final int CHI_RIGHT = 512;
+
+    /** 三种吃法的两张手牌相对被吃牌的牌种偏移（与 CHI_LEFT / CHI_MIDDLE / CHI_RIGHT 依次对应） */
+    private static final int[][] CHI_OFFSETS = {{-2, -1}, {-1, 1}, {1, 2}};
+
+    /** 没有任何可用操作 */
+    public static final ActionSet NONE = new ActionSet(Shape.NONE, 0, 0L, null, -1);
+
+    /** 摸牌后 / 出牌后、不含暗杠的常见组合预先建好，直接复用 */
+    private static final ActionSet[] SELF = new ActionSet[TING_HINT << 1];
+
+    static {
+        for (int flags = 0; flags < SELF.length; flags++) {
+            SELF[flags] = new ActionSet(Shape.SELF, flags, 0L, null, -1);
+        }
+    }
+
+    /**
+     * 输出的 JSON 结构
+     */
+    private enum Shape {
+        NONE,
+        AN_GANG_BEFORE_DRAW,
+        SELF,
+        CLAIM
+    }
+
+    private final Shape shape;
+    private final int flags;
+    private final long anGangKinds;          // 可暗杠的牌种位集
+    private final Tile discardedTile;        // 别人刚打出的牌（仅 CLAIM）
+    private final int discardPlayerIndex;    // 出牌玩家索引（仅 CLAIM）
+
+    private ActionSet(Shape shape, int flags, long anGangKinds, Tile discardedTile, int discardPlayerIndex) {
+        this.shape = shape;
+        this.flags = flags;
+        this.anGangKinds = anGangKinds;
+        this.discardedTile = discardedTile;
+        this.discardPlayerIndex = discardPlayerIndex;
+    }
+
+    /**
+     * 摸牌前的下家暗杠窗口
+     */
+    public static ActionSet anGangBeforeDraw(long anGangKinds) {
+        return new ActionSet(Shape.AN_GANG_BEFORE_DRAW, AN_GANG, anGangKinds, null, -1);
+    }
+
+    /**
+     * 轮到自己时（摸牌后、刚出完牌）的操作：自摸 / 暗杠 / 三金倒 / 听牌提示
+     */
+    public static ActionSet self(int flags, long anGangKinds) {
+        if (anGangKinds == 0L && flags >= 0 && flags < SELF.length) {
+            return SELF[flags];
+        }
+        return new ActionSet(Shape.SELF, flags, anGangKinds, null, -1);
+    }
+
+    /**
+     * 别人出牌后的胡 / 杠 / 碰 / 吃（flags 可带 CHI_LEFT / CHI_MIDDLE / CHI_RIGHT）
+     */
+    public static ActionSet claim(int flags, Tile discardedTile, int discardPlayerIndex) {
+        return new ActionSet(Shape.CLAIM, flags, 0L, discardedTile, discardPlayerIndex);
+    }
+
+    public boolean has(int flag) {
+        return (flags & flag) != 0;
+    }
+
+    public boolean isEmpty() {
+        return shape == Shape.NONE;
+    }
+
+    public int getFlags() {
+        return flags;
+    }
+
+    public long getAnGangKinds() {
+        return anGangKinds;
+    }
+
+    /**
+     * 可暗杠的牌（每种一张，按牌种下标升序）
+     */
+    public List<Tile> getAnGangTiles() {
+        List<Tile> tiles = new ArrayList<>(Long.bitCount(anGangKinds));
+        for (long kinds = anGangKinds; kinds != 0; kinds &= kinds - 1) {
+            tiles.add(Tile.firstOfKind(Long.numberOfTrailingZeros(kinds)));
+        }
+        return tiles;
+    }
+
+    /**
+     * 可以用来吃的两张牌（每种一张代表牌，按左 / 中 / 右吃的顺序）
+     */
+    public List<Tile[]> getChiOptions() {
+        List<Tile[]> options = new ArrayList<>(3);
+        if (discardedTile == null) {
+            return options;
+        }
+        int kind = discardedTile.getKind();
+        for (int i = 0; i < CHI_OFFSETS.length; i++) {
+            if (has(CHI_LEFT << i)) {
+                options.add(new Tile[]{Tile.firstOfKind(kind + CHI_OFFSETS[i][0]),
+                    Tile.firstOfKind(kind + CHI_OFFSETS[i][1])});
+            }
+        }
+        return options;
+    }
+
+    public Tile getDiscardedTile() {
+        return discardedTile;
+    }
+
+    public int getDiscardPlayerIndex() {
+        return discardPlayerIndex;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ActionSet other)) {
+            return false;
+        }
+        return shape == other.shape && flags == other.flags && anGangKinds == other.anGangKinds
+            && discardPlayerIndex == other.discardPlayerIndex && Objects.equals(discardedTile, other.discardedTile);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(shape, flags, anGangKinds, discardedTile, discardPlayerIndex);
+    }
+
+    @Override
+    public String toString() {
+        return "ActionSet{" + shape + ", flags=" + Integer.toBinaryString(flags)
+            + ", anGangKinds=" + Long.toHexString(anGangKinds) + "}";
+    }
+
+    /**
+     * 按原先 Map 的字段名输出 JSON
+     */
+    public static class Serializer extends JsonSerializer<ActionSet> {
+        @Override
+        public void serialize(ActionSet actions, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeStartObject();
+            switch (actions.shape) {
+                case AN_GANG_BEFORE_DRAW:
+                    gen.writeBooleanField("canAnGang", true);
+                    writeTiles(gen, serializers, "anGangTiles", actions.getAnGangTiles());
+                    break;
+                case SELF:
+                    gen.writeBooleanField("canChi", actions.has(CHI));
+                    gen.writeBooleanField("canPeng", actions.has(PENG));
+                    gen.writeBooleanField("canGang", actions.has(GANG));
+                    gen.writeBooleanField("canAnGang", actions.has(AN_GANG));
+                    gen.writeBooleanField("canHu", actions.has(HU));
+                    gen.writeBooleanField("canSanJinDao", actions.has(SAN_JIN_DAO));
+                    writeTiles(gen, serializers, "chiTiles", List.of());
+                    writeTiles(gen, serializers, "pengTiles", List.of());
+                    writeTiles(gen, serializers, "gangTiles", List.of());
+                    writeTiles(gen, serializers, "anGangTiles", actions.getAnGangTiles());
+                    gen.writeBooleanField("tingHint", actions.has(TING_HINT));
+                    break;
+                case CLAIM:
+                    gen.writeFieldName("discardedTile");
+                    serializers.defaultSerializeValue(actions.discardedTile, gen);
+                    gen.writeNumberField("discardPlayerIndex", actions.discardPlayerIndex);
+                    gen.writeBooleanField("canHu", actions.has(HU));
+                    gen.writeBooleanField("canGang", actions.has(GANG));
+                    gen.writeBooleanField("canPeng", actions.has(PENG));
+                    gen.writeBooleanField("canChi", actions.has(CHI));
+                    gen.writeFieldName("chiOptions");
+                    serializers.defaultSerializeValue(actions.getChiOptions(), gen);
+                    gen.writeBooleanField("tingHint", actions.has(TING_HINT));
+                    break;
+                default:
+                    break;
+            }
+            gen.writeEndObject();
+        }
+
+        private static void writeTiles(JsonGenerator gen, SerializerProvider serializers,
+                                       String field, List<Tile> tiles) throws IOException {
+            gen.writeFieldName(field);
+            serializers.defaultSerializeValue(tiles, gen);
+        }
+    }
+}
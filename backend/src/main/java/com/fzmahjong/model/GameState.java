@@ -1,6 +1,9 @@
 package com.fzmahjong.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -11,7 +14,8 @@ import java.util.Map;
 public class GameState {
     private String roomId;                      // 房间ID
     private List<Player> players;               // 玩家列表（4人）
-    private List<Tile> wallTiles;               // 牌墙（剩余的牌）
+    private final Wall wall = new Wall();       // 牌墙（剩余的牌）
+    private Long wallSeed;                      // 本局洗牌种子（预设牌墙为 null），配合操作序列可复现整局
     private Tile goldTile;                      // 金牌
     private int currentPlayerIndex;             // 当前行动玩家索引
     private int dealerIndex;                    // 庄家索引
@@ -23,7 +27,8 @@ public class GameState {
     private int cycleStartDealerIndex;          // 本轮（用于“轮庄一圈”）起始庄家索引
     private Map<String, Boolean> continueDecisions; // 轮庄一圈后：每个玩家是否继续（null=未表态）
     private List<Tile> discardedTiles;          // 已打出的牌（牌池）
-    private Map<String, Map<String, Object>> availableActions; // 每个玩家可用的操作（玩家ID -> 操作类型 -> 详情）
+    private long discardHash;                   // 牌池（按打出顺序）的 Zobrist 哈希
+    private final ActionSet[] availableActions = new ActionSet[4]; // 每个座位可用的操作（按 position 下标）
     private String currentActionPlayerId;        // 当前应该执行操作的玩家ID（按优先级）
     private String currentActionType;            // 当前优先级操作类型（"hu", "gang", "peng", "chi"）
     // 最近一次已实际执行的动作（用于前端弹出“吃/碰/杠/胡”提示，只在玩家确认后记录）
@@ -54,7 +59,6 @@ public class GameState {
     public GameState(String roomId) {
         this.roomId = roomId;
         this.players = new ArrayList<>();
-        this.wallTiles = new ArrayList<>();
         this.currentPlayerIndex = 0;
         this.dealerIndex = 0;
         this.phase = GamePhase.WAITING;
@@ -63,7 +67,7 @@ public class GameState {
         this.cycleStartDealerIndex = 0;
         this.continueDecisions = new HashMap<>();
         this.discardedTiles = new ArrayList<>();
-        this.availableActions = new HashMap<>();
+        Arrays.fill(availableActions, ActionSet.NONE);
         this.currentActionPlayerId = null;
         this.currentActionType = null;
         this.lastActionPlayerId = null;
@@ -108,12 +112,31 @@ public class GameState {
         this.players = players;
     }
 
+    /**
+     * 牌墙剩余牌的只读视图（索引 0 为牌头）
+     */
     public List<Tile> getWallTiles() {
-        return wallTiles;
+        return wall.asList();
     }
 
+    /**
+     * 装入新一局的牌墙（复用原有存储，海底预留张数一并重置）
+     */
     public void setWallTiles(List<Tile> wallTiles) {
-        this.wallTiles = wallTiles;
+        wall.reset(wallTiles);
+        wallSeed = null;
+    }
+
+    /**
+     * 本局洗牌种子（只用于服务端复盘，不下发给客户端）
+     */
+    @JsonIgnore
+    public Long getWallSeed() {
+        return wallSeed;
+    }
+
+    public void setWallSeed(Long wallSeed) {
+        this.wallSeed = wallSeed;
     }
 
     public Tile getGoldTile() {
@@ -229,6 +252,59 @@ public class GameState {
 
     public void setDiscardedTiles(List<Tile> discardedTiles) {
         this.discardedTiles = discardedTiles;
+        discardHash = 0L;
+        for (int i = 0; discardedTiles != null && i < discardedTiles.size(); i++) {
+            discardHash += Zobrist.discard(i, discardedTiles.get(i).getKind());
+        }
+    }
+
+    /**
+     * 打出一张牌进牌池（牌池的增删请走 addDiscardedTile / removeDiscardedTile / clearDiscardedTiles，以保持哈希同步）
+     */
+    public void addDiscardedTile(Tile tile) {
+        discardHash += Zobrist.discard(discardedTiles.size(), tile.getKind());
+        discardedTiles.add(tile);
+    }
+
+    /**
+     * 吃碰杠时从牌池取回这张牌（被取回的总是刚打出的最后一张，从尾部找起）
+     */
+    public boolean removeDiscardedTile(Tile tile) {
+        for (int i = discardedTiles.size() - 1; i >= 0; i--) {
+            if (discardedTiles.get(i).isSameTile(tile)) {
+                if (i == discardedTiles.size() - 1) {
+                    discardHash -= Zobrist.discard(i, tile.getKind());
+                    discardedTiles.remove(i);
+                } else {
+                    // 不是最后一张时后面的牌都要前移一位，整池重算
+                    discardedTiles.remove(i);
+                    setDiscardedTiles(discardedTiles);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void clearDiscardedTiles() {
+        discardedTiles.clear();
+        discardHash = 0L;
+    }
+
+    /**
+     * 局面的 Zobrist 哈希：四家牌面（按座位）+ 牌墙位置 + 金 + 牌池 + 轮到的座位
+     *
+     * 各部分都在摸牌、出牌、吃碰杠时 O(1) 增量维护，这里只是把它们相加；
+     * 可作为房间恢复 / 重放后的一致性校验和（包含暗牌，不下发给前端）
+     */
+    @JsonIgnore
+    public long getStateHash() {
+        long hash = wall.positionHash() + discardHash + Zobrist.turn(currentPlayerIndex)
+            + Zobrist.gold(goldTile == null ? -1 : goldTile.getKind());
+        for (int seat = 0; seat < players.size(); seat++) {
+            hash += Zobrist.seat(seat, players.get(seat).getZobristHash());
+        }
+        return hash;
     }
 
     /**
@@ -280,66 +356,70 @@ public class GameState {
      * 从牌墙抓一张牌（从牌头）
      */
     public Tile drawTile() {
-        if (!wallTiles.isEmpty()) {
-            return wallTiles.remove(0);
-        }
-        return null;
+        return wall.drawFromHead();
     }
 
     /**
      * 从牌墙尾部抓一张牌（从牌尾）
      */
     public Tile drawTileFromTail() {
-        if (!wallTiles.isEmpty()) {
-            return wallTiles.remove(wallTiles.size() - 1);
-        }
-        return null;
+        return wall.drawFromTail();
     }
 
     /**
      * 检查牌墙是否还有牌（考虑海底牌）
      */
     public boolean hasRemainingTiles() {
-        // 基本留18张，每有一个明杠多留1张，暗杠多留2张
-        int reservedCount = 18;
-        for (Player player : players) {
-            for (List<Tile> meld : player.getExposedMelds()) {
-                if (meld.size() == 4) {
-                    reservedCount += 1; // 明杠
-                }
-            }
-            // 暗杠需要在游戏逻辑中额外处理
-        }
-        return wallTiles.size() > reservedCount;
+        // 基本留18张，每有一个明杠多留1张（见 reserveForKong），暗杠需要在游戏逻辑中额外处理
+        return wall.hasDrawableTiles();
     }
 
-    public Map<String, Map<String, Object>> getAvailableActions() {
-        return availableActions;
+    /**
+     * 当前应留的海底张数（基本 18 张，每个明杠多留 1 张）
+     */
+    @JsonIgnore
+    public int getWallReserved() {
+        return wall.getReserved();
     }
 
-    public void setAvailableActions(Map<String, Map<String, Object>> availableActions) {
-        this.availableActions = availableActions;
+    /**
+     * 有玩家明杠后调用：海底多留一张
+     */
+    public void reserveForKong() {
+        wall.reserveForKong();
     }
 
     /**
      * 清除所有玩家的可用操作
      */
     public void clearAllActions() {
-        availableActions.clear();
+        Arrays.fill(availableActions, ActionSet.NONE);
     }
 
     /**
      * 设置某个玩家的可用操作
      */
-    public void setPlayerActions(String playerId, Map<String, Object> actions) {
-        availableActions.put(playerId, actions);
+    public void setPlayerActions(Player player, ActionSet actions) {
+        availableActions[player.getPosition()] = actions == null ? ActionSet.NONE : actions;
+    }
+
+    /**
+     * 获取某个玩家的可用操作（没有时为 ActionSet.NONE）
+     */
+    public ActionSet getPlayerActions(Player player) {
+        return availableActions[player.getPosition()];
     }
 
     /**
-     * 获取某个玩家的可用操作
+     * 按玩家ID获取可用操作（玩家不在房间中时为 ActionSet.NONE）
      */
-    public Map<String, Object> getPlayerActions(String playerId) {
-        return availableActions.getOrDefault(playerId, new HashMap<>());
+    public ActionSet getPlayerActions(String playerId) {
+        for (Player player : players) {
+            if (player.getId().equals(playerId)) {
+                return getPlayerActions(player);
+            }
+        }
+        return ActionSet.NONE;
     }
 
     public String getCurrentActionPlayerId() {
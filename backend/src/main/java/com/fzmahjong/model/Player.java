@@ -1,7 +1,9 @@
 package com.fzmahjong.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -12,6 +14,10 @@ public class Player {
     private String name;                        // 玩家名称
     private int position;                       // 位置（0-3）
     private List<Tile> handTiles;               // 手牌
+    private final int[] kindCounts;             // 手牌按牌种计数（与 handTiles 同步维护）
+    private int handVersion;                    // 手牌内容每变化一次 +1（排序不算），供按手牌缓存的计算判断是否过期
+    private long handHash;                      // 手牌的 Zobrist 哈希（与 kindCounts 同步维护）
+    private long meldHash;                      // 明牌与暗杠的 Zobrist 哈希
     private List<List<Tile>> exposedMelds;      // 明牌（碰、杠、吃的牌，所有人可见）
     private List<List<Tile>> concealedKongs;    // 暗杠（只有自己可见）
     private List<Tile> flowerTiles;             // 补的花牌
@@ -23,6 +29,7 @@ public class Player {
         this.name = name;
         this.position = position;
         this.handTiles = new ArrayList<>();
+        this.kindCounts = new int[Tile.KIND_COUNT];
         this.exposedMelds = new ArrayList<>();
         this.concealedKongs = new ArrayList<>();
         this.flowerTiles = new ArrayList<>();
@@ -54,24 +61,96 @@ public class Player {
         this.position = position;
     }
 
+    /**
+     * 手牌列表（只读使用；增删请走 addTile / removeTile，以保持牌种计数同步）
+     */
     public List<Tile> getHandTiles() {
         return handTiles;
     }
 
     public void setHandTiles(List<Tile> handTiles) {
         this.handTiles = handTiles;
+        handVersion++;
+        handHash = 0L;
+        Arrays.fill(kindCounts, 0);
+        for (Tile tile : handTiles) {
+            countTile(tile, 1);
+        }
+    }
+
+    /**
+     * 手牌中与该牌同种的张数
+     */
+    public int countOf(Tile tile) {
+        return tile == null ? 0 : getKindCount(tile.getKind());
     }
 
+    /**
+     * 手牌按牌种的计数（下标见 {@link Tile#getKind()}；只读使用，不下发给前端）
+     */
+    @JsonIgnore
+    public int[] getKindCounts() {
+        return kindCounts;
+    }
+
+    /**
+     * 手牌中某牌种（见 {@link Tile#getKind()}）的张数
+     */
+    public int getKindCount(int kind) {
+        return kind >= 0 && kind < kindCounts.length ? kindCounts[kind] : 0;
+    }
+
+    /**
+     * 手牌版本号：增删手牌时递增，手牌内容不变（包括只是排序）时保持不变
+     */
+    @JsonIgnore
+    public int getHandVersion() {
+        return handVersion;
+    }
+
+    /**
+     * 手牌的 Zobrist 哈希：只取决于各牌种的张数（与牌 id、排序无关），摸打吃碰杠时 O(1) 更新；
+     * 与 handVersion 不同，摸一张再打出同种牌后会回到原值，可直接作按手牌缓存的键
+     */
+    @JsonIgnore
+    public long getHandHash() {
+        return handHash;
+    }
+
+    /**
+     * 整家牌面的 Zobrist 哈希：手牌 + 明牌 + 暗杠 + 花牌张数（见 {@link Zobrist}）
+     */
+    @JsonIgnore
+    public long getZobristHash() {
+        return handHash + meldHash + Zobrist.flowers(flowerTiles == null ? 0 : flowerTiles.size());
+    }
+
+    /**
+     * 手牌中参与胡牌判断的张数（不含 FLOWER 花牌）
+     */
+    @JsonIgnore
+    public int getValidTileCount() {
+        int flowers = 0;
+        for (int kind = Tile.KIND_COUNT - 8; kind < Tile.KIND_COUNT; kind++) {
+            flowers += kindCounts[kind];
+        }
+        return handTiles.size() - flowers;
+    }
+
+    /**
+     * 明牌列表（只读使用；新增请走 addExposedMeld，以保持副露哈希同步）
+     */
     public List<List<Tile>> getExposedMelds() {
         return exposedMelds;
     }
 
     public void setExposedMelds(List<List<Tile>> exposedMelds) {
         this.exposedMelds = exposedMelds;
+        recomputeMeldHash();
     }
 
     /**
-     * 获取暗杠列表（仅自己可见）
+     * 获取暗杠列表（仅自己可见；新增请走 addConcealedKong）
      */
     public List<List<Tile>> getConcealedKongs() {
         return concealedKongs;
@@ -79,6 +158,7 @@ public class Player {
 
     public void setConcealedKongs(List<List<Tile>> concealedKongs) {
         this.concealedKongs = concealedKongs;
+        recomputeMeldHash();
     }
 
     public List<Tile> getFlowerTiles() {
@@ -111,6 +191,10 @@ public class Player {
      */
     public void resetForNewHand() {
         handTiles.clear();
+        handVersion++;
+        handHash = 0L;
+        meldHash = 0L;
+        Arrays.fill(kindCounts, 0);
         exposedMelds.clear();
         flowerTiles.clear();
         concealedKongs.clear();
@@ -121,13 +205,22 @@ public class Player {
      */
     public void addTile(Tile tile) {
         handTiles.add(tile);
+        handVersion++;
+        countTile(tile, 1);
     }
 
     /**
      * 移除手牌
      */
     public boolean removeTile(Tile tile) {
-        return handTiles.removeIf(t -> t.getId().equals(tile.getId()));
+        for (int i = 0; i < handTiles.size(); i++) {
+            if (handTiles.get(i).isSameTile(tile)) {
+                countTile(handTiles.remove(i), -1);
+                handVersion++;
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -136,31 +229,31 @@ public class Player {
      * @param goldTile 金牌，如果为null则按正常排序
      */
     public void sortHand(Tile goldTile) {
-        if (goldTile == null) {
-            // 如果没有金牌，按正常排序
-            Collections.sort(handTiles);
-            return;
-        }
-        
-        // 分离金牌和非金牌
-        List<Tile> goldTiles = new ArrayList<>();
-        List<Tile> otherTiles = new ArrayList<>();
-        
-        for (Tile tile : handTiles) {
-            if (tile.isSameAs(goldTile)) {
-                goldTiles.add(tile);
-            } else {
-                otherTiles.add(tile);
+        // 按“金牌 → 牌种下标”做原地稳定插入排序（手牌至多 17 张，不需要额外分配列表）；
+        // 牌种下标与 Tile.compareTo 的“先类型再数值”顺序一致
+        int goldKind = goldTile == null ? Integer.MIN_VALUE : goldTile.getKind();
+        for (int i = 1; i < handTiles.size(); i++) {
+            Tile tile = handTiles.get(i);
+            int key = sortKey(tile, goldKind);
+            int j = i - 1;
+            while (j >= 0 && sortKey(handTiles.get(j), goldKind) > key) {
+                handTiles.set(j + 1, handTiles.get(j));
+                j--;
             }
+            handTiles.set(j + 1, tile);
+        }
+    }
+
+    private static int sortKey(Tile tile, int goldKind) {
+        return tile.getKind() == goldKind ? -1 : tile.getKind();
+    }
+
+    private void countTile(Tile tile, int delta) {
+        int kind = tile.getKind();
+        if (kind >= 0) {
+            kindCounts[kind] += delta;
+            handHash += delta * Zobrist.handTile(kind);
         }
-        
-        // 非金牌按正常规则排序
-        Collections.sort(otherTiles);
-        
-        // 重新组合：金牌在最左边，其他牌在后面
-        handTiles.clear();
-        handTiles.addAll(goldTiles);
-        handTiles.addAll(otherTiles);
     }
 
     /**
@@ -197,6 +290,7 @@ public class Player {
      */
     public void addExposedMeld(List<Tile> meld) {
         exposedMelds.add(new ArrayList<>(meld));
+        meldHash += Zobrist.meld(meld, false);
     }
 
     /**
@@ -209,5 +303,20 @@ public class Player {
             return;
         }
         concealedKongs.add(new ArrayList<>(kong));
+        meldHash += Zobrist.meld(kong, true);
+    }
+
+    private void recomputeMeldHash() {
+        meldHash = 0L;
+        if (exposedMelds != null) {
+            for (List<Tile> meld : exposedMelds) {
+                meldHash += Zobrist.meld(meld, false);
+            }
+        }
+        if (concealedKongs != null) {
+            for (List<Tile> kong : concealedKongs) {
+                meldHash += Zobrist.meld(kong, true);
+            }
+        }
     }
 }
@@ -1,50 +1,128 @@
 package com.fzmahjong.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
- * 麻将牌
+ * 麻将牌（不可变）
+ *
+ * 一副牌的 144 张在类加载时一次性创建（享元），牌墙、手牌、牌河里流转的都是这 144 个实例：
+ * - index：0..143 的稠密编号（万 0-35，条 36-71，饼 72-107，风 108-123，箭 124-135，花 136-143）
+ * - kind：牌种下标（万 0-8，条 9-17，饼 18-26，风 27-30，箭 31-33，花 34-41）
+ * 每局不再新建牌对象，判断同一张牌 / 同一种牌都只是整数比较。
  */
-public class Tile implements Comparable<Tile> {
-    private TileType type;      // 牌类型（万、条、饼、字）
-    private int value;          // 牌值（1-9 或字牌编号）
-    private String id;          // 唯一标识（用于区分同样的牌）
+public final class Tile implements Comparable<Tile> {
 
-    public Tile() {
-    }
+    /** 一副牌的张数 */
+    public static final int DECK_SIZE = 144;
+
+    /** 牌种总数（含 8 种花牌） */
+    public static final int KIND_COUNT = 42;
+
+    private static final String[] WIND_NAMES = {"", "东", "南", "西", "北"};
+    private static final String[] DRAGON_NAMES = {"", "中", "白", "发"};
+    private static final String[] FLOWER_NAMES = {"", "春", "夏", "秋", "冬", "梅", "兰", "竹", "菊"};
+
+    private static final Tile[] DECK = buildDeck();
+    private static final List<Tile> DECK_VIEW = Collections.unmodifiableList(Arrays.asList(DECK));
+    private static final Map<String, Tile> BY_ID = buildIdIndex();
+
+    private final TileType type;      // 牌类型（万、条、饼、字）
+    private final int value;          // 牌值（1-9 或字牌编号）
+    private final String id;          // 唯一标识（用于区分同样的牌）
+    private final int index;          // 整副牌中的编号 0..143；不属于牌墙的牌（如听牌提示）为 -1
+    private final int kind;           // 牌种下标；非法牌值为 -1
+    private final String displayName; // 预先算好的显示名称
 
+    /**
+     * 创建不属于牌墙的牌（例如听牌提示中的代表牌）
+     */
     public Tile(TileType type, int value, String id) {
+        this(type, value, id, -1);
+    }
+
+    private Tile(TileType type, int value, String id, int index) {
         this.type = type;
         this.value = value;
         this.id = id;
+        this.index = index;
+        this.kind = kindOf(type, value);
+        this.displayName = nameOf(type, value);
     }
 
-    public Tile(TileType type, int value) {
-        this.type = type;
-        this.value = value;
-        this.id = type.name() + value + "_" + System.nanoTime();
+    /**
+     * 按编号取一副牌中的某一张
+     */
+    public static Tile of(int index) {
+        return DECK[index];
     }
 
-    public TileType getType() {
-        return type;
+    /**
+     * 取某种牌的第 copy 张（万条饼风箭 0..3，花牌只有 0）；不存在时返回 null
+     */
+    public static Tile of(TileType type, int value, int copy) {
+        int kind = kindOf(type, value);
+        if (kind < 0 || copy < 0) {
+            return null;
+        }
+        if (type == TileType.FLOWER) {
+            return copy == 0 ? DECK[108 + 28 + value - 1] : null;
+        }
+        return copy < 4 ? DECK[kind * 4 + copy] : null;
     }
 
-    public void setType(TileType type) {
-        this.type = type;
+    /**
+     * 按牌种下标取该种牌的第一张
+     */
+    public static Tile firstOfKind(int kind) {
+        return kind < 34 ? DECK[kind * 4] : DECK[136 + kind - 34];
     }
 
-    public int getValue() {
-        return value;
+    /**
+     * 按 id 查找一副牌中的某一张；不存在时返回 null
+     */
+    public static Tile byId(String id) {
+        return id == null ? null : BY_ID.get(id);
     }
 
-    public void setValue(int value) {
-        this.value = value;
+    /**
+     * 整副 144 张牌（按编号顺序，只读）
+     */
+    public static List<Tile> deck() {
+        return DECK_VIEW;
+    }
+
+    public TileType getType() {
+        return type;
+    }
+
+    public int getValue() {
+        return value;
     }
 
     public String getId() {
         return id;
     }
 
-    public void setId(String id) {
-        this.id = id;
+    /**
+     * 整副牌中的编号 0..143（不下发给前端）
+     */
+    @JsonIgnore
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * 牌种下标（不下发给前端）
+     */
+    @JsonIgnore
+    public int getKind() {
+        return kind;
     }
 
     /**
@@ -58,30 +136,7 @@ public class Tile implements Comparable<Tile> {
      * 显示名称
      */
     public String getDisplayName() {
-        switch (type) {
-            case WAN:
-                return value + "万";
-            case TIAO:
-                return value + "条";
-            case BING:
-                return value + "饼";
-            case WIND:
-                return new String[]{"", "东", "南", "西", "北"}[value];
-            case DRAGON:
-                String[] dragonNames = {"", "中", "白", "发"};
-                if (value >= 1 && value <= 3) {
-                    return dragonNames[value];
-                }
-                return "字" + value;
-            case FLOWER:
-                String[] flowerNames = {"", "春", "夏", "秋", "冬", "梅", "兰", "竹", "菊"};
-                if (value >= 1 && value <= 8) {
-                    return flowerNames[value];
-                }
-                return "花" + value;
-            default:
-                return "未知";
-        }
+        return displayName;
     }
 
     /**
@@ -97,13 +152,106 @@ public class Tile implements Comparable<Tile> {
 
     @Override
     public String toString() {
-        return getDisplayName();
+        return displayName;
     }
 
     /**
      * 判断两张牌是否相同（不考虑ID）
      */
     public boolean isSameAs(Tile other) {
+        if (this.kind >= 0) {
+            return this.kind == other.kind;
+        }
         return this.type == other.type && this.value == other.value;
     }
+
+    /**
+     * 判断是否是同一张实体牌（同一编号）
+     */
+    public boolean isSameTile(Tile other) {
+        if (this.index >= 0) {
+            return this.index == other.index;
+        }
+        return this.id.equals(other.id);
+    }
+
+    // === 牌表 ===
+
+    private static int kindOf(TileType type, int value) {
+        switch (type) {
+            case WAN:
+            case TIAO:
+            case BING:
+                return value >= 1 && value <= 9 ? type.ordinal() * 9 + value - 1 : -1;
+            case WIND:
+                return value >= 1 && value <= 4 ? 27 + value - 1 : -1;
+            case DRAGON:
+                return value >= 1 && value <= 3 ? 31 + value - 1 : -1;
+            case FLOWER:
+                return value >= 1 && value <= 8 ? 34 + value - 1 : -1;
+            default:
+                return -1;
+        }
+    }
+
+    private static String nameOf(TileType type, int value) {
+        switch (type) {
+            case WAN:
+                return value + "万";
+            case TIAO:
+                return value + "条";
+            case BING:
+                return value + "饼";
+            case WIND:
+                return value >= 1 && value <= 4 ? WIND_NAMES[value] : "风" + value;
+            case DRAGON:
+                return value >= 1 && value <= 3 ? DRAGON_NAMES[value] : "字" + value;
+            case FLOWER:
+                return value >= 1 && value <= 8 ? FLOWER_NAMES[value] : "花" + value;
+            default:
+                return "未知";
+        }
+    }
+
+    /**
+     * 按 万、条、饼（各 9 种 × 4 张）、东南西北（4 种 × 4 张）、中白发（3 种 × 4 张）、
+     * 春夏秋冬梅兰竹菊（各 1 张）的顺序生成整副牌
+     */
+    private static Tile[] buildDeck() {
+        Tile[] deck = new Tile[DECK_SIZE];
+        int index = 0;
+        for (TileType type : new TileType[]{TileType.WAN, TileType.TIAO, TileType.BING}) {
+            for (int value = 1; value <= 9; value++) {
+                for (int copy = 0; copy < 4; copy++) {
+                    deck[index] = new Tile(type, value, type.name() + value + "_" + copy, index);
+                    index++;
+                }
+            }
+        }
+        for (int value = 1; value <= 4; value++) {
+            for (int copy = 0; copy < 4; copy++) {
+                deck[index] = new Tile(TileType.WIND, value, TileType.WIND.name() + value + "_" + copy, index);
+                index++;
+            }
+        }
+        for (int value = 1; value <= 3; value++) {
+            for (int copy = 0; copy < 4; copy++) {
+                deck[index] = new Tile(TileType.DRAGON, value, TileType.DRAGON.name() + value + "_" + copy, index);
+                index++;
+            }
+        }
+        for (int value = 1; value <= 8; value++) {
+            deck[index] = new Tile(TileType.FLOWER, value, TileType.FLOWER.name() + value + "_0", index);
+            index++;
+        }
+        return deck;
+    }
+
+    private static Map<String, Tile> buildIdIndex() {
+        Map<String, Tile> byId = new HashMap<>(DECK_SIZE * 2);
+        for (Tile tile : DECK) {
+            byId.put(tile.id, tile);
+        }
+        return byId;
+    }
 }
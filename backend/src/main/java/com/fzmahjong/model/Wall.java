@@ -0,0 +1,115 @@
+package com.fzmahjong.model;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * 牌墙
+ *
+ * 一副牌固定存放在数组里，用牌头 / 牌尾两个游标表示剩余部分 [head, tail)：
+ * - 从牌头摸牌、从牌尾补花 / 杠后补牌 / 开金都只移动游标，不再整体搬移数组
+ * - 海底预留张数（基本 18 张，每个明杠多留 1 张）在开杠时累加，不再每次遍历所有玩家的明牌
+ * - 下一局直接复用同一个数组重新装牌；牌序由 PreparedHand 按 TileFactory#createWall(long) 洗好后整体装入，这里不再洗牌
+ * 对外只提供只读的 List 视图（序列化、预计算、超时判定等只需读取）。
+ * 非线程安全，与所属 GameState 一起在房间线程中使用。
+ */
+public class Wall {
+
+    /** 一副牌的张数（万条饼 108 + 风 16 + 箭 12 + 花 8） */
+    public static final int CAPACITY = 144;
+
+    /** 基本留给海底的张数 */
+    private static final int BASE_RESERVED = 18;
+
+    private Tile[] tiles = new Tile[CAPACITY];
+    private int head;                           // 牌头游标（下一张摸的牌）
+    private int tail;                           // 牌尾游标（最后一张牌的下一个位置）
+    private int reserved = BASE_RESERVED;       // 当前应留的海底张数
+    private final List<Tile> view = new View();
+
+    /**
+     * 装入新一局的牌墙（按牌头到牌尾的顺序），复用已有数组
+     */
+    public void reset(List<Tile> wallTiles) {
+        int size = wallTiles == null ? 0 : wallTiles.size();
+        if (size > tiles.length) {
+            tiles = new Tile[size];
+        }
+        for (int i = 0; i < size; i++) {
+            tiles[i] = wallTiles.get(i);
+        }
+        head = 0;
+        tail = size;
+        reserved = BASE_RESERVED;
+    }
+
+    /**
+     * 从牌头摸一张牌；牌墙为空时返回 null
+     */
+    public Tile drawFromHead() {
+        return head < tail ? tiles[head++] : null;
+    }
+
+    /**
+     * 从牌尾摸一张牌；牌墙为空时返回 null
+     */
+    public Tile drawFromTail() {
+        return head < tail ? tiles[--tail] : null;
+    }
+
+    /**
+     * 有人明杠：海底多留一张
+     */
+    public void reserveForKong() {
+        reserved++;
+    }
+
+    /**
+     * 摸牌后剩余张数是否仍多于海底预留张数
+     */
+    public boolean hasDrawableTiles() {
+        return size() > reserved;
+    }
+
+    public int getReserved() {
+        return reserved;
+    }
+
+    /**
+     * 牌墙位置的 Zobrist 哈希（牌头 / 牌尾游标 + 海底预留张数），随摸牌、开杠变化
+     */
+    public long positionHash() {
+        return Zobrist.wall(head, tail, reserved);
+    }
+
+    public int size() {
+        return tail - head;
+    }
+
+    public boolean isEmpty() {
+        return head == tail;
+    }
+
+    /**
+     * 剩余牌的只读视图（索引 0 为牌头），随摸牌实时变化
+     */
+    public List<Tile> asList() {
+        return view;
+    }
+
+    private final class View extends AbstractList<Tile> implements RandomAccess {
+        @Override
+        public Tile get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            return tiles[head + index];
+        }
+
+        @Override
+        public int size() {
+            return Wall.this.size();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.fzmahjong.model;
+
+import java.util.List;
+
+/**
+ * Zobrist 随机键表：给手牌、副露、牌池、牌墙位置等局面要素各配一个 64 位随机数，
+ * 局面哈希就是这些随机数的和，增删一个要素只要加 / 减一次对应的键
+ *
+ * - 用模 2^64 的加减而不是异或：同一种牌、同样的吃在一家手里可能出现多次，异或会两两抵消
+ * - 键由固定种子的 SplitMix64 生成，与 JDK 版本无关，进程重启后同一局面的哈希不变，
+ *   可以用来比对房间恢复前后 / 服务端与重放结果是否一致
+ * - 只覆盖影响规则判定的要素：花牌只计张数（花胡、计分只看张数），吃只记最小的牌种
+ *
+ * 用途：Player#getHandHash（按手牌缓存的计算的键）、Player#getZobristHash、GameState#getStateHash
+ * 和 CompactGameState#getHash（搜索置换表）。
+ */
+public final class Zobrist {
+
+    /** 副露类型（与 CompactGameState 的 CHI..AN_GANG 顺序一致） */
+    public static final int MELD_CHI = 0;
+    public static final int MELD_PENG = 1;
+    public static final int MELD_GANG = 2;
+    public static final int MELD_AN_GANG = 3;
+
+    private static final int MELD_TYPES = 4;
+    private static final int SEATS = 4;
+
+    private static final long SEED = 0x5F3759DF_2F7A_4E1DL;
+    private static long state = SEED;
+
+    private static final long[] HAND = nextKeys(Tile.KIND_COUNT);
+    private static final long[] MELD = nextKeys(MELD_TYPES * Tile.KIND_COUNT);
+    private static final long FLOWER = nextKey();
+    private static final long[] DISCARD = nextKeys(Wall.CAPACITY * Tile.KIND_COUNT);
+    private static final long[] WALL_HEAD = nextKeys(Wall.CAPACITY + 1);
+    private static final long[] WALL_TAIL = nextKeys(Wall.CAPACITY + 1);
+    private static final long[] RESERVED = nextKeys(Wall.CAPACITY + 1);
+    private static final long[] GOLD = nextKeys(Tile.KIND_COUNT + 1);
+    private static final long[] TURN = nextKeys(SEATS);
+    private static final long[] STAGE = nextKeys(32);
+    /** 每个座位的乘数（奇数，乘法可逆），同样的牌在不同座位上哈希不同 */
+    private static final long[] SEAT = nextKeys(SEATS);
+
+    static {
+        for (int i = 0; i < SEATS; i++) {
+            SEAT[i] |= 1L;
+        }
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * 手牌中的一张牌（按牌种）
+     */
+    public static long handTile(int kind) {
+        return HAND[kind];
+    }
+
+    /**
+     * 一副副露：类型（MELD_*）+ 牌种（吃为三张中最小的牌种）
+     */
+    public static long meld(int type, int kind) {
+        return MELD[type * Tile.KIND_COUNT + kind];
+    }
+
+    /**
+     * 一副明牌（吃 / 碰 / 明杠按牌的组成区分）或暗杠
+     */
+    public static long meld(List<Tile> tiles, boolean concealedKong) {
+        if (tiles == null) {
+            return 0L;
+        }
+        int kind = Integer.MAX_VALUE;
+        boolean sameKind = true;
+        for (Tile tile : tiles) {
+            if (tile == null) continue;
+            sameKind &= kind == Integer.MAX_VALUE || tile.getKind() == kind;
+            kind = Math.min(kind, tile.getKind());
+        }
+        if (kind < 0 || kind >= Tile.KIND_COUNT) {
+            return 0L;
+        }
+        int type = concealedKong ? MELD_AN_GANG
+            : tiles.size() == 4 ? MELD_GANG
+            : sameKind ? MELD_PENG : MELD_CHI;
+        return meld(type, kind);
+    }
+
+    /**
+     * 若干张花牌
+     */
+    public static long flowers(int count) {
+        return FLOWER * count;
+    }
+
+    /**
+     * 牌池第 index 张（从 0 开始）是该牌种
+     */
+    public static long discard(int index, int kind) {
+        return DISCARD[index * Tile.KIND_COUNT + kind];
+    }
+
+    /**
+     * 牌墙位置：牌头 / 牌尾游标与海底预留张数
+     */
+    public static long wall(int head, int tail, int reserved) {
+        return WALL_HEAD[head] + WALL_TAIL[tail] + RESERVED[Math.min(reserved, Wall.CAPACITY)];
+    }
+
+    /**
+     * 金的牌种（未开金为 -1）
+     */
+    public static long gold(int kind) {
+        return GOLD[kind + 1];
+    }
+
+    /**
+     * 轮到的座位
+     */
+    public static long turn(int seat) {
+        return TURN[seat & (SEATS - 1)];
+    }
+
+    /**
+     * 搜索局面的阶段标志（CompactGameState：该出牌 / 杠后补牌 / 可响应的弃牌座位，编码 &lt; 32）
+     */
+    public static long stage(int code) {
+        return STAGE[code & 31];
+    }
+
+    /**
+     * 把一家的哈希放到座位上（乘法对加法可分配，逐张增减时也可以直接对单张的键调用）
+     */
+    public static long seat(int seat, long playerHash) {
+        return playerHash * SEAT[seat & (SEATS - 1)];
+    }
+
+    private static long[] nextKeys(int n) {
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = nextKey();
+        }
+        return keys;
+    }
+
+    /**
+     * SplitMix64
+     */
+    private static long nextKey() {
+        long z = (state += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,132 @@
+package com.fzmahjong.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 房间串行执行器（每个房间一个单写者邮箱）
+ *
+ * GameState 内部全是 ArrayList / HashMap，不是线程安全的；所有会读写某个房间对局状态的操作
+ * （玩家的出牌 / 吃碰杠胡 / 过、补花开金、延迟开局、广播）都必须投递到该房间的邮箱里执行：
+ * - 同一房间的任务严格按投递顺序、一次一个地执行，不需要任何全局锁
+ * - 邮箱有任务时才占用一个虚拟线程把队列跑空，空闲房间不占线程；不同房间之间完全并行
+ * - 任务抛出的异常只记日志，不影响该房间后续任务
+ */
+@Service
+public class RoomExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(RoomExecutor.class);
+
+    private final ExecutorService workers = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("room-", 0).factory());
+    private final Map<String, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    /**
+     * 单个房间的邮箱：running 保证同一时刻最多一个线程在跑这个队列
+     */
+    private final class Mailbox implements Runnable {
+        private final String roomId;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean running = new AtomicBoolean();
+
+        private Mailbox(String roomId) {
+            this.roomId = roomId;
+        }
+
+        private void post(Runnable task) {
+            tasks.add(task);
+            schedule();
+        }
+
+        private void schedule() {
+            if (!tasks.isEmpty() && running.compareAndSet(false, true)) {
+                workers.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    try {
+                        task.run();
+                        executed.increment();
+                    } catch (RuntimeException e) {
+                        failed.increment();
+                        log.error("房间 {} 的任务执行失败", roomId, e);
+                    }
+                }
+            } finally {
+                running.set(false);
+                // 释放 running 之后可能又有新任务入队，补一次调度，避免任务滞留
+                schedule();
+            }
+        }
+    }
+
+    /**
+     * 把任务投递到房间邮箱，异步执行
+     */
+    public void execute(String roomId, Runnable task) {
+        mailboxes.computeIfAbsent(roomId, Mailbox::new).post(task);
+    }
+
+    /**
+     * 把有返回值的任务投递到房间邮箱（如 REST 加入房间需要同步拿到结果）
+     */
+    public <T> CompletableFuture<T> submit(String roomId, Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        execute(roomId, () -> {
+            try {
+                future.complete(task.get());
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+                throw e;
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 房间解散后移除其邮箱（已入队的任务仍会按顺序执行完，届时房间已不存在，任务会直接返回）
+     */
+    public void forgetRoom(String roomId) {
+        mailboxes.remove(roomId);
+    }
+
+    public Map<String, Long> stats() {
+        long queued = 0;
+        for (Mailbox mailbox : mailboxes.values()) {
+            queued += mailbox.tasks.size();
+        }
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("rooms", (long) mailboxes.size());
+        stats.put("queued", queued);
+        stats.put("executed", executed.sum());
+        stats.put("failed", failed.sum());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
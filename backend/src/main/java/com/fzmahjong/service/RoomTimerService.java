@@ -0,0 +1,143 @@
+package com.fzmahjong.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 房间定时任务（延迟广播、延迟开下一局等）
+ *
+ * 所有房间共用一个调度线程，不再为每个延迟任务单独起线程再 sleep：
+ * - 定时任务按（房间, 名称）登记，同名任务再次登记会取消旧的；可以单独取消，也可以随房间一起取消
+ * - 到期后任务被投递到该房间的 {@link RoomExecutor} 邮箱中执行，与玩家操作串行，可以直接读写对局状态
+ * - 取消同样应在房间邮箱里调用：已到期但还在邮箱里排队的任务执行前会检查取消标记，取消后一定不会再执行
+ */
+@Service
+public class RoomTimerService {
+
+    private static final Logger log = LoggerFactory.getLogger(RoomTimerService.class);
+
+    private final RoomExecutor roomExecutor;
+    private final ScheduledThreadPoolExecutor scheduler;
+    /** roomId -> (任务名 -> 定时任务) */
+    private final Map<String, Map<String, RoomTimer>> timers = new ConcurrentHashMap<>();
+
+    private final LongAdder scheduled = new LongAdder();
+    private final LongAdder fired = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+
+    public RoomTimerService(RoomExecutor roomExecutor) {
+        this.roomExecutor = roomExecutor;
+        this.scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "room-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // 取消的任务立即从队列中移除，避免大量取消后队列堆积
+        scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * 一个已登记的定时任务；done 置位后（已执行或已取消）不会再执行
+     */
+    private static final class RoomTimer {
+        private final AtomicBoolean done = new AtomicBoolean();
+        private volatile ScheduledFuture<?> future;
+    }
+
+    /**
+     * 登记房间定时任务：delay 之后在房间邮箱中执行 task；同一房间同名的未执行任务会被取消
+     */
+    public void schedule(String roomId, String name, long delay, TimeUnit unit, Runnable task) {
+        RoomTimer timer = new RoomTimer();
+        RoomTimer previous = timers.computeIfAbsent(roomId, id -> new ConcurrentHashMap<>()).put(name, timer);
+        if (previous != null) {
+            cancel(previous);
+        }
+        scheduled.increment();
+        timer.future = scheduler.schedule(() -> roomExecutor.execute(roomId, () -> {
+            if (!timer.done.compareAndSet(false, true)) {
+                return;
+            }
+            remove(roomId, name, timer);
+            fired.increment();
+            task.run();
+        }), delay, unit);
+        log.debug("房间 {} 登记定时任务 {}，{} {} 后执行", roomId, name, delay, unit);
+    }
+
+    /**
+     * 取消房间的某个定时任务；返回是否确实取消了一个尚未执行的任务
+     */
+    public boolean cancel(String roomId, String name) {
+        Map<String, RoomTimer> roomTimers = timers.get(roomId);
+        RoomTimer timer = roomTimers == null ? null : roomTimers.get(name);
+        if (timer == null) {
+            return false;
+        }
+        remove(roomId, name, timer);
+        boolean result = cancel(timer);
+        if (result) {
+            log.debug("房间 {} 取消定时任务 {}", roomId, name);
+        }
+        return result;
+    }
+
+    /**
+     * 取消房间的全部定时任务（房间解散时）
+     */
+    public void cancelAll(String roomId) {
+        Map<String, RoomTimer> roomTimers = timers.remove(roomId);
+        if (roomTimers != null) {
+            roomTimers.values().forEach(this::cancel);
+        }
+    }
+
+    private boolean cancel(RoomTimer timer) {
+        if (!timer.done.compareAndSet(false, true)) {
+            return false;
+        }
+        ScheduledFuture<?> future = timer.future;
+        if (future != null) {
+            future.cancel(false);
+        }
+        cancelled.increment();
+        return true;
+    }
+
+    private void remove(String roomId, String name, RoomTimer timer) {
+        timers.computeIfPresent(roomId, (id, roomTimers) -> {
+            roomTimers.remove(name, timer);
+            return roomTimers.isEmpty() ? null : roomTimers;
+        });
+    }
+
+    public Map<String, Long> stats() {
+        long pending = 0;
+        for (Map<String, RoomTimer> roomTimers : timers.values()) {
+            pending += roomTimers.size();
+        }
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("rooms", (long) timers.size());
+        stats.put("pending", pending);
+        stats.put("scheduled", scheduled.sum());
+        stats.put("fired", fired.sum());
+        stats.put("cancelled", cancelled.sum());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
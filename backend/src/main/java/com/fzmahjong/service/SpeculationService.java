@@ -0,0 +1,261 @@
+package com.fzmahjong.service;
+
+import com.fzmahjong.engine.GameEngine;
+import com.fzmahjong.engine.SpeculativeResults;
+import com.fzmahjong.engine.WinValidator;
+import com.fzmahjong.model.GamePhase;
+import com.fzmahjong.model.GameState;
+import com.fzmahjong.model.Player;
+import com.fzmahjong.model.Tile;
+import com.fzmahjong.model.Zobrist;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 等待玩家操作期间的预计算
+ *
+ * 房间在等人出牌 / 等人决定吃碰杠胡时是空闲的，而服务端已经知道：
+ * - 下一个摸牌的人（没人响应时是出牌者的下家）会摸到牌墙的哪一张（摸到花则从牌尾补）；
+ * - 正在思考的玩家每一种可能的出牌。
+ * 这里用一个低优先级的后台线程提前把这些局面的胡牌判定（摸牌后的自摸）和听牌位集
+ * （下一次别人出牌时的 ClaimIndex 重建）算好，按手牌哈希记进该房间的 SpeculativeResults，
+ * 真正摸牌 / 重建时房间线程直接取用，命中情况见 /api/stats/speculation。
+ * 单局结束后的停留期间，同一个后台线程还会提前洗好、发好下一局的牌（见 GameEngine#prepareNextHand）。
+ *
+ * - 只读快照：任务在房间邮箱里复制出手牌与金牌，后台线程从不接触 GameState
+ * - 可取消：每个房间一个代数，每次广播（即房间状态变化）都会让旧任务在下一次计算前作废
+ * - 有预算：每回合最多计算若干手牌；任务队列满时直接丢弃，提交方永远不会被阻塞
+ */
+@Service
+public class SpeculationService {
+
+    private static final Logger log = LoggerFactory.getLogger(SpeculationService.class);
+
+    private final boolean enabled;
+    private final int maxEvaluationsPerTurn;
+    private final ThreadPoolExecutor worker;
+    /** roomId -> 当前代数（任务只在代数未变时继续计算） */
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    private final LongAdder jobs = new LongAdder();
+    private final LongAdder superseded = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder preparedHands = new LongAdder();
+
+    public SpeculationService(@Value("${mahjong.speculation.enabled:true}") boolean enabled,
+                              @Value("${mahjong.speculation.max-evaluations-per-turn:20}") int maxEvaluationsPerTurn,
+                              @Value("${mahjong.speculation.queue-capacity:256}") int queueCapacity) {
+        this.enabled = enabled;
+        this.maxEvaluationsPerTurn = maxEvaluationsPerTurn;
+        this.worker = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "speculation");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+    }
+
+    /**
+     * 一次预计算：全部是在房间邮箱里复制出来的只读数据
+     */
+    private final class Job implements Runnable {
+        private final AtomicLong generation;
+        private final long expected;
+        private final SpeculativeResults results;
+        private final Tile goldTile;
+        /** 下一个摸牌者摸牌后的手牌（无法预知时为 null） */
+        private final List<Tile> drawerHandAfterDraw;
+        /** 正在思考出牌的玩家的手牌（不在等人出牌时为 null） */
+        private final List<Tile> discarderHand;
+
+        private Job(AtomicLong generation, long expected, SpeculativeResults results, Tile goldTile,
+                    List<Tile> drawerHandAfterDraw, List<Tile> discarderHand) {
+            this.generation = generation;
+            this.expected = expected;
+            this.results = results;
+            this.goldTile = goldTile;
+            this.drawerHandAfterDraw = drawerHandAfterDraw;
+            this.discarderHand = discarderHand;
+        }
+
+        private boolean cancelled() {
+            return generation.get() != expected;
+        }
+
+        @Override
+        public void run() {
+            int budget = maxEvaluationsPerTurn;
+            if (drawerHandAfterDraw != null && budget > 0) {
+                if (cancelled()) {
+                    superseded.increment();
+                    return;
+                }
+                results.putWin(SpeculativeResults.handHash(drawerHandAfterDraw), goldTile,
+                    WinValidator.canWin(drawerHandAfterDraw, goldTile, false));
+                evaluations.increment();
+                budget--;
+            }
+            if (discarderHand == null) {
+                return;
+            }
+            // 每种可打出的牌各算一次“打出后”的听牌位集（同种牌只算一次，金牌不能打）
+            long seen = 0L;
+            long handHash = SpeculativeResults.handHash(discarderHand);
+            List<Tile> afterDiscard = new ArrayList<>(discarderHand.size());
+            for (int i = 0; i < discarderHand.size() && budget > 0; i++) {
+                Tile tile = discarderHand.get(i);
+                int kind = tile.getKind();
+                if (tile.isFlowerTile() || (goldTile != null && tile.isSameAs(goldTile))
+                        || (seen & (1L << kind)) != 0) {
+                    continue;
+                }
+                seen |= 1L << kind;
+                if (cancelled()) {
+                    superseded.increment();
+                    return;
+                }
+                afterDiscard.clear();
+                afterDiscard.addAll(discarderHand.subList(0, i));
+                afterDiscard.addAll(discarderHand.subList(i + 1, discarderHand.size()));
+                results.putTing(handHash - Zobrist.handTile(kind), goldTile,
+                    WinValidator.getWinningKinds(afterDiscard, goldTile));
+                evaluations.increment();
+                budget--;
+            }
+        }
+    }
+
+    /**
+     * 房间状态变化后调用（需在房间邮箱中）：作废该房间旧的预计算，并按新局面提交一次新的，
+     * 结果写进该房间引擎的 SpeculativeResults
+     */
+    public void onStateChanged(String roomId, GameState gameState, GameEngine engine) {
+        if (!enabled) {
+            return;
+        }
+        AtomicLong generation = generations.computeIfAbsent(roomId, id -> new AtomicLong());
+        long expected = generation.incrementAndGet();
+        if (engine == null || gameState.getPhase() != GamePhase.PLAYING || gameState.getPlayers().size() < 4) {
+            return;
+        }
+
+        String actionType = gameState.getCurrentActionType();
+        boolean waitingDiscard = gameState.getCurrentActionPlayerId() == null || "drawAction".equals(actionType);
+        boolean waitingClaim = !waitingDiscard && !"anGang".equals(actionType);
+        List<Tile> discarderHand = null;
+        int drawerIndex;
+        if (waitingDiscard) {
+            Player current = gameState.getCurrentPlayer();
+            discarderHand = List.copyOf(current.getHandTiles());
+            drawerIndex = (current.getPosition() + 1) % 4;
+        } else if (waitingClaim) {
+            drawerIndex = (gameState.getLastDiscardPlayerIndex() + 1) % 4;
+        } else {
+            return;
+        }
+
+        List<Tile> drawerHandAfterDraw = null;
+        Tile next = peekNextDraw(gameState.getWallTiles(), gameState.getWallReserved());
+        if (next != null && drawerIndex >= 0 && drawerIndex < 4) {
+            Player drawer = gameState.getPlayers().get(drawerIndex);
+            List<Tile> hand = new ArrayList<>(drawer.getHandTiles().size() + 1);
+            hand.addAll(drawer.getHandTiles());
+            hand.add(next);
+            drawerHandAfterDraw = hand;
+        }
+
+        try {
+            worker.execute(new Job(generation, expected, engine.getSpeculativeResults(),
+                gameState.getGoldTile(), drawerHandAfterDraw, discarderHand));
+            jobs.increment();
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+            log.debug("预计算队列已满，丢弃房间 {} 的预计算", roomId);
+        }
+    }
+
+    /**
+     * 单局结束进入停留时调用（需在房间邮箱中）：在后台预先洗牌发牌，开局时直接换入。
+     * 队列满被丢弃时开局会按同一种子现场发牌，结果不变
+     */
+    public void prepareNextHand(String roomId, GameEngine engine) {
+        if (!enabled) {
+            return;
+        }
+        Runnable task = engine.prepareNextHand();
+        if (task == null) {
+            return;
+        }
+        try {
+            worker.execute(() -> {
+                task.run();
+                preparedHands.increment();
+            });
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+            log.debug("预计算队列已满，房间 {} 的下一局改为开局时现场发牌", roomId);
+        }
+    }
+
+    /**
+     * 下一次摸牌最终会拿到的有效牌，与 GameEngine#playerDraw 一致：
+     * 剩余张数不多于海底预留时不再摸牌（流局）；摸牌头一张，是花（含风、箭）且仍多于海底预留时依次从牌尾补。
+     * 补到海底仍是花、或不会摸牌时返回 null
+     */
+    private static Tile peekNextDraw(List<Tile> wall, int reserved) {
+        int head = 0;
+        int tail = wall.size();
+        if (tail - head <= reserved) {
+            return null;
+        }
+        Tile tile = wall.get(head++);
+        while (tile.isFlowerTile() && tail - head > reserved) {
+            tile = wall.get(--tail);
+        }
+        return tile.isFlowerTile() ? null : tile;
+    }
+
+    /**
+     * 房间解散后作废其预计算
+     */
+    public void forgetRoom(String roomId) {
+        AtomicLong generation = generations.remove(roomId);
+        if (generation != null) {
+            generation.incrementAndGet();
+        }
+    }
+
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("jobs", jobs.sum());
+        stats.put("queued", (long) worker.getQueue().size());
+        stats.put("superseded", superseded.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("evaluations", evaluations.sum());
+        stats.put("preparedHands", preparedHands.sum());
+        stats.putAll(SpeculativeResults.stats());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+}
@@ -0,0 +1,409 @@
+package com.fzmahjong.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fzmahjong.model.GameState;
+import com.fzmahjong.model.Player;
+import com.fzmahjong.model.Tile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 房间状态同步：带版本号的增量广播
+ *
+ * 每个房间维护一个单调递增的状态版本号，并记住“上一次已经发出去的”公共视图和每位玩家的私有视图。
+ * 每次广播都重新构建视图并与上一版逐字段比较，只下发变化的部分：
+ * - /topic/room/{roomId}：公共增量
+ *   {type:"delta", version, baseVersion, set:{字段:新值}, lists:{discardedTiles:{keep,append}}, players:{size,changed}}
+ * - /topic/room/{roomId}/player/{playerId}：私有增量（手牌、花牌、自己的副露与暗杠、可用操作），没有变化则不发
+ * - 房间第一次广播 / 玩家第一次收到私有消息时发完整快照 {type:"snapshot", version, public, private}
+ *
+ * 客户端只接受 baseVersion ≤ 本地版本 < version 的增量；发现 baseVersion 大于本地版本（丢了消息）时
+ * 发 /app/game/sync，服务端通过 {@link #sendSnapshot} 回一份当前版本的完整快照。
+ *
+ * 序列化：增量只编码差异本身；完整的公共 JSON 只在要发快照时才编码，并按公共版本号缓存，
+ * 同一版本的公共快照和各玩家的私有快照都直接拼接这份字节（外层信封 + 公共 JSON + 各自的私有片段），
+ * 所有消息都以已编码的 byte[] 发给消息代理，不再逐条走 convertAndSend 重复序列化。
+ */
+@Service
+public class StateBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(StateBroadcaster.class);
+
+    /** 只会在末尾追加 / 截断的列表字段：按“保留前 keep 张 + 追加”下发，而不是整表重发 */
+    private static final String DISCARDED_TILES = "discardedTiles";
+    private static final String PLAYERS = "players";
+
+    private static final byte[] PRIVATE_FIELD = ",\"private\":".getBytes(StandardCharsets.UTF_8);
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+    private final Map<String, RoomSync> rooms = new ConcurrentHashMap<>();
+
+    private final LongAdder deltas = new LongAdder();
+    private final LongAdder snapshots = new LongAdder();
+    private final LongAdder unchanged = new LongAdder();
+    private final LongAdder publicEncodes = new LongAdder();
+    private final LongAdder sentBytes = new LongAdder();
+
+    public StateBroadcaster(SimpMessagingTemplate messagingTemplate, ObjectMapper objectMapper) {
+        this.messagingTemplate = messagingTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 一个房间已经下发过的视图与版本号（读写都在该对象的锁内）
+     */
+    private static final class RoomSync {
+        long version;
+        long publicVersion;
+        Map<String, Object> publicView;
+        /** publicView 的 JSON 编码（第一次发快照时才编码），对应的公共版本号为 publicJsonVersion */
+        byte[] publicJson;
+        long publicJsonVersion;
+        final Map<String, Long> privateVersions = new HashMap<>();
+        final Map<String, Map<String, Object>> privateViews = new HashMap<>();
+    }
+
+    /**
+     * 广播一次状态变化：只发有变化的公共字段和有变化的玩家私有视图；完全没变化时什么都不发
+     */
+    public void broadcast(String roomId, GameState gameState) {
+        RoomSync sync = rooms.computeIfAbsent(roomId, id -> new RoomSync());
+        synchronized (sync) {
+            Map<String, Object> publicView = buildPublicView(gameState);
+            boolean publicChanged = sync.publicView == null || !publicView.equals(sync.publicView);
+
+            Map<String, Map<String, Object>> changedPrivate = new LinkedHashMap<>();
+            for (Player player : gameState.getPlayers()) {
+                Map<String, Object> privateView = buildPrivateView(gameState, player);
+                if (!privateView.equals(sync.privateViews.get(player.getId()))) {
+                    changedPrivate.put(player.getId(), privateView);
+                }
+            }
+
+            if (!publicChanged && changedPrivate.isEmpty()) {
+                unchanged.increment();
+                return;
+            }
+
+            long version = ++sync.version;
+            if (publicChanged) {
+                Map<String, Object> before = sync.publicView;
+                long baseVersion = sync.publicVersion;
+                sync.publicView = publicView;
+                sync.publicVersion = version;
+                if (before == null) {
+                    send("/topic/room/" + roomId, snapshotPayload(version, publicJson(sync), null), true);
+                } else {
+                    send("/topic/room/" + roomId,
+                        encode(deltaMessage(version, baseVersion, before, publicView)), false);
+                }
+            }
+
+            for (Map.Entry<String, Map<String, Object>> entry : changedPrivate.entrySet()) {
+                String playerId = entry.getKey();
+                Map<String, Object> before = sync.privateViews.get(playerId);
+                if (before == null) {
+                    send(privateDestination(roomId, playerId),
+                        snapshotPayload(version, publicJson(sync), entry.getValue()), true);
+                } else {
+                    send(privateDestination(roomId, playerId),
+                        encode(deltaMessage(version, sync.privateVersions.get(playerId), before, entry.getValue())),
+                        false);
+                }
+                sync.privateViews.put(playerId, entry.getValue());
+                sync.privateVersions.put(playerId, version);
+            }
+        }
+    }
+
+    /**
+     * 给单个玩家发当前版本的完整快照（玩家刚连上 / 客户端检测到版本缺口时）
+     */
+    public void sendSnapshot(String roomId, GameState gameState, String playerId) {
+        // 先把尚未广播的变化发出去，保证快照与之后的增量首尾相接
+        broadcast(roomId, gameState);
+
+        RoomSync sync = rooms.get(roomId);
+        if (sync == null) {
+            return;
+        }
+        synchronized (sync) {
+            Map<String, Object> privateView = sync.privateViews.get(playerId);
+            if (privateView == null) {
+                log.warn("玩家 {} 不在房间 {} 中，无法发送快照", playerId, roomId);
+                return;
+            }
+            send(privateDestination(roomId, playerId), snapshotPayload(sync.version, publicJson(sync), privateView), true);
+        }
+    }
+
+    /**
+     * 给单个玩家发一条不属于状态同步的私有消息（如按需请求的听牌提示），不占用状态版本号
+     */
+    public void sendToPlayer(String roomId, String playerId, Map<String, Object> message) {
+        publish(privateDestination(roomId, playerId), encode(message));
+    }
+
+    /**
+     * 房间解散后丢弃其同步状态
+     */
+    public void forgetRoom(String roomId) {
+        rooms.remove(roomId);
+    }
+
+    /**
+     * 增量同步统计：已发增量数、快照数、因无变化而省掉的广播数、为快照编码公共视图的次数
+     */
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("rooms", (long) rooms.size());
+        stats.put("deltas", deltas.sum());
+        stats.put("snapshots", snapshots.sum());
+        stats.put("unchanged", unchanged.sum());
+        stats.put("publicEncodes", publicEncodes.sum());
+        stats.put("sentBytes", sentBytes.sum());
+        return stats;
+    }
+
+    /**
+     * 发送已编码好的 JSON（不再经过消息转换器）
+     */
+    private void send(String destination, byte[] payload, boolean snapshot) {
+        if (snapshot) {
+            snapshots.increment();
+        } else {
+            deltas.increment();
+        }
+        publish(destination, payload);
+    }
+
+    private void publish(String destination, byte[] payload) {
+        sentBytes.add(payload.length);
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(true);
+        messagingTemplate.send(destination, MessageBuilder.createMessage(payload, accessor.getMessageHeaders()));
+    }
+
+    private byte[] encode(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("房间状态序列化失败", e);
+        }
+    }
+
+    /**
+     * 当前公共版本的 JSON：同一版本只编码一次，只有发快照时才会用到（调用方持有 sync 的锁）
+     */
+    private byte[] publicJson(RoomSync sync) {
+        if (sync.publicJson == null || sync.publicJsonVersion != sync.publicVersion) {
+            sync.publicJson = encode(sync.publicView);
+            sync.publicJsonVersion = sync.publicVersion;
+            publicEncodes.increment();
+        }
+        return sync.publicJson;
+    }
+
+    private static String privateDestination(String roomId, String playerId) {
+        return "/topic/room/" + roomId + "/player/" + playerId;
+    }
+
+    // === 消息 ===
+
+    /**
+     * 快照 {type:"snapshot", version, public, private}：直接拼接已缓存的公共 JSON，只编码私有片段
+     */
+    private byte[] snapshotPayload(long version, byte[] publicJson, Map<String, Object> privateView) {
+        byte[] head = ("{\"type\":\"snapshot\",\"version\":" + version + ",\"public\":")
+            .getBytes(StandardCharsets.UTF_8);
+        byte[] privateJson = privateView == null ? null : encode(privateView);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(head.length + publicJson.length
+            + (privateJson == null ? 0 : PRIVATE_FIELD.length + privateJson.length) + 1);
+        out.writeBytes(head);
+        out.writeBytes(publicJson);
+        if (privateJson != null) {
+            out.writeBytes(PRIVATE_FIELD);
+            out.writeBytes(privateJson);
+        }
+        out.write('}');
+        return out.toByteArray();
+    }
+
+    /**
+     * 逐字段比较两版视图：
+     * - 普通字段：变化了就放进 set（整值替换）
+     * - discardedTiles：只发“保留前 keep 张 + 追加的牌”
+     * - players：只发变化了的座位
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> deltaMessage(long version, long baseVersion,
+                                                    Map<String, Object> before, Map<String, Object> after) {
+        Map<String, Object> set = new LinkedHashMap<>();
+        Map<String, Object> lists = new LinkedHashMap<>();
+        Map<String, Object> players = null;
+
+        for (Map.Entry<String, Object> entry : after.entrySet()) {
+            String key = entry.getKey();
+            Object previous = before.get(key);
+            Object current = entry.getValue();
+            if (Objects.equals(previous, current) && before.containsKey(key)) {
+                continue;
+            }
+            if (DISCARDED_TILES.equals(key) && previous instanceof List && current instanceof List) {
+                lists.put(key, listPatch((List<Object>) previous, (List<Object>) current));
+            } else if (PLAYERS.equals(key) && previous instanceof List && current instanceof List) {
+                players = playersPatch((List<Object>) previous, (List<Object>) current);
+            } else {
+                set.put(key, current);
+            }
+        }
+
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("type", "delta");
+        message.put("version", version);
+        message.put("baseVersion", baseVersion);
+        if (!set.isEmpty()) {
+            message.put("set", set);
+        }
+        if (!lists.isEmpty()) {
+            message.put("lists", lists);
+        }
+        if (players != null) {
+            message.put("players", players);
+        }
+        return message;
+    }
+
+    private static Map<String, Object> listPatch(List<Object> before, List<Object> after) {
+        int keep = 0;
+        int limit = Math.min(before.size(), after.size());
+        while (keep < limit && Objects.equals(before.get(keep), after.get(keep))) {
+            keep++;
+        }
+        Map<String, Object> patch = new LinkedHashMap<>();
+        patch.put("keep", keep);
+        patch.put("append", after.subList(keep, after.size()));
+        return patch;
+    }
+
+    private static Map<String, Object> playersPatch(List<Object> before, List<Object> after) {
+        Map<String, Object> changed = new LinkedHashMap<>();
+        for (int i = 0; i < after.size(); i++) {
+            if (i >= before.size() || !Objects.equals(before.get(i), after.get(i))) {
+                changed.put(String.valueOf(i), after.get(i));
+            }
+        }
+        Map<String, Object> patch = new LinkedHashMap<>();
+        patch.put("size", after.size());
+        patch.put("changed", changed);
+        return patch;
+    }
+
+    // === 视图（所有值都是拷贝，之后的对局变化不会改到已记录的旧视图）===
+
+    /**
+     * 构建私有视图（只有自己能看到：手牌、花牌、明牌 + 暗杠、可用操作）
+     */
+    private static Map<String, Object> buildPrivateView(GameState gameState, Player player) {
+        Map<String, Object> view = new HashMap<>();
+        view.put("myHandTiles", List.copyOf(player.getHandTiles()));
+        view.put("myFlowerTiles", List.copyOf(player.getFlowerTiles()));
+        // 自己视角：明牌 + 暗杠都要看得到
+        List<List<Tile>> myAllMelds = new ArrayList<>();
+        if (player.getExposedMelds() != null) {
+            myAllMelds.addAll(copyMelds(player.getExposedMelds()));
+        }
+        if (player.getConcealedKongs() != null) {
+            myAllMelds.addAll(copyMelds(player.getConcealedKongs()));
+        }
+        view.put("myExposedMelds", myAllMelds);
+        // ActionSet 不可变，可以直接放进视图；序列化结构见 ActionSet.Serializer
+        view.put("availableActions", gameState.getPlayerActions(player));
+        return view;
+    }
+
+    /**
+     * 构建公共视图（所有玩家都能看到的信息）
+     */
+    private static Map<String, Object> buildPublicView(GameState gameState) {
+        Map<String, Object> view = new HashMap<>();
+
+        view.put("roomId", gameState.getRoomId());
+        view.put("phase", gameState.getPhase());
+        view.put("currentPlayerIndex", gameState.getCurrentPlayerIndex());
+        view.put("dealerIndex", gameState.getDealerIndex());
+        view.put("consecutiveDealerWins", gameState.getConsecutiveDealerWins());
+        view.put("dealerChangesSinceCycleStart", gameState.getDealerChangesSinceCycleStart());
+        view.put("continueDecisions", new HashMap<>(gameState.getContinueDecisions()));
+        view.put("goldTile", gameState.getGoldTile());
+        // 补花 / 开金阶段状态
+        view.put("replacingFlowers", gameState.isReplacingFlowers());
+        view.put("currentFlowerPlayerIndex", gameState.getCurrentFlowerPlayerIndex());
+        view.put("flowerRoundCount", gameState.getFlowerRoundCount());
+        view.put("waitingOpenGold", gameState.isWaitingOpenGold());
+        // 最近一次摸到/补到的最终有效牌（非花）及其相关信息
+        view.put("lastDrawnTile", gameState.getLastDrawnTile());
+        view.put("lastDrawPlayerIndex", gameState.getLastDrawPlayerIndex());
+        view.put("lastDrawValidHandCountBefore", gameState.getLastDrawValidHandCountBefore());
+        view.put("lastDiscardedTile", gameState.getLastDiscardedTile());
+        view.put(DISCARDED_TILES, List.copyOf(gameState.getDiscardedTiles()));
+        view.put("remainingTiles", gameState.getWallTiles().size());
+        view.put("currentActionPlayerId", gameState.getCurrentActionPlayerId());
+        view.put("currentActionType", gameState.getCurrentActionType());
+        // 最近一次已实际执行的动作（用于前端“吃/碰/杠/胡”提示，只在确认后才设置）
+        view.put("lastActionPlayerId", gameState.getLastActionPlayerId());
+        view.put("lastActionType", gameState.getLastActionType());
+        view.put("lastWinPlayerId", gameState.getLastWinPlayerId());
+        view.put("lastWinType", gameState.getLastWinType());
+        view.put("lastWinSettlement", gameState.getLastWinSettlement() == null
+            ? null : new HashMap<>(gameState.getLastWinSettlement()));
+
+        // 玩家信息（隐藏手牌）
+        List<Map<String, Object>> playersInfo = new ArrayList<>();
+        for (Player p : gameState.getPlayers()) {
+            Map<String, Object> playerInfo = new HashMap<>();
+            playerInfo.put("id", p.getId());
+            playerInfo.put("name", p.getName());
+            playerInfo.put("position", p.getPosition());
+            playerInfo.put("score", p.getScore());
+            playerInfo.put("handSize", p.getHandSize());
+            playerInfo.put("flowerTiles", List.copyOf(p.getFlowerTiles()));
+            playerInfo.put("exposedMelds", copyMelds(p.getExposedMelds()));
+            playerInfo.put("isDealer", p.isDealer());
+            // 连庄数只对当前庄家展示；下庄自动清0
+            playerInfo.put("dealerStreak", p.isDealer() ? gameState.getConsecutiveDealerWins() : 0);
+            playersInfo.add(playerInfo);
+        }
+        view.put(PLAYERS, playersInfo);
+
+        return view;
+    }
+
+    private static List<List<Tile>> copyMelds(List<List<Tile>> melds) {
+        List<List<Tile>> copy = new ArrayList<>(melds.size());
+        for (List<Tile> meld : melds) {
+            copy.add(List.copyOf(meld));
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,136 @@
+package com.fzmahjong.service;
+
+import com.fzmahjong.model.GameState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 操作超时：玩家长时间不操作时由服务端托管（见 GameEngine#autoAct），避免整桌卡死、房间永远不释放
+ *
+ * 每次广播后根据对局状态算出“当前在等谁做什么”（回合标识）：
+ * - 回合标识变化：按阶段重新登记该房间的超时任务（补花 / 开金 / 出牌 / 吃碰杠胡各有独立的超时时间）
+ * - 回合标识不变（例如只是有人加入、重发状态）：保留原来的计时，不重新开始
+ * - 不在等待任何人（单局结束、确认继续等）：取消超时任务
+ * 超时任务由 {@link RoomTimerService} 统一调度，并在房间邮箱中执行。
+ */
+@Service
+public class TurnTimeoutService {
+
+    private static final Logger log = LoggerFactory.getLogger(TurnTimeoutService.class);
+
+    /** 房间定时任务名 */
+    private static final String TIMER_TURN = "turnTimeout";
+
+    private final RoomTimerService roomTimers;
+    private final boolean enabled;
+    private final Duration discardTimeout;
+    private final Duration claimTimeout;
+    private final Duration flowerTimeout;
+    private final Duration openGoldTimeout;
+
+    /** roomId -> 当前已计时的回合标识 */
+    private final Map<String, String> armedTurns = new ConcurrentHashMap<>();
+    private final LongAdder expired = new LongAdder();
+
+    public TurnTimeoutService(RoomTimerService roomTimers,
+                              @Value("${mahjong.turn-timeout.enabled:true}") boolean enabled,
+                              @Value("${mahjong.turn-timeout.discard:30s}") Duration discardTimeout,
+                              @Value("${mahjong.turn-timeout.claim:15s}") Duration claimTimeout,
+                              @Value("${mahjong.turn-timeout.flower:15s}") Duration flowerTimeout,
+                              @Value("${mahjong.turn-timeout.open-gold:15s}") Duration openGoldTimeout) {
+        this.roomTimers = roomTimers;
+        this.enabled = enabled;
+        this.discardTimeout = discardTimeout;
+        this.claimTimeout = claimTimeout;
+        this.flowerTimeout = flowerTimeout;
+        this.openGoldTimeout = openGoldTimeout;
+    }
+
+    /**
+     * 按最新状态登记 / 保留 / 取消房间的操作超时（需在房间邮箱中调用）
+     *
+     * @param onTimeout 超时后在房间邮箱中执行的托管操作
+     */
+    public void arm(String roomId, GameState gameState, Runnable onTimeout) {
+        if (!enabled) {
+            return;
+        }
+        String turn = turnKey(gameState);
+        if (turn == null) {
+            if (armedTurns.remove(roomId) != null) {
+                roomTimers.cancel(roomId, TIMER_TURN);
+            }
+            return;
+        }
+        if (turn.equals(armedTurns.put(roomId, turn))) {
+            return;
+        }
+        Duration timeout = timeoutFor(gameState);
+        roomTimers.schedule(roomId, TIMER_TURN, timeout.toMillis(), TimeUnit.MILLISECONDS, () -> {
+            armedTurns.remove(roomId, turn);
+            expired.increment();
+            log.info("房间 {} 操作超时（{}），自动托管", roomId, turn);
+            onTimeout.run();
+        });
+    }
+
+    /**
+     * 房间解散后丢弃其计时记录（定时任务本身随 RoomTimerService#cancelAll 取消）
+     */
+    public void forgetRoom(String roomId) {
+        armedTurns.remove(roomId);
+    }
+
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("armed", (long) armedTurns.size());
+        stats.put("expired", expired.sum());
+        return stats;
+    }
+
+    /**
+     * 回合标识：当前在等待的玩家与操作，出牌阶段外加局面哈希（每摸 / 打 / 吃碰杠一次都会变化），
+     * 同一玩家连续两次轮到时也能区分；不在等待任何人时返回 null
+     */
+    private static String turnKey(GameState gameState) {
+        switch (gameState.getPhase()) {
+            case REPLACING_FLOWERS:
+                return "flower:" + gameState.getCurrentFlowerPlayerIndex() + ":" + gameState.getFlowerRoundCount()
+                    + ":" + gameState.getWallTiles().size();
+            case OPENING_GOLD:
+                return gameState.isWaitingOpenGold() ? "openGold:" + gameState.getDealerIndex() : null;
+            case PLAYING:
+                String progress = Long.toHexString(gameState.getStateHash());
+                String actor = gameState.getCurrentActionPlayerId();
+                return actor == null
+                    ? "discard:" + gameState.getCurrentPlayerIndex() + ":" + progress
+                    : gameState.getCurrentActionType() + ":" + actor + ":" + progress;
+            default:
+                return null;
+        }
+    }
+
+    private Duration timeoutFor(GameState gameState) {
+        switch (gameState.getPhase()) {
+            case REPLACING_FLOWERS:
+                return flowerTimeout;
+            case OPENING_GOLD:
+                return openGoldTimeout;
+            default:
+                String actionType = gameState.getCurrentActionType();
+                // 摸牌前后的自身操作窗口（暗杠 / 自摸）本质上也是轮到自己出牌，按出牌超时计
+                boolean claim = gameState.getCurrentActionPlayerId() != null
+                    && !"drawAction".equals(actionType) && !"anGang".equals(actionType);
+                return claim ? claimTimeout : discardTimeout;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.fzmahjong.sim;
+
+import com.fzmahjong.model.Tile;
+
+/**
+ * 策略对别人出牌的响应（胡由 {@link PlayerPolicy#wantsHu} 单独决定）
+ */
+public final class Claim {
+
+    public enum Type {
+        PASS, GANG, PENG, CHI
+    }
+
+    private static final Claim PASS = new Claim(Type.PASS, null, null);
+    private static final Claim GANG = new Claim(Type.GANG, null, null);
+    private static final Claim PENG = new Claim(Type.PENG, null, null);
+
+    private final Type type;
+    private final Tile chiTile1;
+    private final Tile chiTile2;
+
+    private Claim(Type type, Tile chiTile1, Tile chiTile2) {
+        this.type = type;
+        this.chiTile1 = chiTile1;
+        this.chiTile2 = chiTile2;
+    }
+
+    public static Claim pass() {
+        return PASS;
+    }
+
+    public static Claim gang() {
+        return GANG;
+    }
+
+    public static Claim peng() {
+        return PENG;
+    }
+
+    /**
+     * 吃：用手中的两张牌（取自 chiOptions）与打出的牌组成顺子
+     */
+    public static Claim chi(Tile[] pair) {
+        return new Claim(Type.CHI, pair[0], pair[1]);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Tile getChiTile1() {
+        return chiTile1;
+    }
+
+    public Tile getChiTile2() {
+        return chiTile2;
+    }
+}
@@ -0,0 +1,42 @@
+package com.fzmahjong.sim;
+
+import com.fzmahjong.model.GameState;
+import com.fzmahjong.model.Player;
+import com.fzmahjong.model.Tile;
+
+import java.util.List;
+
+/**
+ * 自对弈中一个座位的决策策略
+ *
+ * 只在引擎已经给出可选操作时被询问（与前端按钮出现的时机一致），
+ * 返回值由 {@link SelfPlayTable} 翻译成 GameEngine 的公开方法调用。
+ * 每张桌子的每个座位各持一个实例，实现不需要线程安全。
+ */
+public interface PlayerPolicy {
+
+    /**
+     * 可以胡（自摸 / 三金倒 / 花胡 / 点炮）时是否胡
+     *
+     * @param selfDrawn true 为摸牌后的自摸窗口，false 为别人出牌后的点炮
+     */
+    boolean wantsHu(GameState state, Player self, boolean selfDrawn);
+
+    /**
+     * 可以暗杠时选择要杠的牌（返回 options 中的一张），不杠返回 null
+     */
+    Tile chooseAnGang(GameState state, Player self, List<Tile> options);
+
+    /**
+     * 别人出牌后可以杠 / 碰 / 吃时的选择
+     *
+     * @param chiOptions 可以用来吃的两张手牌组合（不能吃时为空）
+     */
+    Claim chooseClaim(GameState state, Player self, Tile discard,
+                      boolean canGang, boolean canPeng, List<Tile[]> chiOptions);
+
+    /**
+     * 轮到自己出牌：返回要打出的手牌（不能是金牌）
+     */
+    Tile chooseDiscard(GameState state, Player self);
+}
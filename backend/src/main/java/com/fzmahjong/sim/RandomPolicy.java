@@ -0,0 +1,70 @@
+package com.fzmahjong.sim;
+
+import com.fzmahjong.model.GameState;
+import com.fzmahjong.model.Player;
+import com.fzmahjong.model.Tile;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * 随机策略：随机打出一张非金手牌，随机决定是否杠 / 碰 / 吃
+ *
+ * 能胡必胡、能暗杠必杠，保证牌局能正常收尾；
+ * 其余决策尽量随机，用来覆盖正常玩家很少走到的分支（大量明牌、少见的吃法等）。
+ */
+public class RandomPolicy implements PlayerPolicy {
+
+    /** 可以杠 / 碰 / 吃时接受的概率 */
+    private static final double CLAIM_PROBABILITY = 0.5;
+
+    private final SplittableRandom random;
+
+    public RandomPolicy(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public boolean wantsHu(GameState state, Player self, boolean selfDrawn) {
+        return true;
+    }
+
+    @Override
+    public Tile chooseAnGang(GameState state, Player self, List<Tile> options) {
+        return options.get(random.nextInt(options.size()));
+    }
+
+    @Override
+    public Claim chooseClaim(GameState state, Player self, Tile discard,
+                             boolean canGang, boolean canPeng, List<Tile[]> chiOptions) {
+        if (canGang && random.nextDouble() < CLAIM_PROBABILITY) {
+            return Claim.gang();
+        }
+        if (canPeng && random.nextDouble() < CLAIM_PROBABILITY) {
+            return Claim.peng();
+        }
+        if (!chiOptions.isEmpty() && random.nextDouble() < CLAIM_PROBABILITY) {
+            return Claim.chi(chiOptions.get(random.nextInt(chiOptions.size())));
+        }
+        return Claim.pass();
+    }
+
+    @Override
+    public Tile chooseDiscard(GameState state, Player self) {
+        Tile gold = state.getGoldTile();
+        List<Tile> hand = self.getHandTiles();
+        // 蓄水池抽样：等概率选一张非金牌，不额外分配列表
+        Tile chosen = null;
+        int seen = 0;
+        for (Tile tile : hand) {
+            if (gold != null && tile.isSameAs(gold)) {
+                continue;
+            }
+            seen++;
+            if (random.nextInt(seen) == 0) {
+                chosen = tile;
+            }
+        }
+        return chosen;
+    }
+}
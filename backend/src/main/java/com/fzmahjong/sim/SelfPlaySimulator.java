@@ -0,0 +1,185 @@
+package com.fzmahjong.sim;
+
+import ch.qos.logback.classic.Level;
+import com.fzmahjong.engine.HandEvalCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 无头多核自对弈模拟器
+ *
+ * 不启动 Spring，直接创建多张 {@link SelfPlayTable}，每张牌桌一个 GameState/GameEngine，
+ * 用固定大小线程池把牌桌分摊到所有核上连续打完整局（补花、开金、摸打、吃碰杠胡、结算），
+ * 最后汇总局数/秒、和牌类型分布、中断原因与最慢单局。用途：
+ * - 负载评估：单机每秒能推进多少局
+ * - 规则回归：大规模跑局时统计引擎拒绝合法操作、对局卡住、手牌张数异常等问题
+ * - 找出让引擎变慢的极端局面（最慢单局耗时）
+ *
+ * 用法（参数均可省略）：
+ *   mvn -Psim compile exec:exec -Dsim.args="--hands 50000 --threads 8 --policy mixed"
+ *
+ * 参数：
+ *   --hands N       正式统计的总局数（默认 20000）
+ *   --warmup N      预热局数，不计入结果（默认 2000）
+ *   --threads N     线程数（默认 CPU 核数）
+ *   --tables N      牌桌数（默认等于线程数）
+ *   --policy P      shanten（贪心向听）/ random（随机）/ mixed（两两交替，默认 shanten）
+ *   --seed N        随机种子（策略与洗牌，默认取当前时间；种子和牌桌数相同时跑出的牌局完全相同）
+ *   --log-level L   日志级别（默认 ERROR，避免引擎的逐步日志拖慢跑局）
+ */
+public final class SelfPlaySimulator {
+
+    private static final Logger log = LoggerFactory.getLogger(SelfPlaySimulator.class);
+
+    private SelfPlaySimulator() {
+    }
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        Map<String, String> options = parseArgs(args);
+        int hands = Integer.parseInt(options.getOrDefault("hands", "20000"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "2000"));
+        int threads = Integer.parseInt(options.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        int tables = Integer.parseInt(options.getOrDefault("tables", String.valueOf(threads)));
+        String policy = options.getOrDefault("policy", "shanten");
+        long seed = Long.parseLong(options.getOrDefault("seed", String.valueOf(System.nanoTime())));
+        setLogLevel(options.getOrDefault("log-level", "ERROR"));
+
+        System.out.printf("自对弈：%d 局（预热 %d 局），%d 线程，%d 张牌桌，策略=%s，种子=%d%n",
+                hands, warmup, threads, tables, policy, seed);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            if (warmup > 0) {
+                run(pool, warmup, tables, policy, seed ^ 0x5DEECE66DL);
+            }
+            long start = System.nanoTime();
+            List<SelfPlayTable> results = run(pool, hands, tables, policy, seed);
+            long elapsed = System.nanoTime() - start;
+            report(results, elapsed);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * 把 totalHands 局平均分给 tables 张牌桌并行打完，返回各牌桌（含统计）
+     */
+    public static List<SelfPlayTable> run(ExecutorService pool, int totalHands, int tables,
+                                          String policy, long seed)
+            throws InterruptedException, ExecutionException {
+        List<Future<SelfPlayTable>> futures = new ArrayList<>(tables);
+        for (int t = 0; t < tables; t++) {
+            int count = totalHands / tables + (t < totalHands % tables ? 1 : 0);
+            long tableSeed = seed + t * 0x9E3779B97F4A7C15L;
+            String tableId = "sim-" + t;
+            futures.add(pool.submit(() -> {
+                SelfPlayTable table = new SelfPlayTable(tableId, policies(policy, tableSeed), tableSeed);
+                table.play(count);
+                return table;
+            }));
+        }
+        List<SelfPlayTable> results = new ArrayList<>(tables);
+        for (Future<SelfPlayTable> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    /**
+     * 按名称为 4 个座位创建策略（每个座位独立的随机种子）
+     */
+    public static PlayerPolicy[] policies(String name, long seed) {
+        PlayerPolicy[] policies = new PlayerPolicy[4];
+        for (int seat = 0; seat < 4; seat++) {
+            long seatSeed = seed * 31 + seat;
+            switch (name) {
+                case "random":
+                    policies[seat] = new RandomPolicy(seatSeed);
+                    break;
+                case "mixed":
+                    policies[seat] = seat % 2 == 0 ? new ShantenPolicy(seatSeed) : new RandomPolicy(seatSeed);
+                    break;
+                case "shanten":
+                    policies[seat] = new ShantenPolicy(seatSeed);
+                    break;
+                default:
+                    throw new IllegalArgumentException("未知策略：" + name + "（可选 shanten / random / mixed）");
+            }
+        }
+        return policies;
+    }
+
+    private static void report(List<SelfPlayTable> tables, long elapsedNanos) {
+        long hands = 0;
+        long wins = 0;
+        long exhausted = 0;
+        long stalled = 0;
+        long steps = 0;
+        long maxHandNanos = 0;
+        Map<String, Long> winTypes = new TreeMap<>();
+        Map<String, Long> stallReasons = new TreeMap<>();
+        Map<String, Long> anomalies = new TreeMap<>();
+        for (SelfPlayTable table : tables) {
+            hands += table.getHands();
+            wins += table.getWins();
+            exhausted += table.getExhaustedHands();
+            stalled += table.getStalledHands();
+            steps += table.getSteps();
+            maxHandNanos = Math.max(maxHandNanos, table.getMaxHandNanos());
+            table.getWinTypes().forEach((k, v) -> winTypes.merge(k, v, Long::sum));
+            table.getStallReasons().forEach((k, v) -> stallReasons.merge(k, v, Long::sum));
+            table.getAnomalies().forEach((k, v) -> anomalies.merge(k, v, Long::sum));
+        }
+
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("总局数：%d，耗时 %.2f s，%.0f 局/秒，%.0f 步/秒%n",
+                hands, seconds, hands / seconds, steps / seconds);
+        System.out.printf("和牌 %d，流局 %d，中断 %d；平均每局 %.1f 步，最慢单局 %.2f ms%n",
+                wins, exhausted, stalled, hands == 0 ? 0.0 : (double) steps / hands, maxHandNanos / 1e6);
+        printCounts("和牌类型", winTypes);
+        printCounts("中断原因", stallReasons);
+        printCounts("异常", anomalies);
+        System.out.println("胡牌/听牌缓存：" + HandEvalCache.stats());
+    }
+
+    private static void printCounts(String title, Map<String, Long> counts) {
+        if (counts.isEmpty()) {
+            return;
+        }
+        System.out.println(title + "：");
+        counts.forEach((k, v) -> System.out.printf("  %-24s %d%n", k, v));
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> options = new TreeMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("参数格式应为 --name value：" + args[i]);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        return options;
+    }
+
+    /**
+     * 不经过 Spring Boot 启动时 logback 默认输出 DEBUG，引擎的逐步日志会成为瓶颈，这里统一压到指定级别
+     */
+    private static void setLogLevel(String level) {
+        Logger root = LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME);
+        if (root instanceof ch.qos.logback.classic.Logger) {
+            ((ch.qos.logback.classic.Logger) root).setLevel(Level.toLevel(level, Level.ERROR));
+        } else {
+            log.warn("当前日志实现不是 logback，无法调整日志级别");
+        }
+    }
+}
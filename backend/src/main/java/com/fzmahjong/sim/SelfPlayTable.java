@@ -0,0 +1,340 @@
+package com.fzmahjong.sim;
+
+import com.fzmahjong.engine.GameEngine;
+import com.fzmahjong.model.ActionSet;
+import com.fzmahjong.model.GamePhase;
+import com.fzmahjong.model.GameState;
+import com.fzmahjong.model.Player;
+import com.fzmahjong.model.Tile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 一张无头自对弈牌桌：一个 GameState/GameEngine + 4 个座位策略
+ *
+ * 驱动方式与前端完全一致：只调用 GameEngine 的公开方法（补花、开金、出牌、吃碰杠胡、过、继续），
+ * 出牌 / 过之后无人可操作时走与控制器相同的 {@link GameEngine#handleNextPlayerAfterNoOneCanActionOrAllPassed}。
+ *
+ * 每局结束时记录结果；引擎拒绝了一个本应合法的操作、或者对局无法再推进时，
+ * 记为“中断”并附上原因，然后重新开一局，保证大规模跑局时能把问题局统计出来而不是卡死。
+ * 单线程使用，不同牌桌之间不共享任何可变状态。
+ */
+public class SelfPlayTable {
+
+    /** 单局最多推进的步数（正常一局约 100~200 步），超过视为死循环 */
+    private static final int MAX_STEPS_PER_HAND = 2000;
+
+    /** 出牌后暗牌张数 + 3 × 副露数 应恒为 16 */
+    private static final int HAND_SIZE_AFTER_DISCARD = 16;
+
+    private final GameState state;
+    private final GameEngine engine;
+    private final PlayerPolicy[] policies;
+
+    private boolean handWon;
+
+    // === 统计 ===
+    private long hands;
+    private long wins;
+    private long exhaustedHands;
+    private long stalledHands;
+    private long steps;
+    private long totalNanos;
+    private long maxHandNanos;
+    private final Map<String, Long> winTypes = new TreeMap<>();
+    private final Map<String, Long> stallReasons = new TreeMap<>();
+    private final Map<String, Long> anomalies = new TreeMap<>();
+
+    /**
+     * @param seed 牌桌洗牌种子（同一种子 + 同样的策略种子，跑出的牌局完全相同）
+     */
+    public SelfPlayTable(String tableId, PlayerPolicy[] policies, long seed) {
+        this.policies = policies;
+        this.state = new GameState(tableId);
+        for (int seat = 0; seat < 4; seat++) {
+            state.addPlayer(new Player(tableId + "-p" + seat, "P" + seat, seat));
+        }
+        this.engine = new GameEngine(state, seed);
+        engine.startGame();
+    }
+
+    /**
+     * 连续打 count 局
+     */
+    public void play(int count) {
+        for (int i = 0; i < count; i++) {
+            playHand();
+        }
+    }
+
+    /**
+     * 打完一局（从发牌到结算），并把牌桌推进到下一局的开局状态
+     */
+    public void playHand() {
+        handWon = false;
+        long start = System.nanoTime();
+        String stall = runHand();
+        long elapsed = System.nanoTime() - start;
+
+        hands++;
+        totalNanos += elapsed;
+        maxHandNanos = Math.max(maxHandNanos, elapsed);
+        if (stall != null) {
+            stalledHands++;
+            stallReasons.merge(stall, 1L, Long::sum);
+            // 任意阶段都可以用 startGame 重新发一局
+            engine.startGame();
+            return;
+        }
+        if (handWon) {
+            wins++;
+            winTypes.merge(String.valueOf(state.getLastWinType()), 1L, Long::sum);
+        } else {
+            exhaustedHands++;
+        }
+        startNextHand();
+    }
+
+    /**
+     * 推进一局直到结算；正常结束返回 null，否则返回中断原因
+     */
+    private String runHand() {
+        for (int step = 0; step < MAX_STEPS_PER_HAND; step++) {
+            steps++;
+            String stall;
+            switch (state.getPhase()) {
+                case REPLACING_FLOWERS:
+                    Player flowerPlayer = state.getPlayers().get(state.getCurrentFlowerPlayerIndex());
+                    stall = engine.playerReplaceFlowers(flowerPlayer.getId()) ? null : "补花被拒绝";
+                    break;
+                case OPENING_GOLD:
+                    stall = engine.playerOpenGold(state.getDealer().getId()) ? null : "开金被拒绝";
+                    break;
+                case PLAYING:
+                    stall = playStep();
+                    break;
+                case HAND_FINISHED:
+                case CONFIRM_CONTINUE:
+                    return null;
+                default:
+                    return "意外阶段 " + state.getPhase();
+            }
+            if (stall != null) {
+                return stall;
+            }
+        }
+        return "超过单局步数上限";
+    }
+
+    private void startNextHand() {
+        if (state.getPhase() == GamePhase.HAND_FINISHED) {
+            // 与控制器一致：停留期间预发下一局（这里直接在本线程执行），开局时换入
+            Runnable prepare = engine.prepareNextHand();
+            if (prepare != null) {
+                prepare.run();
+            }
+            engine.startNextHand();
+        } else if (state.getPhase() == GamePhase.CONFIRM_CONTINUE) {
+            for (Player p : state.getPlayers()) {
+                engine.playerContinue(p.getId(), true);
+            }
+        }
+    }
+
+    /**
+     * PLAYING 阶段推进一步：先处理等待中的操作窗口，否则由当前玩家出牌
+     */
+    private String playStep() {
+        String actorId = state.getCurrentActionPlayerId();
+        if (actorId == null) {
+            return discard(state.getCurrentPlayer());
+        }
+        Player actor = findPlayer(actorId);
+        if (actor == null) {
+            return "操作玩家不存在";
+        }
+        String type = state.getCurrentActionType();
+        if ("drawAction".equals(type) || "anGang".equals(type)) {
+            return selfAction(actor, state.getPlayerActions(actor), type);
+        }
+        return claimAction(actor, state.getPlayerActions(actor));
+    }
+
+    /**
+     * 摸牌后的自摸 / 三金倒 / 暗杠窗口（drawAction），以及摸牌前的下家暗杠窗口（anGang）
+     */
+    private String selfAction(Player actor, ActionSet actions, String type) {
+        PlayerPolicy policy = policies[actor.getPosition()];
+        if ("drawAction".equals(type)) {
+            boolean canHu = actions.has(ActionSet.HU) || actions.has(ActionSet.SAN_JIN_DAO);
+            if (canHu && policy.wantsHu(state, actor, true)) {
+                if (!engine.playerHu(actor.getId())) {
+                    return "自摸被拒绝";
+                }
+                handWon = true;
+                return null;
+            }
+        }
+
+        if (actions.has(ActionSet.AN_GANG) && actions.getAnGangKinds() != 0L) {
+            Tile choice = policy.chooseAnGang(state, actor, actions.getAnGangTiles());
+            if (choice != null) {
+                Tile handTile = findSameKind(actor, choice);
+                if (handTile == null || !engine.playerAnGang(actor.getId(), handTile.getId())) {
+                    return "暗杠被拒绝";
+                }
+                return null;
+            }
+        }
+
+        // 与前端的“Continue”按钮一致：先过，再照常出牌
+        engine.playerPass(actor.getId());
+        if ("anGang".equals(type)) {
+            // 下家放弃摸牌前的暗杠后，服务端不会替其摸牌，对局停在这里
+            return "放弃摸牌前暗杠后无法继续";
+        }
+        return discard(actor);
+    }
+
+    /**
+     * 别人出牌后的胡 / 杠 / 碰 / 吃窗口
+     */
+    private String claimAction(Player actor, ActionSet actions) {
+        PlayerPolicy policy = policies[actor.getPosition()];
+        Tile discard = state.getLastDiscardedTile();
+        if (discard == null) {
+            return "操作窗口没有对应的弃牌";
+        }
+
+        if (actions.has(ActionSet.HU) && policy.wantsHu(state, actor, false)) {
+            if (!engine.playerHu(actor.getId())) {
+                return "点炮胡被拒绝";
+            }
+            handWon = true;
+            return null;
+        }
+
+        boolean canGang = actions.has(ActionSet.GANG);
+        boolean canPeng = actions.has(ActionSet.PENG);
+        List<Tile[]> chiOptions = actions.has(ActionSet.CHI)
+                ? chiOptions(actor, actions)
+                : List.of();
+        Claim claim = policy.chooseClaim(state, actor, discard, canGang, canPeng, chiOptions);
+
+        switch (claim.getType()) {
+            case GANG:
+                return engine.playerGang(actor.getId()) ? null : "明杠被拒绝";
+            case PENG:
+                return engine.playerPeng(actor.getId()) ? null : "碰被拒绝";
+            case CHI:
+                return engine.playerChi(actor.getId(), claim.getChiTile1().getId(), claim.getChiTile2().getId())
+                        ? null : "吃被拒绝";
+            default:
+                if (!engine.playerPass(actor.getId())) {
+                    return "过被拒绝";
+                }
+                if (state.getCurrentActionPlayerId() == null) {
+                    engine.handleNextPlayerAfterNoOneCanActionOrAllPassed("所有玩家都过");
+                }
+                return null;
+        }
+    }
+
+    private String discard(Player player) {
+        if (player == null) {
+            return "没有当前玩家";
+        }
+        Tile tile = policies[player.getPosition()].chooseDiscard(state, player);
+        if (tile == null) {
+            return "没有可打的牌";
+        }
+        if (!engine.playerDiscard(player.getId(), tile.getId())) {
+            return "出牌被拒绝";
+        }
+
+        int concealed = player.getHandSize()
+                + 3 * (player.getExposedMelds().size() + player.getConcealedKongs().size());
+        if (concealed != HAND_SIZE_AFTER_DISCARD) {
+            anomalies.merge("出牌后张数为 " + concealed + "（应为 16）", 1L, Long::sum);
+        }
+
+        if (state.getCurrentActionPlayerId() == null) {
+            engine.handleNextPlayerAfterNoOneCanActionOrAllPassed("出牌后无人可操作");
+        }
+        return null;
+    }
+
+    /**
+     * 下家可以用来吃的两张手牌组合：按服务端给出的吃法（ActionSet#getChiOptions）取手牌中同种的第一张
+     */
+    static List<Tile[]> chiOptions(Player player, ActionSet actions) {
+        List<Tile[]> options = new ArrayList<>(3);
+        for (Tile[] pair : actions.getChiOptions()) {
+            options.add(new Tile[]{findSameKind(player, pair[0]), findSameKind(player, pair[1])});
+        }
+        return options;
+    }
+
+    private static Tile findSameKind(Player player, Tile target) {
+        for (Tile tile : player.getHandTiles()) {
+            if (tile.isSameAs(target)) {
+                return tile;
+            }
+        }
+        return null;
+    }
+
+    private Player findPlayer(String playerId) {
+        for (Player p : state.getPlayers()) {
+            if (p.getId().equals(playerId)) {
+                return p;
+            }
+        }
+        return null;
+    }
+
+    // === 统计 ===
+
+    public long getHands() {
+        return hands;
+    }
+
+    public long getWins() {
+        return wins;
+    }
+
+    public long getExhaustedHands() {
+        return exhaustedHands;
+    }
+
+    public long getStalledHands() {
+        return stalledHands;
+    }
+
+    public long getSteps() {
+        return steps;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getMaxHandNanos() {
+        return maxHandNanos;
+    }
+
+    public Map<String, Long> getWinTypes() {
+        return winTypes;
+    }
+
+    public Map<String, Long> getStallReasons() {
+        return stallReasons;
+    }
+
+    public Map<String, Long> getAnomalies() {
+        return anomalies;
+    }
+}
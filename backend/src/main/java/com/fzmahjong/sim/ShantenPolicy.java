@@ -0,0 +1,149 @@
+package com.fzmahjong.sim;
+
+import com.fzmahjong.engine.ShantenCalculator;
+import com.fzmahjong.model.GameState;
+import com.fzmahjong.model.Player;
+import com.fzmahjong.model.Tile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * 贪心向听策略：
+ * - 出牌：打出后向听数最小的牌，同分随机
+ * - 暗杠：总是杠；明杠：不增加向听数就杠（多补一张、多算杠分）
+ * - 碰 / 吃：吃碰并打出最优牌后向听数比现在小才吃碰
+ * - 能胡必胡
+ *
+ * 接近普通玩家的打法，用来测量真实牌局的负载（听牌检测、胡牌判定、结算）。
+ */
+public class ShantenPolicy implements PlayerPolicy {
+
+    private final SplittableRandom random;
+
+    public ShantenPolicy(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public boolean wantsHu(GameState state, Player self, boolean selfDrawn) {
+        return true;
+    }
+
+    @Override
+    public Tile chooseAnGang(GameState state, Player self, List<Tile> options) {
+        // 暗杠多补一张、多算杠分，四张同种拆开用的收益很少，简单起见总是杠
+        return options.get(0);
+    }
+
+    @Override
+    public Claim chooseClaim(GameState state, Player self, Tile discard,
+                             boolean canGang, boolean canPeng, List<Tile[]> chiOptions) {
+        Tile gold = state.getGoldTile();
+        int current = ShantenCalculator.calculate(self, gold);
+
+        if (canGang) {
+            List<Tile> used = sameKind(self, discard, 3);
+            Player probe = probe(self, used);
+            probe.addExposedMeld(used);
+            // 杠后还会从牌尾补一张，此时手牌为 3n+1 张，直接比较向听数
+            if (ShantenCalculator.calculate(probe, gold) <= current) {
+                return Claim.gang();
+            }
+        }
+        if (canPeng) {
+            List<Tile> used = sameKind(self, discard, 2);
+            Player probe = probe(self, used);
+            probe.addExposedMeld(used);
+            if (bestAfter(probe, gold) < current) {
+                return Claim.peng();
+            }
+        }
+        Tile[] bestPair = null;
+        int bestChi = current;
+        for (Tile[] pair : chiOptions) {
+            List<Tile> used = List.of(pair[0], pair[1]);
+            Player probe = probe(self, used);
+            probe.addExposedMeld(used);
+            int after = bestAfter(probe, gold);
+            if (after < bestChi) {
+                bestChi = after;
+                bestPair = pair;
+            }
+        }
+        return bestPair != null ? Claim.chi(bestPair) : Claim.pass();
+    }
+
+    @Override
+    public Tile chooseDiscard(GameState state, Player self) {
+        Tile gold = state.getGoldTile();
+        int[] after = ShantenCalculator.calculateForDiscards(self, gold);
+        Tile chosen = null;
+        int best = Integer.MAX_VALUE;
+        int ties = 0;
+        for (Tile tile : self.getHandTiles()) {
+            if (gold != null && tile.isSameAs(gold)) {
+                continue;
+            }
+            int kind = tile.getKind();
+            int shanten = kind >= 0 && kind < after.length ? after[kind] : ShantenCalculator.NOT_IN_HAND;
+            if (shanten < best) {
+                best = shanten;
+                chosen = tile;
+                ties = 1;
+            } else if (shanten == best && random.nextInt(++ties) == 0) {
+                chosen = tile;
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * 3n+2 张手牌打出最优一张后的向听数
+     */
+    private static int bestAfter(Player probe, Tile gold) {
+        int best = Integer.MAX_VALUE;
+        for (int shanten : ShantenCalculator.calculateForDiscards(probe, gold)) {
+            best = Math.min(best, shanten);
+        }
+        return best == Integer.MAX_VALUE ? ShantenCalculator.calculate(probe, gold) : best;
+    }
+
+    private static List<Tile> sameKind(Player self, Tile target, int limit) {
+        List<Tile> tiles = new ArrayList<>(limit + 1);
+        for (Tile tile : self.getHandTiles()) {
+            if (tiles.size() < limit && tile.isSameAs(target)) {
+                tiles.add(tile);
+            }
+        }
+        tiles.add(target);
+        return tiles;
+    }
+
+    /**
+     * 复制一名“去掉 used 中手牌”的玩家，用于试算吃碰杠后的向听数（不改动真实玩家）
+     */
+    private static Player probe(Player self, List<Tile> used) {
+        Player probe = new Player(self.getId(), self.getName(), self.getPosition());
+        for (Tile tile : self.getHandTiles()) {
+            boolean consumed = false;
+            for (Tile u : used) {
+                if (u.isSameTile(tile)) {
+                    consumed = true;
+                    break;
+                }
+            }
+            if (!consumed) {
+                probe.addTile(tile);
+            }
+        }
+        for (List<Tile> meld : self.getExposedMelds()) {
+            probe.addExposedMeld(meld);
+        }
+        for (List<Tile> kong : self.getConcealedKongs()) {
+            probe.addConcealedKong(kong);
+        }
+        return probe;
+    }
+}
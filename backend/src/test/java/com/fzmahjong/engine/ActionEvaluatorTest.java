@@ -0,0 +1,162 @@
+package com.fzmahjong.engine;
+
+import com.fzmahjong.model.Player;
+import com.fzmahjong.model.Tile;
+import com.fzmahjong.model.TileType;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ActionEvaluator 与原先逐张遍历手牌的 ActionChecker.canHu / canGang / canPeng / canChi / canAnGang 的对照
+ */
+class ActionEvaluatorTest {
+
+    @Test
+    void evaluateMatchesPreviousRules() {
+        Random rnd = new Random(20240505L);
+        for (int i = 0; i < 3000; i++) {
+            int goldKind = rnd.nextInt(5) == 0 ? -1 : rnd.nextInt(HandSamples.KINDS);
+            Tile goldTile = goldKind < 0 ? null : Tile.firstOfKind(goldKind);
+            int melds = rnd.nextInt(6);
+            int[] counts = rnd.nextBoolean()
+                    ? HandSamples.random(rnd, melds * 3 + 1)
+                    : removeOne(rnd, HandSamples.melded(rnd, melds, rnd.nextInt(2)));
+            Player player = new Player("p", "p", 0);
+            player.setHandTiles(HandSamples.tiles(counts));
+            long winsOn = WinValidator.getWinningKinds(player.getHandTiles(), goldTile);
+
+            for (int offeredKind = 0; offeredKind < HandSamples.KINDS; offeredKind++) {
+                Tile offered = Tile.firstOfKind(offeredKind);
+                boolean hu = previousCanHu(player, offered, goldTile);
+                for (int discardSeat = 0; discardSeat < 4; discardSeat++) {
+                    int seat = rnd.nextInt(4);
+                    int relation = ActionEvaluator.relation(seat, discardSeat);
+                    int actual = ActionEvaluator.evaluate(player.getKindCounts(), offeredKind, goldKind, relation, winsOn);
+
+                    int expected = 0;
+                    if (seat != discardSeat) {
+                        expected |= hu ? ActionEvaluator.HU : 0;
+                        expected |= previousCount(player, offered) >= 3 ? ActionEvaluator.GANG : 0;
+                        expected |= previousCount(player, offered) >= 2 ? ActionEvaluator.PENG : 0;
+                        expected |= previousChiShapes(player, offered, discardSeat, seat, goldTile);
+                    }
+                    assertEquals(expected, actual, "counts=" + Arrays.toString(counts) + " goldKind=" + goldKind
+                            + " offered=" + offeredKind + " seat=" + seat + " discardSeat=" + discardSeat);
+                    assertChiKinds(actual, offeredKind, counts, goldKind);
+                }
+            }
+        }
+    }
+
+    @Test
+    void anGangKindsMatchPreviousRules() {
+        Random rnd = new Random(20240506L);
+        for (int i = 0; i < 20000; i++) {
+            int[] counts = HandSamples.random(rnd, 1 + rnd.nextInt(17));
+            Player player = new Player("p", "p", 0);
+            player.setHandTiles(HandSamples.tiles(counts));
+
+            long expected = 0L;
+            for (Tile tile : previousCanAnGang(player)) {
+                expected |= 1L << tile.getKind();
+            }
+            assertEquals(expected, ActionEvaluator.anGangKinds(player.getKindCounts()), Arrays.toString(counts));
+        }
+    }
+
+    /**
+     * 每种吃法给出的两张牌都在手里、不是金，并与打出的牌连成顺子
+     */
+    private static void assertChiKinds(int actions, int offeredKind, int[] counts, int goldKind) {
+        for (int shape : new int[]{ActionEvaluator.CHI_LEFT, ActionEvaluator.CHI_MIDDLE, ActionEvaluator.CHI_RIGHT}) {
+            if ((actions & shape) == 0) {
+                continue;
+            }
+            int first = ActionEvaluator.chiFirstKind(shape, offeredKind);
+            int second = ActionEvaluator.chiSecondKind(shape, offeredKind);
+            int[] run = {first, second, offeredKind};
+            Arrays.sort(run);
+            assertTrue(run[0] / 9 == run[2] / 9 && run[1] == run[0] + 1 && run[2] == run[0] + 2);
+            assertTrue(counts[first] > 0 && counts[second] > 0 && first != goldKind && second != goldKind);
+        }
+    }
+
+    private static int[] removeOne(Random rnd, int[] counts) {
+        int kind;
+        do {
+            kind = rnd.nextInt(HandSamples.KINDS);
+        } while (counts[kind] == 0);
+        counts[kind]--;
+        return counts;
+    }
+
+    // === 原 ActionChecker 的实现（逐张遍历手牌） ===
+
+    private static boolean previousCanHu(Player player, Tile tile, Tile goldTile) {
+        List<Tile> handTiles = new ArrayList<>(player.getHandTiles());
+        handTiles.add(tile);
+        return WinValidator.canWin(handTiles, goldTile, false);
+    }
+
+    private static long previousCount(Player player, Tile discardedTile) {
+        return player.getHandTiles().stream().filter(t -> t.isSameAs(discardedTile)).count();
+    }
+
+    /**
+     * 原 canChi，按左 / 中 / 右三种吃法分别返回
+     */
+    private static int previousChiShapes(Player player, Tile discardedTile, int discardPlayerIndex, int playerIndex,
+                                         Tile goldTile) {
+        if (discardPlayerIndex != (playerIndex + 3) % 4) {
+            return 0;
+        }
+        if (goldTile != null && discardedTile.isSameAs(goldTile)) {
+            return 0;
+        }
+        if (discardedTile.getType() == TileType.WIND || discardedTile.getType() == TileType.DRAGON) {
+            return 0;
+        }
+        List<Tile> handTiles = new ArrayList<>();
+        for (Tile tile : player.getHandTiles()) {
+            if (goldTile == null || !tile.isSameAs(goldTile)) {
+                handTiles.add(tile);
+            }
+        }
+        int value = discardedTile.getValue();
+        TileType type = discardedTile.getType();
+        int shapes = 0;
+        if (value >= 3 && has(handTiles, type, value - 2) && has(handTiles, type, value - 1)) {
+            shapes |= ActionEvaluator.CHI_LEFT;
+        }
+        if (value >= 2 && value <= 8 && has(handTiles, type, value - 1) && has(handTiles, type, value + 1)) {
+            shapes |= ActionEvaluator.CHI_MIDDLE;
+        }
+        if (value <= 7 && has(handTiles, type, value + 1) && has(handTiles, type, value + 2)) {
+            shapes |= ActionEvaluator.CHI_RIGHT;
+        }
+        return shapes == 0 ? 0 : shapes | ActionEvaluator.CHI;
+    }
+
+    private static boolean has(List<Tile> tiles, TileType type, int value) {
+        return tiles.stream().anyMatch(t -> t.getType() == type && t.getValue() == value);
+    }
+
+    private static List<Tile> previousCanAnGang(Player player) {
+        List<Tile> anGangTiles = new ArrayList<>();
+        for (Tile tile : player.getHandTiles()) {
+            long count = previousCount(player, tile);
+            if (count == 4 && anGangTiles.stream().noneMatch(t -> t.isSameAs(tile))) {
+                anGangTiles.add(tile);
+            }
+        }
+        return anGangTiles;
+    }
+}
@@ -0,0 +1,162 @@
+package com.fzmahjong.engine;
+
+import com.fzmahjong.model.GamePhase;
+import com.fzmahjong.model.GameState;
+import com.fzmahjong.model.Player;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CompactGameState 的 apply / undo 往返：从真实对局建立局面后随机前进后退，
+ * 每次撤销都应回到执行前的手牌、副露、牌池、牌墙游标、轮次阶段和哈希
+ */
+class CompactGameStateTest {
+
+    private static final int SEATS = 4;
+
+    @Test
+    void undoRestoresEveryApply() {
+        Random rnd = new Random(20240509L);
+        int[] moves = new int[CompactGameState.MAX_MOVES];
+        int[] applied = new int[CompactGameState.AN_GANG + 1];
+        for (int game = 0; game < 200; game++) {
+            CompactGameState state = CompactGameState.from(playingState(rnd.nextLong(), rnd.nextInt(40)));
+            Deque<String> before = new ArrayDeque<>();
+            Deque<Long> hashes = new ArrayDeque<>();
+
+            for (int step = 0; step < 400; step++) {
+                assertConsistent(state);
+                int n = state.generateMoves(moves);
+                // 无着法（流局）或走得太深时后退，否则多数时候前进
+                boolean back = !before.isEmpty() && (n == 0 || before.size() >= 80 || rnd.nextInt(3) == 0);
+                if (back) {
+                    state.undo();
+                    assertEquals(before.pop(), describe(state), "game=" + game + " step=" + step);
+                    assertEquals(hashes.pop(), state.getHash(), "game=" + game + " step=" + step);
+                } else if (n > 0) {
+                    int move = moves[rnd.nextInt(n)];
+                    before.push(describe(state));
+                    hashes.push(state.getHash());
+                    state.apply(move);
+                    applied[CompactGameState.moveType(move)]++;
+                } else {
+                    break;
+                }
+            }
+            // 全部撤销后回到 from 建立时的局面
+            while (!before.isEmpty()) {
+                state.undo();
+                assertEquals(before.pop(), describe(state), "game=" + game);
+                assertEquals(hashes.pop(), state.getHash(), "game=" + game);
+            }
+            assertEquals(0, state.getHistorySize());
+        }
+        // 每种着法都要走到，否则对照没有意义
+        for (int type = CompactGameState.DRAW; type <= CompactGameState.AN_GANG; type++) {
+            assertTrue(applied[type] > 0, "type=" + type + " applied=" + Arrays.toString(applied));
+        }
+    }
+
+    @Test
+    void forkIsIndependent() {
+        Random rnd = new Random(20240510L);
+        int[] moves = new int[CompactGameState.MAX_MOVES];
+        for (int game = 0; game < 50; game++) {
+            CompactGameState state = CompactGameState.from(playingState(rnd.nextLong(), rnd.nextInt(40)));
+            String original = describe(state);
+            long hash = state.getHash();
+
+            CompactGameState fork = state.fork();
+            assertEquals(original, describe(fork));
+            assertEquals(hash, fork.getHash());
+            assertEquals(0, fork.getHistorySize());
+            for (int step = 0; step < 30; step++) {
+                int n = fork.generateMoves(moves);
+                if (n == 0) {
+                    break;
+                }
+                fork.apply(moves[rnd.nextInt(n)]);
+            }
+            assertEquals(original, describe(state), "game=" + game);
+            assertEquals(hash, state.getHash(), "game=" + game);
+        }
+    }
+
+    /**
+     * 用固定种子开一局，补花、开金后再由 autoAct 走 extraSteps 步，返回仍在对局中的 GameState
+     */
+    private static GameState playingState(long seed, int extraSteps) {
+        GameState state = new GameState("compact-" + seed);
+        for (int seat = 0; seat < SEATS; seat++) {
+            state.addPlayer(new Player("p" + seat, "P" + seat, seat));
+        }
+        GameEngine engine = new GameEngine(state, seed);
+        engine.startGame();
+        while (state.getPhase() != GamePhase.PLAYING) {
+            assertTrue(engine.autoAct(), "开局卡在 " + state.getPhase());
+        }
+        for (int i = 0; i < extraSteps && state.getPhase() == GamePhase.PLAYING; i++) {
+            if (!engine.autoAct()) {
+                break;
+            }
+        }
+        if (state.getPhase() != GamePhase.PLAYING) {
+            // 这几步里已经有人胡了 / 流局：从头开一局
+            return playingState(seed + 1, 0);
+        }
+        return state;
+    }
+
+    /**
+     * 暗牌计数与张数一致，副露不超过上限
+     */
+    private static void assertConsistent(CompactGameState state) {
+        for (int seat = 0; seat < SEATS; seat++) {
+            assertEquals(state.getHandSize(seat), Arrays.stream(state.getKindCounts(seat)).sum());
+            assertFalse(state.getMeldCount(seat) > 5);
+        }
+    }
+
+    /**
+     * 局面的全部可见内容（副露不计顺序，见 CompactGameState#getMeld）
+     */
+    private static String describe(CompactGameState state) {
+        StringBuilder sb = new StringBuilder();
+        for (int seat = 0; seat < SEATS; seat++) {
+            int[] melds = new int[state.getMeldCount(seat)];
+            for (int i = 0; i < melds.length; i++) {
+                melds[i] = state.getMeld(seat, i);
+            }
+            Arrays.sort(melds);
+            sb.append("seat").append(seat)
+                .append(" hand=").append(Arrays.toString(state.getKindCounts(seat)))
+                .append(" size=").append(state.getHandSize(seat))
+                .append(" flowers=").append(state.getFlowerCount(seat))
+                .append(" melds=").append(Arrays.toString(melds))
+                .append('\n');
+        }
+        int[] discards = new int[state.getDiscardCount()];
+        for (int i = 0; i < discards.length; i++) {
+            discards[i] = state.getDiscardKind(i);
+        }
+        sb.append("discards=").append(Arrays.toString(discards))
+            .append(" wall=").append(state.getWallSize())
+            .append(" head=").append(state.getWallSize() == 0 ? -1 : state.getWallKind(0))
+            .append(" tail=").append(state.getWallSize() == 0 ? -1 : state.getWallKind(state.getWallSize() - 1))
+            .append(" reserved=").append(state.getReserved())
+            .append(" turn=").append(state.getTurn())
+            .append(" discardStage=").append(state.isDiscardStage())
+            .append(" lastDiscardSeat=").append(state.getLastDiscardSeat())
+            .append(" history=").append(state.getHistorySize());
+        return sb.toString();
+    }
+}
@@ -0,0 +1,269 @@
+package com.fzmahjong.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * HandDecomposer 与朴素枚举、WinValidator 计数版胡牌判断的对照
+ */
+class HandDecomposerTest {
+
+    private static final int KINDS = HandSamples.KINDS;
+
+    @Test
+    void partitionsMatchNaiveEnumeration() {
+        Random rnd = new Random(20240501L);
+        for (int i = 0; i < 3000; i++) {
+            int goldKind = randomGold(rnd);
+            int[] counts = randomHand(rnd, goldKind);
+
+            HandDecomposer.Result result = HandDecomposer.decompose(counts, goldKind, Integer.MAX_VALUE);
+            Set<List<Integer>> expected = naive(counts, goldKind);
+
+            assertFalse(result.isTruncated());
+            Set<List<Integer>> actual = new HashSet<>();
+            for (int p = 0; p < result.size(); p++) {
+                actual.add(canonical(result.get(p)));
+            }
+            assertEquals(result.size(), actual.size(), "同一拆法出现了多次：" + describe(counts, goldKind));
+            assertEquals(expected, actual, describe(counts, goldKind));
+        }
+    }
+
+    @Test
+    void decomposableExactlyWhenCanWin() {
+        Random rnd = new Random(7L);
+        for (int i = 0; i < 20000; i++) {
+            int goldKind = randomGold(rnd);
+            int[] counts = randomHand(rnd, goldKind);
+            int golds = goldKind < 0 ? 0 : counts[goldKind];
+
+            boolean canWin = WinValidator.canWinWithCounts(HandSamples.rows(counts, goldKind), golds);
+            assertEquals(canWin, !HandDecomposer.decompose(counts, goldKind).isEmpty(), describe(counts, goldKind));
+        }
+    }
+
+    @Test
+    void partitionsRebuildTheHand() {
+        Random rnd = new Random(11L);
+        for (int i = 0; i < 5000; i++) {
+            int goldKind = randomGold(rnd);
+            int[] counts = randomHand(rnd, goldKind);
+            int golds = goldKind < 0 ? 0 : counts[goldKind];
+            int total = HandSamples.total(counts);
+
+            HandDecomposer.Result all = HandDecomposer.decompose(counts, goldKind, Integer.MAX_VALUE);
+            boolean goldPair = false;
+            boolean goldMeld = false;
+            for (int p = 0; p < all.size(); p++) {
+                long partition = all.get(p);
+                assertEquals((total - 2) / 3, HandDecomposer.meldCount(partition));
+
+                int[] rebuilt = new int[KINDS];
+                int usedGolds = rebuild(HandDecomposer.pair(partition), 2, rebuilt);
+                for (int m = 0; m < HandDecomposer.meldCount(partition); m++) {
+                    usedGolds += rebuild(HandDecomposer.meld(partition, m), 3, rebuilt);
+                }
+                if (goldKind >= 0) {
+                    rebuilt[goldKind] += usedGolds;
+                }
+                assertEquals(golds, usedGolds, describe(counts, goldKind));
+                assertArrayEquals(counts, rebuilt, describe(counts, goldKind));
+
+                goldPair |= HandDecomposer.groupKind(HandDecomposer.pair(partition)) == HandDecomposer.ALL_GOLD;
+                for (int m = 0; m < HandDecomposer.meldCount(partition); m++) {
+                    goldMeld |= HandDecomposer.groupKind(HandDecomposer.meld(partition, m)) == HandDecomposer.ALL_GOLD;
+                }
+            }
+
+            // 汇总标志覆盖全部拆法，只保存少量拆法时也不变
+            HandDecomposer.Result limited = HandDecomposer.decompose(counts, goldKind, 1);
+            assertEquals(goldPair, limited.hasGoldPair(), describe(counts, goldKind));
+            assertEquals(goldMeld, limited.hasGoldMeld(), describe(counts, goldKind));
+            assertEquals(all.size() > 1, limited.isTruncated());
+            assertEquals(Math.min(all.size(), 1), limited.size());
+        }
+    }
+
+    @Test
+    void rejectsWrongTileCount() {
+        int[] counts = new int[KINDS];
+        counts[0] = 3;
+        assertTrue(HandDecomposer.decompose(counts, -1).isEmpty());
+        counts[0] = 2;
+        assertEquals(1, HandDecomposer.decompose(counts, -1).size());
+    }
+
+    // === 朴素枚举：不剪枝、不限定选法顺序，总是给当前最小的一张普通牌选所在的一组，用集合去重 ===
+
+    private static Set<List<Integer>> naive(int[] kindCounts, int goldKind) {
+        int[] counts = kindCounts.clone();
+        int golds = 0;
+        if (goldKind >= 0) {
+            golds = counts[goldKind];
+            counts[goldKind] = 0;
+        }
+        Set<List<Integer>> out = new HashSet<>();
+        if (HandSamples.total(kindCounts) % 3 == 2) {
+            naive(counts, golds, -1, new ArrayList<>(), out);
+        }
+        return out;
+    }
+
+    private static void naive(int[] counts, int golds, int pair, List<Integer> melds, Set<List<Integer>> out) {
+        int k = 0;
+        while (k < KINDS && counts[k] == 0) {
+            k++;
+        }
+        if (k == KINDS) {
+            int rest = golds;
+            if (pair < 0) {
+                if (rest < 2) {
+                    return;
+                }
+                pair = code(HandDecomposer.ALL_GOLD, false, 0b11);
+                rest -= 2;
+            }
+            if (rest % 3 != 0) {
+                return;
+            }
+            List<Integer> partition = new ArrayList<>(melds);
+            for (; rest > 0; rest -= 3) {
+                partition.add(code(HandDecomposer.ALL_GOLD, false, 0b111));
+            }
+            Collections.sort(partition);
+            partition.add(0, pair);
+            out.add(partition);
+            return;
+        }
+
+        // 将：两张普通 / 一张普通 + 一张金
+        if (pair < 0) {
+            if (counts[k] >= 2) {
+                counts[k] -= 2;
+                naive(counts, golds, code(k, false, 0), melds, out);
+                counts[k] += 2;
+            }
+            if (golds >= 1) {
+                counts[k] -= 1;
+                naive(counts, golds - 1, code(k, false, 0b10), melds, out);
+                counts[k] += 1;
+            }
+        }
+        // 刻子：真实牌在前，金在后
+        for (int real = 1; real <= Math.min(3, counts[k]); real++) {
+            int need = 3 - real;
+            if (need > golds) {
+                continue;
+            }
+            counts[k] -= real;
+            melds.add(code(k, false, ((1 << need) - 1) << real));
+            naive(counts, golds - need, pair, melds, out);
+            melds.remove(melds.size() - 1);
+            counts[k] += real;
+        }
+        // 顺子：k 在三个位置之一，其余位置用真实牌或金
+        if (k >= 27) {
+            return;
+        }
+        for (int start = k - 2; start <= k; start++) {
+            if (start < 0 || start / 9 != k / 9 || start % 9 > 6) {
+                continue;
+            }
+            for (int mask = 0; mask < 8; mask++) {
+                if ((mask & (1 << (k - start))) != 0 || Integer.bitCount(mask) > golds) {
+                    continue;
+                }
+                boolean ok = true;
+                for (int pos = 0; pos < 3; pos++) {
+                    if ((mask & (1 << pos)) == 0 && counts[start + pos] == 0) {
+                        ok = false;
+                    }
+                }
+                if (!ok) {
+                    continue;
+                }
+                for (int pos = 0; pos < 3; pos++) {
+                    if ((mask & (1 << pos)) == 0) {
+                        counts[start + pos]--;
+                    }
+                }
+                melds.add(code(start, true, mask));
+                naive(counts, golds - Integer.bitCount(mask), pair, melds, out);
+                melds.remove(melds.size() - 1);
+                for (int pos = 0; pos < 3; pos++) {
+                    if ((mask & (1 << pos)) == 0) {
+                        counts[start + pos]++;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 与具体编码无关的一组描述：牌种 × 1000 + 顺子 100 + 金的位置
+     */
+    private static int code(int kind, boolean sequence, int goldMask) {
+        return kind * 1000 + (sequence ? 100 : 0) + goldMask;
+    }
+
+    private static int code(int group) {
+        return code(HandDecomposer.groupKind(group), HandDecomposer.isSequence(group), HandDecomposer.goldMask(group));
+    }
+
+    private static List<Integer> canonical(long partition) {
+        List<Integer> melds = new ArrayList<>();
+        for (int m = 0; m < HandDecomposer.meldCount(partition); m++) {
+            melds.add(code(HandDecomposer.meld(partition, m)));
+        }
+        Collections.sort(melds);
+        melds.add(0, code(HandDecomposer.pair(partition)));
+        return melds;
+    }
+
+    /**
+     * 把一组的真实牌加回计数，返回这一组用掉的金数
+     */
+    private static int rebuild(int group, int size, int[] counts) {
+        int kind = HandDecomposer.groupKind(group);
+        int goldMask = HandDecomposer.goldMask(group);
+        for (int pos = 0; pos < size; pos++) {
+            if ((goldMask & (1 << pos)) == 0) {
+                counts[HandDecomposer.isSequence(group) ? kind + pos : kind]++;
+            }
+        }
+        return Integer.bitCount(goldMask);
+    }
+
+    private static int randomGold(Random rnd) {
+        return rnd.nextInt(5) == 0 ? -1 : rnd.nextInt(KINDS);
+    }
+
+    /**
+     * 3n+2 张：多数由面子拼成（可胡），其余随机换牌或完全随机；有金时随机换入 0..4 张金
+     */
+    private static int[] randomHand(Random rnd, int goldKind) {
+        int melds = rnd.nextInt(6);
+        int mode = rnd.nextInt(4);
+        int[] counts = mode < 2 ? HandSamples.melded(rnd, melds, 0)
+                : mode == 2 ? HandSamples.melded(rnd, melds, 1 + rnd.nextInt(2))
+                : HandSamples.random(rnd, melds * 3 + 2);
+        return goldKind < 0 ? counts : HandSamples.withGolds(rnd, counts, goldKind, rnd.nextInt(5));
+    }
+
+    private static String describe(int[] counts, int goldKind) {
+        return "counts=" + Arrays.toString(counts) + " goldKind=" + goldKind;
+    }
+}
@@ -0,0 +1,134 @@
+package com.fzmahjong.engine;
+
+import com.fzmahjong.model.Tile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 测试用的随机手牌（按牌种计数，下标见 {@link WinValidator#kindTile(int)}，每种最多 4 张）
+ */
+final class HandSamples {
+
+    static final int KINDS = WinValidator.KIND_COUNT;
+
+    /** 万条饼的牌种数（只有这三门可以组顺子） */
+    private static final int SUIT_KINDS = 27;
+
+    private HandSamples() {
+    }
+
+    /**
+     * 任意 total 张牌
+     */
+    static int[] random(Random rnd, int total) {
+        int[] counts = new int[KINDS];
+        for (int i = 0; i < total; i++) {
+            add(rnd, counts, rnd.nextInt(KINDS));
+        }
+        return counts;
+    }
+
+    /**
+     * 1 对将 + melds 副面子（刻子 / 顺子随机），再随机换掉 swaps 张：swaps 为 0 时一定能胡
+     */
+    static int[] melded(Random rnd, int melds, int swaps) {
+        int[] counts = new int[KINDS];
+        int pair;
+        do {
+            pair = rnd.nextInt(KINDS);
+        } while (counts[pair] > 2);
+        counts[pair] += 2;
+        for (int m = 0; m < melds; m++) {
+            while (true) {
+                if (rnd.nextInt(3) == 0) {
+                    int kind = rnd.nextInt(KINDS);
+                    if (counts[kind] <= 1) {
+                        counts[kind] += 3;
+                        break;
+                    }
+                } else {
+                    int start = rnd.nextInt(SUIT_KINDS);
+                    if (start % 9 <= 6 && counts[start] < 4 && counts[start + 1] < 4 && counts[start + 2] < 4) {
+                        counts[start]++;
+                        counts[start + 1]++;
+                        counts[start + 2]++;
+                        break;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < swaps; i++) {
+            counts[anyTile(rnd, counts, -1)]--;
+            add(rnd, counts, rnd.nextInt(KINDS));
+        }
+        return counts;
+    }
+
+    /**
+     * 把至多 golds 张非金的牌换成金（金牌最多 4 张）；金是万能牌，能胡的手牌换完仍能胡
+     */
+    static int[] withGolds(Random rnd, int[] counts, int goldKind, int golds) {
+        for (int i = 0; i < golds && counts[goldKind] < 4 && total(counts) > counts[goldKind]; i++) {
+            counts[anyTile(rnd, counts, goldKind)]--;
+            counts[goldKind]++;
+        }
+        return counts;
+    }
+
+    static int total(int[] counts) {
+        int total = 0;
+        for (int c : counts) {
+            total += c;
+        }
+        return total;
+    }
+
+    /**
+     * 计数对应的一手牌（同种牌依次取第 0..3 张）
+     */
+    static List<Tile> tiles(int[] counts) {
+        List<Tile> tiles = new ArrayList<>();
+        for (int kind = 0; kind < KINDS; kind++) {
+            for (int copy = 0; copy < counts[kind]; copy++) {
+                tiles.add(Tile.deck().get(kind * 4 + copy));
+            }
+        }
+        return tiles;
+    }
+
+    /**
+     * WinValidator 计数版判断用的 [门][点数] 数组（金不计入）
+     */
+    static int[][] rows(int[] counts, int goldKind) {
+        int[][] rows = new int[5][10];
+        for (int kind = 0; kind < KINDS; kind++) {
+            if (kind != goldKind) {
+                rows[WinValidator.kindType(kind)][WinValidator.kindValue(kind)] += counts[kind];
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * 给 kind 加一张；已满 4 张时改加下一种还没满的牌
+     */
+    private static void add(Random rnd, int[] counts, int kind) {
+        while (counts[kind] >= 4) {
+            kind = rnd.nextInt(KINDS);
+        }
+        counts[kind]++;
+    }
+
+    /**
+     * 随机选一张手里有的牌（不选 except）
+     */
+    private static int anyTile(Random rnd, int[] counts, int except) {
+        int kind;
+        do {
+            kind = rnd.nextInt(KINDS);
+        } while (counts[kind] == 0 || kind == except);
+        return kind;
+    }
+}
@@ -0,0 +1,205 @@
+package com.fzmahjong.engine;
+
+import com.fzmahjong.model.Player;
+import com.fzmahjong.model.Tile;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * ShantenCalculator 与暴力搜索“最少还要换几张牌才能胡”的对照
+ */
+class ShantenCalculatorTest {
+
+    private static final int KINDS = HandSamples.KINDS;
+
+    @Test
+    void matchesBruteForceMinimumDraws() {
+        Random rnd = new Random(20240507L);
+        for (int i = 0; i < 2000; i++) {
+            int declared = rnd.nextInt(4);
+            int melds = 5 - declared;
+            int goldKind = rnd.nextInt(4) == 0 ? -1 : rnd.nextInt(KINDS);
+            int[] counts = randomHand(rnd, melds, rnd.nextBoolean());
+            if (goldKind >= 0) {
+                HandSamples.withGolds(rnd, counts, goldKind, rnd.nextInt(4));
+            }
+            Tile goldTile = goldKind < 0 ? null : Tile.firstOfKind(goldKind);
+            Player player = player(counts, declared, rnd);
+            String hand = "counts=" + Arrays.toString(counts) + " goldKind=" + goldKind + " declared=" + declared;
+
+            assertEquals(bruteForce(counts, goldKind, melds), ShantenCalculator.calculate(player, goldTile), hand);
+        }
+    }
+
+    @Test
+    void discardsMatchBruteForce() {
+        Random rnd = new Random(20240508L);
+        for (int i = 0; i < 300; i++) {
+            int declared = rnd.nextInt(3);
+            int melds = 5 - declared;
+            int goldKind = rnd.nextInt(4) == 0 ? -1 : rnd.nextInt(KINDS);
+            int[] counts = randomHand(rnd, melds, false);
+            if (goldKind >= 0) {
+                HandSamples.withGolds(rnd, counts, goldKind, rnd.nextInt(3));
+            }
+            Tile goldTile = goldKind < 0 ? null : Tile.firstOfKind(goldKind);
+            int[] after = ShantenCalculator.calculateForDiscards(player(counts, declared, rnd), goldTile);
+
+            for (int kind = 0; kind < KINDS; kind++) {
+                String hand = "counts=" + Arrays.toString(counts) + " goldKind=" + goldKind + " discard=" + kind;
+                if (counts[kind] == 0) {
+                    assertEquals(ShantenCalculator.NOT_IN_HAND, after[kind], hand);
+                    continue;
+                }
+                counts[kind]--;
+                assertEquals(bruteForce(counts, goldKind, melds), after[kind], hand);
+                counts[kind]++;
+            }
+        }
+    }
+
+    @Test
+    void scatteredHandIsFarFromReady() {
+        // 16 张互不相连（同门间隔 3，另加字牌），有没有金都不应被压到 2 向听以内
+        int[] counts = new int[KINDS];
+        for (int kind : new int[]{0, 3, 6, 9, 12, 15, 18, 21, 24, 27, 28, 29, 30, 31, 32, 33}) {
+            counts[kind] = 1;
+        }
+        Player player = player(counts, 0, new Random(1L));
+        int expected = bruteForce(counts, -1, 5);
+        assertEquals(expected, ShantenCalculator.calculate(player, null));
+        assertEquals(expected, ShantenCalculator.calculate(player, Tile.firstOfKind(1)));
+        assertEquals(ShantenCalculator.NOT_IN_HAND, ShantenCalculator.sanJinDistance(player, null));
+        assertEquals(3, ShantenCalculator.sanJinDistance(player, Tile.firstOfKind(1)));
+        assertEquals(2, ShantenCalculator.sanJinDistance(player, Tile.firstOfKind(0)));
+    }
+
+    /**
+     * 3m+1 或 3m+2 张：一半由面子拼成后随机换牌，一半完全随机
+     */
+    private static int[] randomHand(Random rnd, int melds, boolean drawn) {
+        int[] counts = rnd.nextBoolean()
+                ? HandSamples.melded(rnd, melds, rnd.nextInt(5))
+                : HandSamples.random(rnd, melds * 3 + 2);
+        if (!drawn) {
+            int kind;
+            do {
+                kind = rnd.nextInt(KINDS);
+            } while (counts[kind] == 0);
+            counts[kind]--;
+        }
+        return counts;
+    }
+
+    /**
+     * 暗牌按 counts，另有 declared 副明牌或暗杠（只影响还需要的面子数）
+     */
+    private static Player player(int[] counts, int declared, Random rnd) {
+        Player player = new Player("p", "p", 0);
+        player.setHandTiles(HandSamples.tiles(counts));
+        for (int i = 0; i < declared; i++) {
+            Tile tile = Tile.firstOfKind(rnd.nextInt(KINDS));
+            if (rnd.nextBoolean()) {
+                player.addExposedMeld(List.of(tile, tile, tile));
+            } else {
+                player.addConcealedKong(List.of(tile, tile, tile, tile));
+            }
+        }
+        return player;
+    }
+
+    // === 暴力搜索：枚举手里每张牌是留作某一组（将 / 刻子 / 顺子）的一部分还是换掉，缺的位置由金或摸牌补 ===
+
+    private static int bruteForce(int[] kindCounts, int goldKind, int melds) {
+        int[] counts = kindCounts.clone();
+        int golds = 0;
+        if (goldKind >= 0) {
+            golds = counts[goldKind];
+            counts[goldKind] = 0;
+        }
+        int tiles = HandSamples.total(kindCounts);
+        int target = 3 * melds + 2;
+        // 三头金不看牌型（与 WinValidator 一致）
+        if (golds == 3) {
+            return tiles >= target ? -1 : 0;
+        }
+        int kept = keep(counts, 0, melds, 1, new HashMap<>());
+        // 还要换进 / 摸进的张数：目标牌型里既不是留下的普通牌、也不由手里的金补的位置
+        int draws = Math.max(0, target - kept - golds);
+        return draws == 0 ? -1 : draws - 1;
+    }
+
+    /**
+     * 牌种 k 之后的普通牌最多能留下几张（还可以再组 melds 副面子和 pairs 对将）
+     */
+    private static int keep(int[] c, int k, int melds, int pairs, Map<String, Integer> memo) {
+        while (k < KINDS && c[k] == 0) {
+            k++;
+        }
+        if (k == KINDS || (melds == 0 && pairs == 0)) {
+            return 0;
+        }
+        String key = Arrays.toString(Arrays.copyOfRange(c, k, KINDS)) + melds + pairs;
+        Integer cached = memo.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        // 换掉一张 k
+        c[k]--;
+        int best = keep(c, k, melds, pairs, memo);
+        c[k]++;
+        // 将：两张 k / 一张 k + 补一张
+        if (pairs > 0) {
+            for (int real = 1; real <= Math.min(2, c[k]); real++) {
+                c[k] -= real;
+                best = Math.max(best, real + keep(c, k, melds, pairs - 1, memo));
+                c[k] += real;
+            }
+        }
+        if (melds > 0) {
+            // 刻子：留下 1..3 张 k
+            for (int real = 1; real <= Math.min(3, c[k]); real++) {
+                c[k] -= real;
+                best = Math.max(best, real + keep(c, k, melds - 1, pairs, memo));
+                c[k] += real;
+            }
+            // 顺子：k 是其中留下的最小一张；比 k 小的位置补牌，比 k 大的位置可留可补
+            if (k < 27) {
+                for (int start = k - 2; start <= k; start++) {
+                    if (start < 0 || start / 9 != k / 9 || start % 9 > 6) {
+                        continue;
+                    }
+                    for (int take = 0; take < 4; take++) {
+                        int a = k + 1;
+                        int b = k + 2;
+                        boolean takeA = a <= start + 2 && (take & 1) != 0;
+                        boolean takeB = b <= start + 2 && (take & 2) != 0;
+                        if ((take & 1) != 0 && !takeA || (take & 2) != 0 && !takeB
+                                || takeA && c[a] == 0 || takeB && c[b] == 0) {
+                            continue;
+                        }
+                        c[k]--;
+                        if (takeA) c[a]--;
+                        if (takeB) c[b]--;
+                        int real = 1 + (takeA ? 1 : 0) + (takeB ? 1 : 0);
+                        best = Math.max(best, real + keep(c, k, melds - 1, pairs, memo));
+                        c[k]++;
+                        if (takeA) c[a]++;
+                        if (takeB) c[b]++;
+                    }
+                }
+            }
+        }
+        memo.put(key, best);
+        return best;
+    }
+}
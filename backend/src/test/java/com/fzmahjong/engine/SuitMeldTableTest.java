@@ -0,0 +1,111 @@
+package com.fzmahjong.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * SuitMeldTable 查表结果与 WinValidator DFS（allMelds / canWinWithCountsDfs）的对照
+ */
+class SuitMeldTableTest {
+
+    @Test
+    void honorTableMatchesDfs() {
+        int[] row = new int[10];
+        for (int key = 0; key < 625; key++) {
+            for (int v = 1, k = key; v <= 4; v++, k /= 5) {
+                row[v] = k % 5;
+            }
+            assertRowMatchesDfs(SuitMeldTable.HONOR, 3, row);
+        }
+    }
+
+    @Test
+    void numberTableMatchesDfs() {
+        // 不超过 6 张的各门全部覆盖，更多张数的随机抽样
+        int[] row = new int[10];
+        for (int key = 0; key < 1953125; key++) {
+            int total = 0;
+            for (int v = 1, k = key; v <= 9; v++, k /= 5) {
+                row[v] = k % 5;
+                total += row[v];
+            }
+            if (total <= 6) {
+                assertRowMatchesDfs(SuitMeldTable.NUMBER, 0, row);
+            }
+        }
+        Random rnd = new Random(20240503L);
+        for (int i = 0; i < 20000; i++) {
+            Arrays.fill(row, 0);
+            int total = 7 + rnd.nextInt(8);
+            for (int t = 0; t < total; t++) {
+                int v = 1 + rnd.nextInt(9);
+                if (row[v] < 4) {
+                    row[v]++;
+                }
+            }
+            assertRowMatchesDfs(SuitMeldTable.NUMBER, 0, row);
+        }
+    }
+
+    @Test
+    void canWinWithCountsMatchesDfs() {
+        Random rnd = new Random(20240504L);
+        for (int i = 0; i < 50000; i++) {
+            int melds = rnd.nextInt(6);
+            int goldKind = rnd.nextInt(5) == 0 ? -1 : rnd.nextInt(HandSamples.KINDS);
+            int[] counts = rnd.nextBoolean()
+                    ? HandSamples.melded(rnd, melds, rnd.nextInt(3))
+                    : HandSamples.random(rnd, melds * 3 + 2);
+            if (goldKind >= 0) {
+                HandSamples.withGolds(rnd, counts, goldKind, rnd.nextInt(5));
+            }
+            int golds = goldKind < 0 ? 0 : counts[goldKind];
+
+            boolean table = WinValidator.canWinWithCounts(HandSamples.rows(counts, goldKind), golds);
+            boolean dfs = WinValidator.canWinWithCountsDfs(HandSamples.rows(counts, goldKind), golds);
+            assertEquals(dfs, table, "counts=" + Arrays.toString(counts) + " goldKind=" + goldKind);
+        }
+    }
+
+    /**
+     * 该门单独放进计数数组，逐个金数比较：面子表对 allMelds，带将表对“先取将再 allMelds”
+     */
+    private static void assertRowMatchesDfs(SuitMeldTable table, int type, int[] row) {
+        int key = table.key(row);
+        int[][] counts = new int[5][10];
+        counts[type] = row.clone();
+        for (int golds = 0; golds <= SuitMeldTable.MAX_GOLD; golds++) {
+            String message = "row=" + Arrays.toString(row) + " golds=" + golds;
+            assertEquals(WinValidator.allMelds(counts, golds), (table.meldMask(key) & (1 << golds)) != 0, message);
+            assertEquals(pairThenMelds(counts, type, golds), (table.pairMask(key) & (1 << golds)) != 0, message);
+        }
+    }
+
+    /**
+     * 将出在本门（两张普通 / 一张普通 + 一张金），其余全拆面子
+     */
+    private static boolean pairThenMelds(int[][] counts, int type, int golds) {
+        for (int value = 1; value <= 9; value++) {
+            int c = counts[type][value];
+            boolean ok = false;
+            if (c >= 2) {
+                counts[type][value] -= 2;
+                ok = WinValidator.allMelds(counts, golds);
+                counts[type][value] += 2;
+            }
+            if (!ok && c >= 1 && golds >= 1) {
+                counts[type][value] -= 1;
+                ok = WinValidator.allMelds(counts, golds - 1);
+                counts[type][value] += 1;
+            }
+            if (ok) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,122 @@
+package com.fzmahjong.engine;
+
+import com.fzmahjong.model.Player;
+import com.fzmahjong.model.Tile;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * WinAnalysis 的金雀 / 金龙判定与原先 GameEngine#isJinQue / canWinWithoutThreeGolds 的对照
+ */
+class WinAnalysisTest {
+
+    @Test
+    void goldPatternsMatchPreviousRules() {
+        Random rnd = new Random(20240502L);
+        int jinQue = 0;
+        int jinLong = 0;
+        for (int i = 0; i < 5000; i++) {
+            int goldKind = rnd.nextInt(HandSamples.KINDS);
+            int[] counts = HandSamples.withGolds(rnd, HandSamples.melded(rnd, 5, 0), goldKind, rnd.nextInt(5));
+            Tile goldTile = Tile.firstOfKind(goldKind);
+            Player winner = player(counts);
+            String hand = "counts=" + Arrays.toString(counts) + " goldKind=" + goldKind;
+
+            WinAnalysis ziMo = WinAnalysis.analyze(winner, goldTile, true, false, true, false);
+            assertEquals(counts[goldKind], ziMo.getHandGoldCount(), hand);
+            assertEquals(previousJinQue(counts, goldKind), ziMo.isJinQue(), hand);
+            assertEquals(previousJinLong(winner.getHandTiles(), goldTile), ziMo.isJinLong(), hand);
+            jinQue += ziMo.isJinQue() ? 1 : 0;
+            jinLong += ziMo.isJinLong() ? 1 : 0;
+
+            // 金龙只算自摸；拆法与直接枚举的结果一致
+            WinAnalysis dianPao = WinAnalysis.analyze(winner, goldTile, false, false, true, false);
+            assertFalse(dianPao.isJinLong(), hand);
+            assertEquals(ziMo.isJinQue(), dianPao.isJinQue(), hand);
+            HandDecomposer.Result expected = HandDecomposer.decompose(counts, goldKind);
+            HandDecomposer.Result actual = dianPao.getDecomposition();
+            assertEquals(expected.size(), actual.size(), hand);
+            for (int p = 0; p < expected.size(); p++) {
+                assertEquals(expected.get(p), actual.get(p), hand);
+            }
+        }
+        // 样本里两种牌型都要出现，否则对照没有意义
+        assertFalse(jinQue == 0 || jinLong == 0, "jinQue=" + jinQue + " jinLong=" + jinLong);
+    }
+
+    private static Player player(int[] counts) {
+        Player player = new Player("p", "p", 0);
+        player.setHandTiles(HandSamples.tiles(counts));
+        return player;
+    }
+
+    /**
+     * 原 GameEngine#isJinQue：恰好两张金，去掉后的 15 张不用金能拆成 5 副面子
+     */
+    private static boolean previousJinQue(int[] counts, int goldKind) {
+        if (counts[goldKind] != 2 || HandSamples.total(counts) - 2 != 15) {
+            return false;
+        }
+        return fiveMelds(HandSamples.rows(counts, goldKind), 0);
+    }
+
+    private static boolean fiveMelds(int[][] counts, int meldCount) {
+        int type = -1;
+        int value = -1;
+        outer:
+        for (int t = 0; t < counts.length; t++) {
+            for (int v = 1; v <= 9; v++) {
+                if (counts[t][v] > 0) {
+                    type = t;
+                    value = v;
+                    break outer;
+                }
+            }
+        }
+        if (meldCount == 5 || type == -1) {
+            return meldCount == 5 && type == -1;
+        }
+        if (counts[type][value] >= 3) {
+            counts[type][value] -= 3;
+            boolean ok = fiveMelds(counts, meldCount + 1);
+            counts[type][value] += 3;
+            if (ok) {
+                return true;
+            }
+        }
+        if (type < 3 && value <= 7 && counts[type][value + 1] > 0 && counts[type][value + 2] > 0) {
+            counts[type][value]--;
+            counts[type][value + 1]--;
+            counts[type][value + 2]--;
+            boolean ok = fiveMelds(counts, meldCount + 1);
+            counts[type][value]++;
+            counts[type][value + 1]++;
+            counts[type][value + 2]++;
+            return ok;
+        }
+        return false;
+    }
+
+    /**
+     * 原 GameEngine#canWinWithoutThreeGolds（自摸且至少三张金时）：去掉三张金后剩下的牌仍能胡
+     */
+    private static boolean previousJinLong(List<Tile> hand, Tile goldTile) {
+        List<Tile> rest = new ArrayList<>(hand);
+        int removed = 0;
+        for (int i = rest.size() - 1; i >= 0 && removed < 3; i--) {
+            if (rest.get(i).isSameAs(goldTile)) {
+                rest.remove(i);
+                removed++;
+            }
+        }
+        return removed == 3 && WinValidator.canWin(rest, goldTile, false);
+    }
+}
@@ -1,6 +1,6 @@
 import { useMemo } from 'react';
 import { useGame } from '../context/GameContext';
-import { getChiCandidates } from '../utils/chiCandidates';
+import { resolveChiCandidates } from '../utils/chiCandidates';
 import { TileDisplay } from './TileDisplay';
 import type { Tile } from '../types/game';
 import '../styles/dialogs.css';
@@ -14,11 +14,12 @@ export function ChiDialog({ discardedTile, onClose }: ChiDialogProps) {
   const { gameState, sendChi } = useGame();
   const handTiles = gameState?.myHandTiles ?? [];
   const goldTile = gameState?.goldTile;
+  const chiOptions = gameState?.availableActions?.chiOptions;
 
   const candidates = useMemo(() => {
     if (!discardedTile) return [];
-    return getChiCandidates(handTiles, discardedTile, goldTile);
-  }, [handTiles, discardedTile, goldTile]);
+    return resolveChiCandidates(handTiles, discardedTile, goldTile, chiOptions);
+  }, [handTiles, discardedTile, goldTile, chiOptions]);
 
   const handleChi = (tileId1: string, tileId2: string) => {
     sendChi(tileId1, tileId2);
@@ -1,6 +1,6 @@
 import { useCallback, useEffect, useState } from 'react';
 import { useGame } from '../context/GameContext';
-import { getChiCandidates } from '../utils/chiCandidates';
+import { resolveChiCandidates } from '../utils/chiCandidates';
 import { getTileImageUrl } from '../utils/tileImages';
 import { Table } from './Table';
 import { MyHand } from './MyHand';
@@ -11,7 +11,7 @@ import { ContinuePrompt } from './ContinuePrompt';
 import type { Tile, LastWinSettlement } from '../types/game';
 
 export function Game() {
-  const { gameState, publicData, playerId, leaveGame, sendChi } = useGame();
+  const { gameState, publicData, tingTiles, playerId, leaveGame, sendChi } = useGame();
   const [chiDialogTile, setChiDialogTile] = useState<Tile | null>(null);
   const [huResult, setHuResult] = useState<{
     playerName: string;
@@ -26,7 +26,12 @@ export function Game() {
     (discardedTile: Tile) => {
       const hand = gameState?.myHandTiles ?? [];
       const gold = gameState?.goldTile;
-      const candidates = getChiCandidates(hand, discardedTile, gold);
+      const candidates = resolveChiCandidates(
+        hand,
+        discardedTile,
+        gold,
+        gameState?.availableActions?.chiOptions
+      );
       if (candidates.length === 0) {
         alert('Cannot form a valid sequence');
         return;
@@ -45,7 +50,7 @@ export function Game() {
       }
       setChiDialogTile(discardedTile);
     },
-    [gameState?.myHandTiles, gameState?.goldTile, sendChi]
+    [gameState?.myHandTiles, gameState?.goldTile, gameState?.availableActions?.chiOptions, sendChi]
   );
 
   // Show 胡 result when phase is HAND_FINISHED (one hand just ended) or FINISHED (game over). Clear when entering next hand.
@@ -134,11 +139,11 @@ export function Game() {
 
       <div
         id="tingPanel"
-        className={`ting-panel ${(gameState?.availableActions?.tingTiles?.length ?? 0) > 0 ? 'visible' : ''}`}
+        className={`ting-panel ${tingTiles.length > 0 ? 'visible' : ''}`}
       >
         <h3 style={{ marginBottom: 8 }}>👂</h3>
         <div className="ting-content">
-          {(gameState?.availableActions?.tingTiles ?? []).map((tile) => (
+          {tingTiles.map((tile) => (
             <div key={tile.id} className="tile has-image" style={{ width: 36, height: 50, cursor: 'default' }}>
               <img src={getTileImageUrl(tile.type, tile.value)} alt="" />
             </div>
@@ -2,7 +2,7 @@ import React, { createContext, useCallback, useContext, useRef, useState } from
 import { Client } from '@stomp/stompjs';
 import type { IMessage } from '@stomp/stompjs';
 import SockJS from 'sockjs-client';
-import type { GameState as GameStateType } from '../types/game';
+import type { DeltaMessage, GameState as GameStateType, SyncMessage, Tile, TingHintMessage } from '../types/game';
 
 const STORAGE_KEYS = {
   PLAYER_ID: 'mahjong_player_id',
@@ -14,12 +14,45 @@ function generatePlayerId(): string {
   return 'PLAYER_' + Math.random().toString(36).substring(2, 11);
 }
 
+/** 本地已应用的公共 / 私有状态及其版本号（增量同步） */
+type SyncState = {
+  pub: Partial<GameStateType>;
+  priv: Partial<GameStateType>;
+  pubVersion: number;
+  privVersion: number;
+};
+
+function emptySyncState(): SyncState {
+  return { pub: {}, priv: {}, pubVersion: 0, privVersion: 0 };
+}
+
+/** 把服务端增量应用到上一版状态上（set 整值替换，lists 保留前 keep 项再追加，players 按座位替换） */
+function applyDelta(base: Partial<GameStateType>, delta: DeltaMessage): Partial<GameStateType> {
+  const prev = base as Record<string, unknown>;
+  const next: Record<string, unknown> = { ...prev, ...(delta.set ?? {}) };
+  for (const [key, patch] of Object.entries(delta.lists ?? {})) {
+    const list = prev[key];
+    const kept = Array.isArray(list) ? list.slice(0, patch.keep) : [];
+    next[key] = [...kept, ...patch.append];
+  }
+  if (delta.players) {
+    const players = (base.players ?? []).slice(0, delta.players.size);
+    for (const [index, player] of Object.entries(delta.players.changed)) {
+      players[Number(index)] = player;
+    }
+    next.players = players;
+  }
+  return next as Partial<GameStateType>;
+}
+
 type GameContextValue = {
   roomId: string | null;
   playerId: string | null;
   playerName: string | null;
   gameState: GameStateType | null;
   publicData: Partial<GameStateType> | null;
+  /** 当前手牌的听牌提示（按需请求，手牌或可用操作变化时清空并重新请求） */
+  tingTiles: Tile[];
   isConnected: boolean;
   joinGame: (playerName: string, roomId?: string, rejoinPlayerId?: string) => Promise<boolean>;
   leaveGame: () => void;
@@ -46,8 +79,11 @@ export function GameProvider({ children }: { children: React.ReactNode }) {
   const [playerName, setPlayerName] = useState<string | null>(null);
   const [gameState, setGameState] = useState<GameStateType | null>(null);
   const [publicData, setPublicData] = useState<Partial<GameStateType> | null>(null);
+  const [tingTiles, setTingTiles] = useState<Tile[]>([]);
   const [isConnected, setIsConnected] = useState(false);
   const clientRef = useRef<Client | null>(null);
+  const syncRef = useRef<SyncState>(emptySyncState());
+  const tingSeqRef = useRef(0);
 
   const send = useCallback((destination: string, body: object) => {
     const c = clientRef.current;
@@ -82,25 +118,84 @@ export function GameProvider({ children }: { children: React.ReactNode }) {
       setPlayerName(name);
       setGameState(null);
       setPublicData(null);
+      setTingTiles([]);
+      syncRef.current = emptySyncState();
 
       const client = new Client({
         webSocketFactory: () => new SockJS('/ws-mahjong') as unknown as WebSocket,
         reconnectDelay: 5000,
         onConnect: () => {
           setIsConnected(true);
+          // 发现版本缺口（丢了增量）时请求一份完整快照
+          const requestSync = () => {
+            client.publish({
+              destination: '/app/game/sync',
+              body: JSON.stringify({ playerId: pid }),
+            });
+          };
+          const publishState = () => {
+            const sync = syncRef.current;
+            const merged = { ...sync.pub, ...sync.priv } as GameStateType;
+            setPublicData(merged);
+            // 收到自己的私有状态之前不渲染牌桌（与原先“只用私有消息设置 gameState”一致）
+            if (sync.privVersion > 0) setGameState(merged);
+          };
+          // 手牌或可用操作变化后旧的听牌提示作废；服务端标记可请求时再按需获取
+          const refreshTingHint = () => {
+            tingSeqRef.current += 1;
+            setTingTiles([]);
+            if (syncRef.current.priv.availableActions?.tingHint) {
+              client.publish({
+                destination: '/app/game/tingHint',
+                body: JSON.stringify({ playerId: pid, seq: tingSeqRef.current }),
+              });
+            }
+          };
           client.subscribe('/topic/room/' + finalRid, (msg: IMessage) => {
-            const data = JSON.parse(msg.body);
-            setPublicData((prev) => ({ ...prev, ...data }));
+            const data = JSON.parse(msg.body) as SyncMessage;
+            const sync = syncRef.current;
+            if (data.version <= sync.pubVersion) return;
+            if (data.type === 'snapshot') {
+              sync.pub = data.public;
+            } else if (data.baseVersion > sync.pubVersion) {
+              requestSync();
+              return;
+            } else {
+              sync.pub = applyDelta(sync.pub, data);
+            }
+            sync.pubVersion = data.version;
+            publishState();
           });
           client.subscribe('/topic/room/' + finalRid + '/player/' + pid, (msg: IMessage) => {
-            const data = JSON.parse(msg.body);
-            setGameState(data);
-            setPublicData((prev) => ({ ...prev, ...data }));
-          });
-          client.publish({
-            destination: '/app/game/sync',
-            body: JSON.stringify({ playerId: pid }),
+            const data = JSON.parse(msg.body) as SyncMessage | TingHintMessage;
+            if (data.type === 'tingHint') {
+              // 只接受最近一次请求的回复
+              if (data.seq === tingSeqRef.current) setTingTiles(data.tingTiles);
+              return;
+            }
+            const sync = syncRef.current;
+            const before = sync.priv;
+            if (data.type === 'snapshot') {
+              // 快照总是权威的：同时覆盖公共与私有状态
+              sync.pub = data.public;
+              sync.pubVersion = data.version;
+              sync.priv = data.private ?? {};
+              sync.privVersion = data.version;
+            } else if (data.version <= sync.privVersion) {
+              return;
+            } else if (data.baseVersion > sync.privVersion) {
+              requestSync();
+              return;
+            } else {
+              sync.priv = applyDelta(sync.priv, data);
+              sync.privVersion = data.version;
+            }
+            publishState();
+            if (sync.priv.myHandTiles !== before.myHandTiles || sync.priv.availableActions !== before.availableActions) {
+              refreshTingHint();
+            }
           });
+          requestSync();
         },
         onDisconnect: () => setIsConnected(false),
       });
@@ -125,6 +220,8 @@ export function GameProvider({ children }: { children: React.ReactNode }) {
     setPlayerName(null);
     setGameState(null);
     setPublicData(null);
+    setTingTiles([]);
+    syncRef.current = emptySyncState();
     localStorage.removeItem(STORAGE_KEYS.PLAYER_ID);
     localStorage.removeItem(STORAGE_KEYS.ROOM_ID);
     localStorage.removeItem(STORAGE_KEYS.PLAYER_NAME);
@@ -205,6 +302,7 @@ export function GameProvider({ children }: { children: React.ReactNode }) {
     playerName,
     gameState,
     publicData,
+    tingTiles,
     isConnected,
     joinGame,
     leaveGame,
@@ -26,8 +26,11 @@ export interface AvailableActions {
   canAnGang?: boolean;
   canSanJinDao?: boolean;
   discardedTile?: Tile;
+  /** 可以用来吃的两张牌（每种一张代表牌，按牌面对应手牌） */
+  chiOptions?: Tile[][];
   anGangTiles?: Tile[];
-  tingTiles?: Tile[];
+  /** 听牌提示可以请求（结果通过 /app/game/tingHint 按需获取） */
+  tingHint?: boolean;
 }
 
 export type GamePhase =
@@ -75,3 +78,39 @@ export interface GameState {
   lastDrawnTile?: Tile | null;
   lastDrawPlayerIndex?: number;
 }
+
+/** 服务端增量同步消息（见后端 StateBroadcaster） */
+export interface ListPatch {
+  keep: number;
+  append: unknown[];
+}
+
+export interface PlayersPatch {
+  size: number;
+  changed: Record<string, Player>;
+}
+
+export interface SnapshotMessage {
+  type: 'snapshot';
+  version: number;
+  public: Partial<GameState>;
+  private?: Partial<GameState>;
+}
+
+export interface DeltaMessage {
+  type: 'delta';
+  version: number;
+  baseVersion: number;
+  set?: Partial<GameState>;
+  lists?: Record<string, ListPatch>;
+  players?: PlayersPatch;
+}
+
+export type SyncMessage = SnapshotMessage | DeltaMessage;
+
+/** 按需请求的听牌提示回复（只发给请求者，seq 原样带回） */
+export interface TingHintMessage {
+  type: 'tingHint';
+  seq: number;
+  tingTiles: Tile[];
+}
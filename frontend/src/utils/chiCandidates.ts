@@ -35,3 +35,27 @@ export function getChiCandidates(
   }
   return candidates;
 }
+
+/**
+ * Map the server-computed chi options (one representative tile per kind) onto concrete hand tiles.
+ * Falls back to computing the candidates locally when the server did not send any.
+ */
+export function resolveChiCandidates(
+  handTiles: Tile[],
+  discardedTile: Tile,
+  goldTile: Tile | null | undefined,
+  options: Tile[][] | undefined
+): ChiCandidate[] {
+  if (!options) return getChiCandidates(handTiles, discardedTile, goldTile);
+  const find = (t: Tile) => handTiles.find((h) => h.type === t.type && h.value === t.value);
+  const candidates: ChiCandidate[] = [];
+  for (const [a, b] of options) {
+    const t1 = find(a);
+    const t2 = find(b);
+    if (!t1 || !t2) continue;
+    const type =
+      b.value < discardedTile.value ? 'left' : a.value > discardedTile.value ? 'right' : 'middle';
+    candidates.push({ tile1: t1, tile2: t2, type });
+  }
+  return candidates;
+}